@@ -0,0 +1,275 @@
+package dev.mgmeral.ticket.availability;
+
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceCounters;
+import dev.mgmeral.ticket.model.SeanceAvailabilityResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes seance availability to Server-Sent Events subscribers.
+ * <p>
+ * Every {@code interval-ms} a single ticker reads all subscribed seances from {@link SeanceCapacityLedger}
+ * in one batch, each once however many clients follow it, and queues a frame for its subscribers if the counters changed
+ * since the last tick, so a seance produces at most one frame per interval. Frames are written by virtual
+ * threads, one drain at a time per subscriber; frames a slow client has not taken yet are replaced by newer
+ * ones for the same seance. Idle connections get a comment every {@code heartbeat-ms}.
+ */
+@Slf4j
+@Component
+public class AvailabilityStream implements DisposableBean {
+
+    static final String EVENT_NAME = "availability";
+
+    private final ConcurrentHashMap<Long, Topic> topics = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final SeanceCapacityLedger capacityLedger;
+    private final long intervalMs;
+    private final long heartbeatNanos;
+    private final long timeoutMs;
+    private final int maxSeances;
+    private final Executor senders;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "availability-stream");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Counter frames;
+    private final Counter coalesced;
+    private final Counter disconnects;
+
+    private long lastHeartbeat = System.nanoTime();
+
+    @Autowired
+    public AvailabilityStream(SeanceCapacityLedger capacityLedger,
+                              MeterRegistry registry,
+                              @Value("${seances.availability.stream.interval-ms:500}") long intervalMs,
+                              @Value("${seances.availability.stream.heartbeat-ms:15000}") long heartbeatMs,
+                              @Value("${seances.availability.stream.timeout-ms:1800000}") long timeoutMs,
+                              @Value("${seances.availability.stream.max-seances:50}") int maxSeances) {
+        this(capacityLedger, registry, intervalMs, heartbeatMs, timeoutMs, maxSeances,
+                Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    AvailabilityStream(SeanceCapacityLedger capacityLedger, MeterRegistry registry, long intervalMs,
+                       long heartbeatMs, long timeoutMs, int maxSeances, Executor senders) {
+        this.capacityLedger = capacityLedger;
+        this.intervalMs = intervalMs;
+        this.heartbeatNanos = heartbeatMs * 1_000_000L;
+        this.timeoutMs = timeoutMs;
+        this.maxSeances = maxSeances;
+        this.senders = senders;
+
+        this.frames = registry.counter("availability_stream_frames_total");
+        this.coalesced = registry.counter("availability_stream_coalesced_total");
+        this.disconnects = registry.counter("availability_stream_disconnects_total");
+        Gauge.builder("availability_stream_subscribers", subscribers, Set::size).register(registry);
+        Gauge.builder("availability_stream_seances", topics, ConcurrentHashMap::size).register(registry);
+    }
+
+    /**
+     * Opens a stream for the given seances; the first frame of each carries its current availability.
+     */
+    public SseEmitter subscribe(Collection<Long> seanceIds) {
+        List<Long> ids = seanceIds.stream().distinct().toList();
+        if (ids.isEmpty() || ids.size() > maxSeances) {
+            throw new IllegalArgumentException("Between 1 and " + maxSeances + " seance ids are required");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = register(emitter, ids);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        log.debug("availability.stream.subscribed seanceIds={} subscribers={}", ids, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Reads the current counters of all {@code seanceIds} in one batch; unknown ids fail here, before anything
+     * is registered and before the response is committed to text/event-stream.
+     */
+    Subscriber register(SseEmitter emitter, List<Long> seanceIds) {
+        Map<Long, SeanceCounters.Snapshot> snapshots = capacityLedger.snapshots(seanceIds);
+        if (snapshots.size() != seanceIds.size()) {
+            List<Long> missing = seanceIds.stream().filter(id -> !snapshots.containsKey(id)).toList();
+            throw new EntityNotFoundException("Seance(s) not found: " + missing);
+        }
+
+        Subscriber subscriber = new Subscriber(emitter, seanceIds);
+        subscribers.add(subscriber);
+        for (Long seanceId : seanceIds) {
+            SeanceCounters.Snapshot snapshot = snapshots.get(seanceId);
+            topics.compute(seanceId, (id, topic) -> {
+                Topic t = topic == null ? new Topic(snapshot) : topic;
+                t.subscribers.add(subscriber);
+                return t;
+            });
+            offer(subscriber, seanceId, toResponse(seanceId, snapshot));
+        }
+        return subscriber;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ticker.scheduleWithFixedDelay(this::tick, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    void tick() {
+        List<Long> seanceIds = new ArrayList<>();
+        for (Long seanceId : topics.keySet()) {
+            if (topics.computeIfPresent(seanceId, (id, t) -> t.subscribers.isEmpty() ? null : t) != null) {
+                seanceIds.add(seanceId);
+            }
+        }
+        if (!seanceIds.isEmpty()) {
+            publish(seanceIds);
+        }
+
+        long now = System.nanoTime();
+        if (now - lastHeartbeat >= heartbeatNanos) {
+            lastHeartbeat = now;
+            subscribers.forEach(s -> {
+                s.heartbeat = true;
+                drainLater(s);
+            });
+        }
+    }
+
+    /**
+     * Stale entries are reloaded by {@link SeanceCapacityLedger#snapshots} in one batch, so a tick costs at most
+     * one round trip however many seances are followed; seances that no longer exist are skipped.
+     */
+    private void publish(List<Long> seanceIds) {
+        Map<Long, SeanceCounters.Snapshot> snapshots;
+        try {
+            snapshots = capacityLedger.snapshots(seanceIds);
+        } catch (RuntimeException e) {
+            log.warn("availability.stream.readFailed seances={}", seanceIds.size(), e);
+            return;
+        }
+        snapshots.forEach((seanceId, snapshot) -> {
+            Topic topic = topics.get(seanceId);
+            if (topic == null || snapshot.equals(topic.last)) {
+                return;
+            }
+            topic.last = snapshot;
+            SeanceAvailabilityResponse frame = toResponse(seanceId, snapshot);
+            topic.subscribers.forEach(s -> offer(s, seanceId, frame));
+        });
+    }
+
+    private void offer(Subscriber subscriber, Long seanceId, SeanceAvailabilityResponse frame) {
+        if (subscriber.pending.put(seanceId, frame) != null) {
+            coalesced.increment();
+        }
+        drainLater(subscriber);
+    }
+
+    private void drainLater(Subscriber subscriber) {
+        if (!subscriber.closed && subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                if (subscriber.heartbeat) {
+                    subscriber.heartbeat = false;
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                }
+                for (Long seanceId : subscriber.pending.keySet()) {
+                    SeanceAvailabilityResponse frame = subscriber.pending.remove(seanceId);
+                    if (frame != null) {
+                        subscriber.emitter.send(SseEmitter.event()
+                                .name(EVENT_NAME)
+                                .id(String.valueOf(seanceId))
+                                .data(frame, MediaType.APPLICATION_JSON));
+                        frames.increment();
+                    }
+                }
+                subscriber.draining.set(false);
+                // something may have been offered after the loop and before the flag was cleared
+            } while ((!subscriber.pending.isEmpty() || subscriber.heartbeat)
+                    && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            // client went away or the emitter already completed
+            disconnects.increment();
+            unsubscribe(subscriber);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Long seanceId : subscriber.seanceIds) {
+            topics.computeIfPresent(seanceId, (id, t) -> {
+                t.subscribers.remove(subscriber);
+                return t.subscribers.isEmpty() ? null : t;
+            });
+        }
+    }
+
+    private static SeanceAvailabilityResponse toResponse(Long seanceId, SeanceCounters.Snapshot snapshot) {
+        return new SeanceAvailabilityResponse(seanceId, snapshot.capacity(), snapshot.sold(), snapshot.held(),
+                snapshot.available());
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+        subscribers.forEach(s -> s.emitter.complete());
+    }
+
+    private static final class Topic {
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private volatile SeanceCounters.Snapshot last;
+
+        private Topic(SeanceCounters.Snapshot last) {
+            this.last = last;
+        }
+    }
+
+    static final class Subscriber {
+        private final SseEmitter emitter;
+        private final List<Long> seanceIds;
+        private final ConcurrentHashMap<Long, SeanceAvailabilityResponse> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeat;
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, List<Long> seanceIds) {
+            this.emitter = emitter;
+            this.seanceIds = seanceIds;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package dev.mgmeral.ticket.controller;
+
+import dev.mgmeral.ticket.model.AutocompleteSuggestion;
+import dev.mgmeral.ticket.search.AutocompleteIndex;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class AutocompleteController {
+
+    private final AutocompleteIndex autocompleteIndex;
+
+    public AutocompleteController(AutocompleteIndex autocompleteIndex) {
+        this.autocompleteIndex = autocompleteIndex;
+    }
+
+    @GetMapping("/autocomplete")
+    public List<AutocompleteSuggestion> autocomplete(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        return autocompleteIndex.suggest(q, limit);
+    }
+}
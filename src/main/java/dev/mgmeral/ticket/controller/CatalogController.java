@@ -0,0 +1,25 @@
+package dev.mgmeral.ticket.controller;
+
+import dev.mgmeral.ticket.model.CatalogChanges;
+import dev.mgmeral.ticket.service.CatalogService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/catalog")
+public class CatalogController {
+
+    private final CatalogService catalogService;
+
+    public CatalogController(CatalogService catalogService) {
+        this.catalogService = catalogService;
+    }
+
+    @GetMapping("/changes")
+    public CatalogChanges changes(@RequestParam(required = false) String since,
+                                  @RequestParam(defaultValue = "500") int limit) {
+        return catalogService.changes(since, limit);
+    }
+}
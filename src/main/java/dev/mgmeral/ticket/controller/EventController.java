@@ -1,17 +1,19 @@
 package dev.mgmeral.ticket.controller;
 
+import dev.mgmeral.ticket.enums.CountMode;
 import dev.mgmeral.ticket.model.*;
 import dev.mgmeral.ticket.service.EventService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping("/events")
@@ -34,6 +36,16 @@ public class EventController {
         return eventService.getById(id);
     }
 
+    @GetMapping("/{id}/detail")
+    public EventDetailResponse detail(@PathVariable @Min(1) Long id) {
+        return eventService.detail(id);
+    }
+
+    @GetMapping(params = "ids")
+    public List<MultiGetItem<EventGetResponse>> getByIds(@RequestParam List<Long> ids) {
+        return eventService.getByIds(ids);
+    }
+
     @PutMapping("/{id}")
     public EventUpdateResponse update(
             @PathVariable @Min(1) Long id,
@@ -49,13 +61,25 @@ public class EventController {
     }
 
     @GetMapping
-    public Page<EventSearchResponse> search(
+    public Slice<EventSearchResponse> search(
             @RequestParam(required = false) String type,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTo,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @PageableDefault(size = 20) Pageable pageable) {
-        return eventService.search(type, name, startFrom, startTo, pageable);
+        return eventService.search(type, name, startFrom, startTo, count, pageable);
+    }
+
+    @GetMapping("/scroll")
+    public CursorSlice<EventSearchResponse> scroll(
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant startTo,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return eventService.scroll(type, name, startFrom, startTo, cursor, size);
     }
 
     @PutMapping("/{id}/performers")
@@ -2,24 +2,34 @@ package dev.mgmeral.ticket.controller;
 
 import dev.mgmeral.ticket.model.HoldCreateRequest;
 import dev.mgmeral.ticket.model.HoldResponse;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.service.HoldService;
+import dev.mgmeral.ticket.waitingroom.WaitingRoomGate;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/holds")
 public class HoldController {
 
+    public static final String WAITING_ROOM_TOKEN_HEADER = "X-Waiting-Room-Token";
+
     private final HoldService holdService;
+    private final WaitingRoomGate waitingRoomGate;
 
-    public HoldController(HoldService holdService) {
+    public HoldController(HoldService holdService, WaitingRoomGate waitingRoomGate) {
         this.holdService = holdService;
+        this.waitingRoomGate = waitingRoomGate;
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public HoldResponse create(@Valid @RequestBody HoldCreateRequest request) {
+    public HoldResponse create(@Valid @RequestBody HoldCreateRequest request,
+                               @RequestHeader(name = WAITING_ROOM_TOKEN_HEADER, required = false) String waitingRoomToken) {
+        waitingRoomGate.enter(request.seanceId(), waitingRoomToken, request.idempotencyKey());
         return holdService.create(request);
     }
 
@@ -28,6 +38,11 @@ public class HoldController {
         return holdService.getById(holdId);
     }
 
+    @GetMapping(params = "ids")
+    public List<MultiGetItem<HoldResponse>> getByIds(@RequestParam List<Long> ids) {
+        return holdService.getByIds(ids);
+    }
+
     @DeleteMapping("/{holdId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void release(@PathVariable Long holdId) {
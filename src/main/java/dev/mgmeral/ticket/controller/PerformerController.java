@@ -1,15 +1,20 @@
 package dev.mgmeral.ticket.controller;
 
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.model.CursorSlice;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.PerformerCreateRequest;
 import dev.mgmeral.ticket.model.PerformerResponse;
 import dev.mgmeral.ticket.model.PerformerUpdateRequest;
 import dev.mgmeral.ticket.service.PerformerService;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/performers")
 public class PerformerController {
@@ -32,10 +37,23 @@ public class PerformerController {
         return performerService.getById(id);
     }
 
+    @GetMapping(params = "ids")
+    public List<MultiGetItem<PerformerResponse>> getByIds(@RequestParam List<Long> ids) {
+        return performerService.getByIds(ids);
+    }
+
     @GetMapping
-    public Page<PerformerResponse> list(@RequestParam(required = false) String name,
-                                        Pageable pageable) {
-        return performerService.list(name, pageable);
+    public Slice<PerformerResponse> list(@RequestParam(required = false) String name,
+                                         @RequestParam(defaultValue = "EXACT") CountMode count,
+                                         Pageable pageable) {
+        return performerService.list(name, count, pageable);
+    }
+
+    @GetMapping("/scroll")
+    public CursorSlice<PerformerResponse> scroll(@RequestParam(required = false) String name,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(defaultValue = "20") int size) {
+        return performerService.scroll(name, cursor, size);
     }
 
     @PutMapping("/{id}")
@@ -1,19 +1,25 @@
 package dev.mgmeral.ticket.controller;
 
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.model.CursorSlice;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.SeanceAvailabilityResponse;
 import dev.mgmeral.ticket.model.SeanceCreateRequest;
 import dev.mgmeral.ticket.model.SeanceCreateResponse;
 import dev.mgmeral.ticket.model.SeanceGetResponse;
 import dev.mgmeral.ticket.service.SeanceService;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.List;
 
 @RestController
 public class SeanceController {
@@ -35,18 +41,53 @@ public class SeanceController {
         return seanceService.getById(id);
     }
 
+    @GetMapping(value = "/seances", params = "ids")
+    public List<MultiGetItem<SeanceGetResponse>> getByIds(@RequestParam List<Long> ids) {
+        return seanceService.getByIds(ids);
+    }
+
     @GetMapping("/seances")
-    public Page<SeanceGetResponse> search(
+    public Slice<SeanceGetResponse> search(
             @RequestParam(required = false) Long eventId,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateTo,
+            @RequestParam(defaultValue = "false") boolean onlyAvailable,
+            @RequestParam(defaultValue = "false") boolean withAvailability,
+            @RequestParam(defaultValue = "EXACT") CountMode count,
             @PageableDefault(size = 20, sort = "id") Pageable pageable
     ) {
-        return seanceService.search(eventId, dateFrom, dateTo, pageable);
+        return seanceService.search(eventId, dateFrom, dateTo, onlyAvailable, withAvailability, count, pageable);
+    }
+
+    @GetMapping("/seances/scroll")
+    public CursorSlice<SeanceGetResponse> scroll(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant dateTo,
+            @RequestParam(defaultValue = "false") boolean onlyAvailable,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        return seanceService.scroll(eventId, dateFrom, dateTo, onlyAvailable, cursor, size);
     }
 
     @GetMapping("/seances/{id}/availability")
     public SeanceAvailabilityResponse availability(@PathVariable Long id) {
         return seanceService.availability(id);
     }
+
+    @GetMapping("/seances/availability")
+    public List<SeanceAvailabilityResponse> availability(@RequestParam List<Long> ids) {
+        return seanceService.availability(ids);
+    }
+
+    @GetMapping("/events/{eventId}/seances/availability")
+    public List<SeanceAvailabilityResponse> availabilityByEvent(@PathVariable Long eventId) {
+        return seanceService.availabilityByEvent(eventId);
+    }
+
+    @GetMapping(value = "/seances/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter availabilityStream(@RequestParam List<Long> ids) {
+        return seanceService.streamAvailability(ids);
+    }
 }
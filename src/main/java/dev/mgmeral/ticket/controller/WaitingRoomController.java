@@ -0,0 +1,23 @@
+package dev.mgmeral.ticket.controller;
+
+import dev.mgmeral.ticket.model.WaitingRoomTicketResponse;
+import dev.mgmeral.ticket.waitingroom.WaitingRoomGate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class WaitingRoomController {
+
+    private final WaitingRoomGate waitingRoomGate;
+
+    public WaitingRoomController(WaitingRoomGate waitingRoomGate) {
+        this.waitingRoomGate = waitingRoomGate;
+    }
+
+    @GetMapping("/seances/{seanceId}/waiting-room")
+    public WaitingRoomTicketResponse status(@PathVariable Long seanceId, @RequestParam String token) {
+        return waitingRoomGate.status(seanceId, token);
+    }
+}
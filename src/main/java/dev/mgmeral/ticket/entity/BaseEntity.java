@@ -28,6 +28,14 @@ public abstract class BaseEntity {
         updatedAt = Instant.now();
     }
 
+    /**
+     * Sets the timestamps of a row inserted outside of JPA.
+     */
+    public void markInserted(Instant at) {
+        createdAt = at;
+        updatedAt = at;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -39,4 +39,7 @@ public class Hold extends BaseEntity {
 
     @Column(name = "released_at")
     private Instant releasedAt;
+
+    @Column(name = "shard_no", nullable = false, updatable = false)
+    private int shardNo;
 }
@@ -0,0 +1,31 @@
+package dev.mgmeral.ticket.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "job_leases")
+public class JobLease extends BaseEntity {
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    /**
+     * Node currently holding the lease; empty until the first node takes it.
+     */
+    @Column(name = "owner", nullable = false, length = 128, updatable = false)
+    private String owner;
+
+    @Column(name = "acquired_at", nullable = false, updatable = false)
+    private Instant acquiredAt;
+
+    @Column(name = "expires_at", nullable = false, updatable = false)
+    private Instant expiresAt;
+}
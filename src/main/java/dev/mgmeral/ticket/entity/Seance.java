@@ -5,11 +5,19 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Instant;
 
+/**
+ * Second-level cached. The counter columns are moved by native updates that leave the cache alone, so on a
+ * cached instance they are stale; live counters are read through {@code SeanceInventory}.
+ */
 @Entity
 @Table(name = "seances")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @ToString
@@ -27,6 +35,14 @@ public class Seance extends BaseEntity {
     private Event event;
     @Column
     private int capacity;
+    @Column(name = "sold_quantity", updatable = false)
+    private int soldQuantity;
+    @Column(name = "held_quantity", updatable = false)
+    private int heldQuantity;
+    @Column(name = "inventory_shards", updatable = false)
+    private int inventoryShards = 1;
+    @Column(name = "available_quantity", insertable = false, updatable = false)
+    private int availableQuantity;
     @Column(name = "start_date")
     private Instant startDate;
 }
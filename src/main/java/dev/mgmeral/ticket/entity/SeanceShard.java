@@ -0,0 +1,39 @@
+package dev.mgmeral.ticket.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "seance_shards")
+public class SeanceShard extends BaseEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "seance_id", nullable = false)
+    private Long seanceId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(nullable = false)
+    private int capacity;
+
+    @Column(name = "sold_quantity", nullable = false, updatable = false)
+    private int soldQuantity;
+
+    @Column(name = "held_quantity", nullable = false, updatable = false)
+    private int heldQuantity;
+
+    @Column(name = "available_quantity", insertable = false, updatable = false)
+    private int availableQuantity;
+
+    public int available() {
+        return capacity - soldQuantity - heldQuantity;
+    }
+}
@@ -0,0 +1,34 @@
+package dev.mgmeral.ticket.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "waiting_rooms")
+public class WaitingRoom extends BaseEntity {
+    @Id
+    @Column(name = "seance_id")
+    private Long seanceId;
+
+    /**
+     * Last sequence number handed out to any node.
+     */
+    @Column(name = "next_seq", nullable = false, updatable = false)
+    private long nextSeq;
+
+    /**
+     * Tickets with a sequence number up to this one may enter {@code POST /holds}.
+     */
+    @Column(name = "admitted_seq", nullable = false, updatable = false)
+    private long admittedSeq;
+
+    @Column(name = "advanced_at", nullable = false, updatable = false)
+    private Instant advancedAt;
+}
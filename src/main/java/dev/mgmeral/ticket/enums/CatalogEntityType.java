@@ -0,0 +1,7 @@
+package dev.mgmeral.ticket.enums;
+
+public enum CatalogEntityType {
+    EVENT,
+    PERFORMER,
+    SEANCE
+}
@@ -0,0 +1,19 @@
+package dev.mgmeral.ticket.enums;
+
+/**
+ * How a list endpoint computes the total of its page.
+ */
+public enum CountMode {
+    /**
+     * {@code count(*)} on every request.
+     */
+    EXACT,
+    /**
+     * Total of the same filters from {@link dev.mgmeral.ticket.paging.PageCounts}, refreshed in the background.
+     */
+    CACHED,
+    /**
+     * No total; the page only tells whether there is a next one.
+     */
+    NONE
+}
@@ -1,6 +1,8 @@
 package dev.mgmeral.ticket.exception;
 
+import dev.mgmeral.ticket.model.WaitingRoomTicketResponse;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -27,6 +29,26 @@ public class GlobalExceptionHandler {
         return e.getMessage();
     }
 
+    @ExceptionHandler(HoldAdmissionTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String admissionTimeout(HoldAdmissionTimeoutException e) {
+        return e.getMessage();
+    }
+
+    @ExceptionHandler(WaitingRoomQueuedException.class)
+    public ResponseEntity<WaitingRoomTicketResponse> queued(WaitingRoomQueuedException e) {
+        WaitingRoomTicketResponse ticket = e.getTicket();
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, ticket.retryAfterMs() / 1000)))
+                .body(ticket);
+    }
+
+    @ExceptionHandler(WaitingRoomFullException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String waitingRoomFull(WaitingRoomFullException e) {
+        return e.getMessage();
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public Map<String, Object> handleValidation(MethodArgumentNotValidException e) {
@@ -0,0 +1,8 @@
+package dev.mgmeral.ticket.exception;
+
+public class HoldAdmissionTimeoutException extends RuntimeException {
+
+    public HoldAdmissionTimeoutException(Long seanceId) {
+        super("Hold admission timed out, retry with the same idempotencyKey. seanceId=" + seanceId);
+    }
+}
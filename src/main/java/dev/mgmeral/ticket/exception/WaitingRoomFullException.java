@@ -0,0 +1,8 @@
+package dev.mgmeral.ticket.exception;
+
+public class WaitingRoomFullException extends RuntimeException {
+
+    public WaitingRoomFullException(Long seanceId) {
+        super("Waiting room is full, try again later. seanceId=" + seanceId);
+    }
+}
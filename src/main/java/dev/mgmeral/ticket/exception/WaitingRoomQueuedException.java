@@ -0,0 +1,17 @@
+package dev.mgmeral.ticket.exception;
+
+import dev.mgmeral.ticket.model.WaitingRoomTicketResponse;
+
+public class WaitingRoomQueuedException extends RuntimeException {
+
+    private final WaitingRoomTicketResponse ticket;
+
+    public WaitingRoomQueuedException(WaitingRoomTicketResponse ticket) {
+        super("Queued in waiting room. seanceId=" + ticket.seanceId() + " position=" + ticket.position());
+        this.ticket = ticket;
+    }
+
+    public WaitingRoomTicketResponse getTicket() {
+        return ticket;
+    }
+}
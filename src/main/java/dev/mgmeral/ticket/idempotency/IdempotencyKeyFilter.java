@@ -0,0 +1,162 @@
+package dev.mgmeral.ticket.idempotency;
+
+import dev.mgmeral.ticket.repository.HoldRepository;
+import dev.mgmeral.ticket.repository.IdempotencyKeyRow;
+import dev.mgmeral.ticket.repository.PurchaseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-local negative cache of the idempotency keys used by holds and purchases: when
+ * {@link #mightExist} says no, the {@code findByIdempotencyKey} round trip can be skipped.
+ * <p>
+ * The filters are rebuilt from the DB every {@code rebuild-ms} and keys created on this node are added
+ * as they are written, so keys written by other nodes are only seen after the next rebuild. A key the
+ * filter misses is harmless: the unique index still rejects the insert and callers recover the winner
+ * from the duplicate-key path. Until the first rebuild every key is reported as possibly existing.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeyFilter {
+
+    private static final int PAGE_SIZE = 10_000;
+
+    public enum Scope {
+        HOLD, PURCHASE
+    }
+
+    private final Map<Scope, Slot> slots = new EnumMap<>(Scope.class);
+
+    private final HoldRepository holdRepository;
+    private final PurchaseRepository purchaseRepository;
+    private final boolean enabled;
+    private final long expectedKeys;
+    private final double fpp;
+
+    public IdempotencyKeyFilter(HoldRepository holdRepository,
+                                PurchaseRepository purchaseRepository,
+                                MeterRegistry registry,
+                                @Value("${idempotency.filter.enabled:true}") boolean enabled,
+                                @Value("${idempotency.filter.expected-keys:1000000}") long expectedKeys,
+                                @Value("${idempotency.filter.fpp:0.01}") double fpp) {
+        this.holdRepository = holdRepository;
+        this.purchaseRepository = purchaseRepository;
+        this.enabled = enabled;
+        this.expectedKeys = expectedKeys;
+        this.fpp = fpp;
+
+        for (Scope scope : Scope.values()) {
+            String tag = scope.name().toLowerCase();
+            Slot slot = new Slot(
+                    registry.counter("idempotency_filter_skipped_total", "scope", tag),
+                    registry.counter("idempotency_filter_lookups_total", "scope", tag));
+            Gauge.builder("idempotency_filter_expected_fpp", slot, s -> s.current == null ? 1 : s.current.expectedFpp())
+                    .tag("scope", tag)
+                    .register(registry);
+            Gauge.builder("idempotency_filter_bytes", slot, s -> s.current == null ? 0 : s.current.memoryBytes())
+                    .tag("scope", tag)
+                    .register(registry);
+            Gauge.builder("idempotency_filter_keys", slot, s -> s.current == null ? 0 : s.current.size())
+                    .tag("scope", tag)
+                    .register(registry);
+            slots.put(scope, slot);
+        }
+    }
+
+    /**
+     * @return {@code false} only if no hold / purchase with this key exists as of the last rebuild and
+     * none was written on this node since
+     */
+    public boolean mightExist(Scope scope, String key) {
+        if (!enabled) {
+            return true;
+        }
+        Slot slot = slots.get(scope);
+        ScalableBloomFilter filter = slot.current;
+        if (filter == null || filter.mightContain(key)) {
+            slot.lookups.increment();
+            return true;
+        }
+        slot.skipped.increment();
+        return false;
+    }
+
+    public void add(Scope scope, String key) {
+        if (!enabled) {
+            return;
+        }
+        Slot slot = slots.get(scope);
+        ScalableBloomFilter building = slot.building;
+        if (building != null) {
+            building.put(key);
+        }
+        ScalableBloomFilter filter = slot.current;
+        if (filter != null) {
+            filter.put(key);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.filter.rebuild-ms:600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        for (Scope scope : Scope.values()) {
+            rebuild(scope);
+        }
+    }
+
+    private void rebuild(Scope scope) {
+        long start = System.nanoTime();
+        Slot slot = slots.get(scope);
+        ScalableBloomFilter fresh = new ScalableBloomFilter(expectedKeys, fpp);
+        slot.building = fresh;
+        try {
+            long afterId = 0;
+            List<IdempotencyKeyRow> page;
+            do {
+                page = scope == Scope.HOLD
+                        ? holdRepository.findIdempotencyKeysAfter(afterId, Limit.of(PAGE_SIZE))
+                        : purchaseRepository.findIdempotencyKeysAfter(afterId, Limit.of(PAGE_SIZE));
+                for (IdempotencyKeyRow row : page) {
+                    fresh.put(row.getIdempotencyKey());
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+
+            slot.current = fresh;
+            log.info("idempotency.filter.rebuilt scope={} keys={} bytes={} expectedFpp={} tookMs={}",
+                    scope, fresh.size(), fresh.memoryBytes(), fresh.expectedFpp(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("idempotency.filter.rebuildFailed scope={}", scope, e);
+        } finally {
+            slot.building = null;
+        }
+    }
+
+    private static final class Slot {
+        private final Counter skipped;
+        private final Counter lookups;
+        private volatile ScalableBloomFilter current;
+        private volatile ScalableBloomFilter building;
+
+        private Slot(Counter skipped, Counter lookups) {
+            this.skipped = skipped;
+            this.lookups = lookups;
+        }
+    }
+}
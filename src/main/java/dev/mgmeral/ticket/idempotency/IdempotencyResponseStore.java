@@ -0,0 +1,166 @@
+package dev.mgmeral.ticket.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter.Scope;
+import dev.mgmeral.ticket.repository.IdempotencyResponseRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Serialized responses of {@code POST /holds} and {@code POST /purchases}, kept for {@code ttl-ms} under
+ * the first 16 bytes of the SHA-256 of the idempotency key. A retry is answered from one primary-key read
+ * instead of loading and mapping the hold / purchase.
+ * <p>
+ * Responses are written best-effort once the original request has its result. A retry that finds none
+ * (not written, purged, evicted, or from before this store) falls back to the idempotency-key lookup; the
+ * unique indexes on {@code holds} and {@code purchases} stay the authority.
+ * <p>
+ * A stored response must describe a state its resource is still in: purchases never change after insert,
+ * but a hold response is kept no longer than the hold's {@code expiresAt} and is evicted when the hold is
+ * released or consumed.
+ */
+@Slf4j
+@Component
+public class IdempotencyResponseStore {
+
+    private static final int KEY_HASH_BYTES = 16;
+
+    private final Map<Scope, Counter> hits = new EnumMap<>(Scope.class);
+    private final Map<Scope, Counter> misses = new EnumMap<>(Scope.class);
+
+    private final IdempotencyResponseRepository repository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final int purgeChunk;
+    private final Counter purged;
+
+    public IdempotencyResponseStore(IdempotencyResponseRepository repository,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry registry,
+                                    @Value("${idempotency.responses.enabled:true}") boolean enabled,
+                                    @Value("${idempotency.responses.ttl-ms:86400000}") long ttlMs,
+                                    @Value("${idempotency.responses.purge-chunk:1000}") int purgeChunk) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.purgeChunk = purgeChunk;
+
+        for (Scope scope : Scope.values()) {
+            String tag = scope.name().toLowerCase();
+            hits.put(scope, registry.counter("idempotency_response_hits_total", "scope", tag));
+            misses.put(scope, registry.counter("idempotency_response_misses_total", "scope", tag));
+        }
+        this.purged = registry.counter("idempotency_response_purged_total");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public <T> Optional<T> find(Scope scope, String key, Class<T> type) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<byte[]> body = repository.findBody(scope.name(), keyHash(key), Instant.now());
+        if (body.isEmpty()) {
+            misses.get(scope).increment();
+            return Optional.empty();
+        }
+        try {
+            T response = objectMapper.readValue(body.get(), type);
+            hits.get(scope).increment();
+            return Optional.of(response);
+        } catch (IOException e) {
+            // e.g. stored by a version with a different response shape; the entity lookup still answers
+            log.warn("idempotency.response.unreadable scope={} idemKey={}", scope, key, e);
+            misses.get(scope).increment();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Keeps the first response stored for a key. Failures are logged, not thrown, so they never fail the
+     * request that produced the response.
+     */
+    public void save(Scope scope, String key, Object response) {
+        save(scope, key, response, null);
+    }
+
+    /**
+     * Like {@link #save(Scope, String, Object)}, but keeps the response only until {@code validUntil} when
+     * that comes before the configured ttl.
+     */
+    public void save(Scope scope, String key, Object response, Instant validUntil) {
+        if (!enabled) {
+            return;
+        }
+        Instant expiresAt = Instant.now().plus(ttl);
+        if (validUntil != null && validUntil.isBefore(expiresAt)) {
+            expiresAt = validUntil;
+        }
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            repository.insert(scope.name(), keyHash(key), body, expiresAt);
+        } catch (IOException | DataAccessException e) {
+            log.warn("idempotency.response.saveFailed scope={} idemKey={}", scope, key, e);
+        }
+    }
+
+    /**
+     * Drops the stored response once the resource has left the state it describes. Runs in the caller's
+     * transaction, so it is undone together with the state change; a failure is logged and the
+     * {@code expiresAt} of the entry still bounds how long it can be replayed.
+     */
+    public void evict(Scope scope, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        try {
+            repository.delete(scope.name(), keyHash(key));
+        } catch (DataAccessException e) {
+            log.warn("idempotency.response.evictFailed scope={} idemKey={}", scope, key, e);
+        }
+    }
+
+    /**
+     * Deletes expired responses in chunks of {@code purge-chunk} rows, each in its own statement.
+     *
+     * @return number of responses deleted
+     */
+    public int purge(Instant now) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = repository.deleteExpired(now, purgeChunk);
+            total += deleted;
+            purged.increment(deleted);
+        } while (deleted == purgeChunk);
+        return total;
+    }
+
+    static byte[] keyHash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return Arrays.copyOf(digest, KEY_HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
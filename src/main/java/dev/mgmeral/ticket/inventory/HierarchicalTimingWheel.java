@@ -0,0 +1,117 @@
+package dev.mgmeral.ticket.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel of hold ids keyed by their deadline.
+ * <p>
+ * Level {@code i} has {@code wheelSize} slots of {@code tickMs * wheelSize^i} each. An id lives on the
+ * lowest level whose span still covers its deadline and moves down a level each time the slot it sits
+ * in comes round, so adding is O(1) and each tick only touches one slot per level. Deadlines beyond the
+ * top level wait in an overflow list that is re-examined once per top-level turn.
+ * <p>
+ * Not thread-safe; {@link HoldExpiryWheel} guards it.
+ */
+final class HierarchicalTimingWheel {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long[] spans;
+    private final List<List<Entry>> slots;
+    private List<Entry> overflow = new ArrayList<>();
+    private long currentTick;
+    private int size;
+
+    HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long nowMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels + 1];
+        spans[0] = 1;
+        for (int i = 1; i <= levels; i++) {
+            spans[i] = spans[i - 1] * wheelSize;
+        }
+        this.slots = new ArrayList<>(levels * wheelSize);
+        for (int i = 0; i < levels * wheelSize; i++) {
+            slots.add(new ArrayList<>());
+        }
+        this.currentTick = nowMs / tickMs;
+    }
+
+    /**
+     * Deadlines that are already due fire on the next tick.
+     */
+    void add(long id, long deadlineMs) {
+        place(new Entry(id, Math.max(deadlineMs / tickMs, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Moves the wheel to {@code nowMs} and returns the ids whose deadline has been reached.
+     */
+    List<Long> advance(long nowMs) {
+        List<Long> due = new ArrayList<>();
+        long targetTick = nowMs / tickMs;
+        int levels = spans.length - 1;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            if (currentTick % spans[levels] == 0 && !overflow.isEmpty()) {
+                List<Entry> waiting = overflow;
+                overflow = new ArrayList<>();
+                waiting.forEach(this::place);
+            }
+            for (int level = levels - 1; level >= 1; level--) {
+                if (currentTick % spans[level] == 0) {
+                    List<Entry> cascading = drain(level, currentTick / spans[level]);
+                    for (Entry e : cascading) {
+                        if (e.tick <= currentTick) {
+                            due.add(e.id);
+                            size--;
+                        } else {
+                            place(e);
+                        }
+                    }
+                }
+            }
+            for (Entry e : drain(0, currentTick)) {
+                due.add(e.id);
+                size--;
+            }
+        }
+        return due;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void place(Entry e) {
+        long delta = e.tick - currentTick;
+        for (int level = 0; level < spans.length - 1; level++) {
+            if (delta < spans[level + 1]) {
+                slot(level, e.tick / spans[level]).add(e);
+                return;
+            }
+        }
+        overflow.add(e);
+    }
+
+    private List<Entry> drain(int level, long position) {
+        List<Entry> slot = slot(level, position);
+        if (slot.isEmpty()) {
+            return List.of();
+        }
+        List<Entry> drained = new ArrayList<>(slot);
+        slot.clear();
+        return drained;
+    }
+
+    private List<Entry> slot(int level, long position) {
+        return slots.get(level * wheelSize + (int) (position % wheelSize));
+    }
+
+    private record Entry(long id, long tick) {
+    }
+}
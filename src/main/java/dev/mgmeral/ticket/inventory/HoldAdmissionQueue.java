@@ -0,0 +1,170 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.exception.HoldAdmissionTimeoutException;
+import dev.mgmeral.ticket.model.HoldCreateRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group commit for {@code POST /holds}: requests are queued per seance and a single writer per seance
+ * drains them in batches through {@link HoldBatchWriter}, so a burst of N holds costs one reservation
+ * update, one insert and one commit instead of N transactions queueing on the same row lock.
+ * <p>
+ * Enabled with {@code holds.group-commit.enabled}. A caller waits at most {@code timeout-ms}; a request
+ * still queued by then is dropped, one already taken by the writer may still be admitted and is found
+ * again by retrying with the same idempotency key.
+ * <p>
+ * A seance's queue is dropped once its writer finds it empty, so the map only holds seances taking holds.
+ */
+@Slf4j
+@Component
+public class HoldAdmissionQueue implements DisposableBean {
+
+    private final ConcurrentHashMap<Long, SeanceQueue> queues = new ConcurrentHashMap<>();
+
+    private final HoldBatchWriter holdBatchWriter;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long timeoutMs;
+    private final ExecutorService writers;
+
+    public HoldAdmissionQueue(HoldBatchWriter holdBatchWriter,
+                              @Value("${holds.group-commit.enabled:false}") boolean enabled,
+                              @Value("${holds.group-commit.writers:4}") int writers,
+                              @Value("${holds.group-commit.max-batch:200}") int maxBatch,
+                              @Value("${holds.group-commit.timeout-ms:2000}") long timeoutMs) {
+        this.holdBatchWriter = holdBatchWriter;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.timeoutMs = timeoutMs;
+        this.writers = Executors.newFixedThreadPool(writers, r -> {
+            Thread t = new Thread(r, "hold-writer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public HoldBatchWriter.Outcome submit(HoldCreateRequest request) {
+        Pending pending = new Pending(request, new CompletableFuture<>());
+        // added under the map lock, so it cannot land in a queue that drain() is dropping
+        SeanceQueue queue = queues.compute(request.seanceId(), (seanceId, q) -> {
+            SeanceQueue target = q == null ? new SeanceQueue(seanceId) : q;
+            target.pending.add(pending);
+            return target;
+        });
+        if (queue.draining.compareAndSet(false, true)) {
+            writers.execute(() -> drain(queue));
+        }
+
+        try {
+            return pending.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            pending.result.cancel(false);
+            log.warn("hold.admission.timeout seanceId={} idemKey={} timeoutMs={}",
+                    request.seanceId(), request.idempotencyKey(), timeoutMs);
+            throw new HoldAdmissionTimeoutException(request.seanceId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result.cancel(false);
+            throw new HoldAdmissionTimeoutException(request.seanceId());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void drain(SeanceQueue queue) {
+        for (; ; ) {
+            List<Pending> batch = new ArrayList<>();
+            Pending next;
+            while (batch.size() < maxBatch && (next = queue.pending.poll()) != null) {
+                if (!next.result.isDone()) {
+                    batch.add(next);
+                }
+            }
+            if (!batch.isEmpty()) {
+                write(queue.seanceId, batch);
+            }
+
+            if (queue.pending.isEmpty()) {
+                queue.draining.set(false);
+                queues.computeIfPresent(queue.seanceId,
+                        (seanceId, q) -> q == queue && q.pending.isEmpty() && !q.draining.get() ? null : q);
+                // a request may have been queued after the last poll but before the flag was cleared
+                if (queue.pending.isEmpty() || !queue.draining.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void write(Long seanceId, List<Pending> batch) {
+        try {
+            List<HoldBatchWriter.Outcome> outcomes = holdBatchWriter.write(seanceId,
+                    batch.stream().map(Pending::request).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(outcomes.get(i));
+            }
+            log.debug("hold.admission.batch seanceId={} size={}", seanceId, batch.size());
+        } catch (DataIntegrityViolationException dupKey) {
+            // an idempotency key of the batch was inserted elsewhere meanwhile; the whole insert rolled back
+            log.info("hold.admission.batchConflict seanceId={} size={}", seanceId, batch.size());
+            batch.forEach(p -> writeOne(seanceId, p));
+        } catch (RuntimeException e) {
+            log.error("hold.admission.batchFailed seanceId={} size={}", seanceId, batch.size(), e);
+            batch.forEach(p -> p.result.completeExceptionally(e));
+        }
+    }
+
+    private void writeOne(Long seanceId, Pending pending) {
+        try {
+            pending.result.complete(holdBatchWriter.write(seanceId, List.of(pending.request)).get(0));
+        } catch (RuntimeException e) {
+            pending.result.completeExceptionally(e);
+        }
+    }
+
+    int queuedSeances() {
+        return queues.size();
+    }
+
+    @Override
+    public void destroy() {
+        writers.shutdown();
+    }
+
+    private record Pending(HoldCreateRequest request, CompletableFuture<HoldBatchWriter.Outcome> result) {
+    }
+
+    private static final class SeanceQueue {
+        private final Long seanceId;
+        private final Queue<Pending> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private SeanceQueue(Long seanceId) {
+            this.seanceId = seanceId;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.entity.Hold;
+import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.model.HoldCreateRequest;
+import dev.mgmeral.ticket.repository.HoldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Admits a batch of hold requests for one seance in a single transaction: the admitted quantity is
+ * reserved with one conditional update and the holds are written with one multi-row insert.
+ * <p>
+ * Outcomes are returned rather than thrown so that one rejected request does not roll back the
+ * others; callers act on them once the transaction has committed.
+ * <p>
+ * Idempotency is insert-first: a request whose key turns out to be taken gives its reservation back
+ * and gets the existing hold as a replayed outcome, without failing the batch's transaction.
+ */
+@Slf4j
+@Component
+public class HoldBatchWriter {
+
+    private static final Duration HOLD_TTL = Duration.ofMinutes(5);
+
+    private final HoldRepository holdRepository;
+    private final SeanceInventory seanceInventory;
+    private final SeanceCapacityLedger capacityLedger;
+    private final HoldExpiryWheel expiryWheel;
+
+    public HoldBatchWriter(HoldRepository holdRepository,
+                           SeanceInventory seanceInventory,
+                           SeanceCapacityLedger capacityLedger,
+                           HoldExpiryWheel expiryWheel) {
+        this.holdRepository = holdRepository;
+        this.seanceInventory = seanceInventory;
+        this.capacityLedger = capacityLedger;
+        this.expiryWheel = expiryWheel;
+    }
+
+    /**
+     * @return one outcome per request, in request order; requests repeating an idempotency key of the
+     * batch share the outcome of its first occurrence
+     */
+    @Transactional
+    public List<Outcome> write(Long seanceId, List<HoldCreateRequest> requests) {
+        Instant now = Instant.now();
+        SeanceCounters counters = capacityLedger.get(seanceId);
+
+        Map<String, Hold> admittedByKey = new HashMap<>();
+        Set<String> replayedKeys = new HashSet<>();
+        List<Hold> admitted = new ArrayList<>();
+        int total = 0;
+        for (HoldCreateRequest request : requests) {
+            if (admittedByKey.containsKey(request.idempotencyKey()) || !counters.tryReserve(request.quantity())) {
+                continue;
+            }
+            Hold hold = newHold(request, now);
+            admittedByKey.put(request.idempotencyKey(), hold);
+            admitted.add(hold);
+            total += request.quantity();
+        }
+
+        if (!admitted.isEmpty()) {
+            capacityLedger.releaseOnRollback(counters, total);
+
+            int shardNo = seanceInventory.reserve(seanceId, counters.shards(), total);
+            if (shardNo == SeanceInventory.NO_CAPACITY) {
+                counters = capacityLedger.refresh(seanceId);
+                log.warn("hold.batch.insufficientCapacity.db seanceId={} requested={} available={} batchSize={}",
+                        seanceId, total, counters.available(), admitted.size());
+                reserveOneByOne(seanceId, counters, admitted, admittedByKey);
+            } else {
+                admitted.forEach(h -> h.setShardNo(shardNo));
+            }
+
+            List<Hold> taken = holdRepository.insertAllNew(admitted);
+            if (!taken.isEmpty()) {
+                replayTaken(seanceId, taken, admitted, admittedByKey, replayedKeys);
+            }
+            expiryWheel.scheduleAfterCommit(admitted);
+        }
+
+        log.debug("hold.batch.written seanceId={} requests={} admitted={} replayed={} capacity={} sold={} held={}",
+                seanceId, requests.size(), admitted.size(), replayedKeys.size(),
+                counters.capacity(), counters.sold(), counters.held());
+
+        long available = counters.available();
+        return requests.stream()
+                .map(r -> new Outcome(admittedByKey.get(r.idempotencyKey()), available,
+                        replayedKeys.contains(r.idempotencyKey())))
+                .toList();
+    }
+
+    /**
+     * Gives back what was reserved for holds whose idempotency key already existed and swaps them for
+     * the holds that own the key.
+     */
+    private void replayTaken(Long seanceId, List<Hold> taken, List<Hold> admitted, Map<String, Hold> admittedByKey,
+                             Set<String> replayedKeys) {
+        admitted.removeAll(taken);
+        taken.stream()
+                .collect(Collectors.groupingBy(Hold::getShardNo, Collectors.summingInt(Hold::getQuantity)))
+                .forEach((shardNo, quantity) -> {
+                    seanceInventory.release(seanceId, shardNo, quantity);
+                    capacityLedger.releaseAfterCommit(seanceId, quantity);
+                });
+
+        List<String> keys = taken.stream().map(Hold::getIdempotencyKey).toList();
+        for (Hold existing : holdRepository.findWithLockByIdempotencyKeyIn(keys)) {
+            admittedByKey.put(existing.getIdempotencyKey(), existing);
+            replayedKeys.add(existing.getIdempotencyKey());
+        }
+        for (String key : keys) {
+            if (!replayedKeys.contains(key)) {
+                throw new DataIntegrityViolationException("Idempotency key taken but no hold found: " + key);
+            }
+        }
+        log.info("hold.batch.replayed seanceId={} keys={}", seanceId, keys);
+    }
+
+    /**
+     * The ledger let through more than the DB had; give each hold its own chance against the
+     * refreshed counters and the DB.
+     */
+    private void reserveOneByOne(Long seanceId, SeanceCounters counters, List<Hold> admitted,
+                                 Map<String, Hold> admittedByKey) {
+        int total = 0;
+        Iterator<Hold> it = admitted.iterator();
+        while (it.hasNext()) {
+            Hold hold = it.next();
+            if (!counters.tryReserve(hold.getQuantity())) {
+                it.remove();
+                admittedByKey.remove(hold.getIdempotencyKey());
+                continue;
+            }
+            int shardNo = seanceInventory.reserve(seanceId, counters.shards(), hold.getQuantity());
+            if (shardNo == SeanceInventory.NO_CAPACITY) {
+                counters.release(hold.getQuantity());
+                it.remove();
+                admittedByKey.remove(hold.getIdempotencyKey());
+                continue;
+            }
+            hold.setShardNo(shardNo);
+            total += hold.getQuantity();
+        }
+        if (total > 0) {
+            capacityLedger.releaseOnRollback(counters, total);
+        }
+    }
+
+    private static Hold newHold(HoldCreateRequest request, Instant now) {
+        return Hold.builder()
+                .userId(request.userId())
+                .seanceId(request.seanceId())
+                .quantity(request.quantity())
+                .status(HoldStatus.HELD)
+                .idempotencyKey(request.idempotencyKey())
+                .expiresAt(now.plus(HOLD_TTL))
+                .build();
+    }
+
+    /**
+     * @param hold      the admitted hold, {@code null} when the request was rejected
+     * @param available capacity left for the seance after this batch
+     * @param replayed  the idempotency key was already taken and {@code hold} is the one that owns it
+     */
+    public record Outcome(Hold hold, long available, boolean replayed) {
+        public Outcome(Hold hold, long available) {
+            this(hold, available, false);
+        }
+
+        public boolean admitted() {
+            return hold != null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.entity.Hold;
+import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.repository.HoldRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Marks due HELD holds EXPIRED under a row lock and gives their quantity back to the shard it was
+ * reserved from. Holds released, consumed or expired meanwhile are skipped by the locked read.
+ */
+@Component
+public class HoldExpirer {
+
+    private final HoldRepository holdRepository;
+    private final SeanceInventory seanceInventory;
+    private final SeanceCapacityLedger capacityLedger;
+
+    public HoldExpirer(HoldRepository holdRepository,
+                       SeanceInventory seanceInventory,
+                       SeanceCapacityLedger capacityLedger) {
+        this.holdRepository = holdRepository;
+        this.seanceInventory = seanceInventory;
+        this.capacityLedger = capacityLedger;
+    }
+
+    @Transactional
+    public int expire(Collection<Long> holdIds) {
+        Instant now = Instant.now();
+        List<Hold> due = holdRepository.findWithLockByIdInAndStatusAndExpiresAtLessThanEqual(
+                holdIds, HoldStatus.HELD, now);
+
+        for (Hold hold : due) {
+            hold.setStatus(HoldStatus.EXPIRED);
+            hold.setReleasedAt(now);
+        }
+        release(due);
+        return due.size();
+    }
+
+    /**
+     * Expires at most {@code limit} holds due at {@code now} in one short transaction; rows locked by
+     * a concurrent release, purchase or sweeper are skipped.
+     */
+    @Transactional
+    public int expireChunk(Instant now, int limit) {
+        List<Hold> due = holdRepository.findWithLockByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(
+                HoldStatus.HELD, now, Limit.of(limit));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        holdRepository.expireAllById(due.stream().map(Hold::getId).toList(), HoldStatus.HELD, HoldStatus.EXPIRED, now);
+        release(due);
+        return due.size();
+    }
+
+    private void release(List<Hold> expired) {
+        expired.stream()
+                .collect(Collectors.groupingBy(h -> new ShardKey(h.getSeanceId(), h.getShardNo()),
+                        Collectors.summingInt(Hold::getQuantity)))
+                .forEach((key, quantity) -> {
+                    seanceInventory.release(key.seanceId(), key.shardNo(), quantity);
+                    capacityLedger.releaseAfterCommit(key.seanceId(), quantity);
+                });
+    }
+
+    private record ShardKey(Long seanceId, int shardNo) {
+    }
+}
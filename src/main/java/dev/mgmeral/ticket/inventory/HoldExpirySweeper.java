@@ -0,0 +1,151 @@
+package dev.mgmeral.ticket.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Expires everything due at a point in time in bounded chunks, so no single transaction locks more
+ * than {@code chunk-size} hold rows.
+ * <p>
+ * {@code parallelism} workers drain chunks concurrently; {@code SKIP LOCKED} keeps them (and
+ * foreground releases / purchases) off each other's rows. Before each chunk a worker backs off while
+ * requests are queueing for a DB connection, for at most {@code throttle.max-pause-ms}.
+ */
+@Slf4j
+@Component
+public class HoldExpirySweeper implements DisposableBean {
+
+    private static final List<String> PENDING_CONNECTION_GAUGES =
+            List.of("db_bulkhead_waiting", "hikaricp.connections.pending");
+
+    private final HoldExpirer holdExpirer;
+    private final MeterRegistry registry;
+    private final int chunkSize;
+    private final int parallelism;
+    private final int maxPendingConnections;
+    private final long pauseMs;
+    private final long maxPauseMs;
+
+    private final ExecutorService workers;
+    private final Timer chunkTimer;
+    private final Counter expiredCounter;
+    private final Counter throttledCounter;
+
+    public HoldExpirySweeper(HoldExpirer holdExpirer,
+                             MeterRegistry registry,
+                             @Value("${holds.expiry-sweeper.chunk-size:1000}") int chunkSize,
+                             @Value("${holds.expiry-sweeper.parallelism:4}") int parallelism,
+                             @Value("${holds.expiry-sweeper.throttle.max-pending-connections:0}") int maxPendingConnections,
+                             @Value("${holds.expiry-sweeper.throttle.pause-ms:200}") long pauseMs,
+                             @Value("${holds.expiry-sweeper.throttle.max-pause-ms:5000}") long maxPauseMs) {
+        this.holdExpirer = holdExpirer;
+        this.registry = registry;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.maxPendingConnections = maxPendingConnections;
+        this.pauseMs = pauseMs;
+        this.maxPauseMs = maxPauseMs;
+
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "hold-expiry-sweeper-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.chunkTimer = registry.timer("hold_expiry_sweep_chunk_seconds");
+        this.expiredCounter = registry.counter("hold_expiry_sweep_expired_total");
+        this.throttledCounter = registry.counter("hold_expiry_sweep_throttled_total");
+        Gauge.builder("hold_expiry_sweep_chunk_size", () -> chunkSize).register(registry);
+        Gauge.builder("hold_expiry_sweep_parallelism", () -> parallelism).register(registry);
+    }
+
+    /**
+     * @return number of holds expired; returns once every worker has seen a short chunk
+     */
+    public int sweep(Instant now) {
+        long start = System.nanoTime();
+        List<Future<Integer>> running = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            running.add(workers.submit(() -> drain(now)));
+        }
+
+        int expired = 0;
+        for (Future<Integer> worker : running) {
+            try {
+                expired += worker.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running.forEach(w -> w.cancel(true));
+                break;
+            } catch (ExecutionException e) {
+                log.warn("hold.expirySweep.workerFailed now={}", now, e.getCause());
+            }
+        }
+
+        if (expired > 0) {
+            log.info("hold.expirySweep.done expired={} parallelism={} chunkSize={} tookMs={}",
+                    expired, parallelism, chunkSize, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return expired;
+    }
+
+    private int drain(Instant now) throws InterruptedException {
+        int expired = 0;
+        for (; ; ) {
+            throttle();
+
+            long start = System.nanoTime();
+            int chunk = holdExpirer.expireChunk(now, chunkSize);
+            chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            expired += chunk;
+            expiredCounter.increment(chunk);
+            if (chunk < chunkSize) {
+                return expired;
+            }
+        }
+    }
+
+    private void throttle() throws InterruptedException {
+        if (maxPendingConnections < 0) {
+            return;
+        }
+        long paused = 0;
+        while (paused < maxPauseMs && pendingConnections() > maxPendingConnections) {
+            throttledCounter.increment();
+            Thread.sleep(pauseMs);
+            paused += pauseMs;
+        }
+    }
+
+    private double pendingConnections() {
+        double pending = 0;
+        for (String name : PENDING_CONNECTION_GAUGES) {
+            for (Gauge gauge : registry.find(name).gauges()) {
+                pending += gauge.value();
+            }
+        }
+        return pending;
+    }
+
+    @Override
+    public void destroy() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,159 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.config.AfterCommit;
+import dev.mgmeral.ticket.entity.Hold;
+import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.job.HoldExpiryJob;
+import dev.mgmeral.ticket.job.JobLeases;
+import dev.mgmeral.ticket.repository.HoldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Expires holds at their TTL instead of waiting for the next {@code HoldExpiryJob} run.
+ * <p>
+ * Every hold written on this node is put on a {@link HierarchicalTimingWheel} once its transaction has
+ * committed; a single ticker thread advances the wheel every {@code tick-ms} and hands due ids to
+ * {@link HoldExpirer}.
+ * <p>
+ * On startup only the node holding the {@value HoldExpiryJob#LEASE} lease sweeps whatever fell due while
+ * nodes were down and puts the remaining HELD rows on its wheel, {@code CHUNK} at a time. Other nodes wheel
+ * just the holds they write from then on; {@code HoldExpiryJob} catches the rest. A failed rebuild is
+ * logged and left to that job instead of failing startup.
+ */
+@Slf4j
+@Component
+public class HoldExpiryWheel implements DisposableBean {
+
+    private static final int CHUNK = 500;
+    private static final long RETRY_DELAY_MS = 5_000;
+
+    private final HoldRepository holdRepository;
+    private final HoldExpirer holdExpirer;
+    private final HoldExpirySweeper sweeper;
+    private final JobLeases jobLeases;
+    private final boolean enabled;
+    private final long tickMs;
+    private final HierarchicalTimingWheel wheel;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "hold-expiry-wheel");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public HoldExpiryWheel(HoldRepository holdRepository,
+                           HoldExpirer holdExpirer,
+                           HoldExpirySweeper sweeper,
+                           JobLeases jobLeases,
+                           @Value("${holds.expiry-wheel.enabled:true}") boolean enabled,
+                           @Value("${holds.expiry-wheel.tick-ms:100}") long tickMs,
+                           @Value("${holds.expiry-wheel.wheel-size:64}") int wheelSize,
+                           @Value("${holds.expiry-wheel.levels:3}") int levels) {
+        this.holdRepository = holdRepository;
+        this.holdExpirer = holdExpirer;
+        this.sweeper = sweeper;
+        this.jobLeases = jobLeases;
+        this.enabled = enabled;
+        this.tickMs = tickMs;
+        this.wheel = new HierarchicalTimingWheel(tickMs, wheelSize, levels, System.currentTimeMillis());
+    }
+
+    public void scheduleAfterCommit(List<Hold> holds) {
+        if (!enabled || holds.isEmpty()) {
+            return;
+        }
+        AfterCommit.run(() -> holds.forEach(h -> schedule(h.getId(), h.getExpiresAt())));
+    }
+
+    public void schedule(Long holdId, Instant expiresAt) {
+        // expires_at is stored with whole seconds (rounded), so fire once the stored value has passed too
+        long deadlineMs = (expiresAt.toEpochMilli() / 1000 + 1) * 1000;
+        lock.lock();
+        try {
+            wheel.add(holdId, deadlineMs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (jobLeases.isLeader(HoldExpiryJob.LEASE)) {
+                int swept = sweeper.sweep(Instant.now());
+                int scheduled = rebuild();
+                log.info("hold.expiryWheel.rebuilt swept={} scheduled={}", swept, scheduled);
+            }
+        } catch (RuntimeException e) {
+            log.warn("hold.expiryWheel.rebuildFailed", e);
+        }
+
+        log.info("hold.expiryWheel.started tickMs={}", tickMs);
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    private int rebuild() {
+        int scheduled = 0;
+        Instant afterExpiresAt = Instant.EPOCH;
+        long afterId = 0;
+        List<HoldRepository.PendingExpiry> page;
+        do {
+            page = holdRepository.findPendingExpiriesAfter(HoldStatus.HELD, afterExpiresAt, afterId, Limit.of(CHUNK));
+            for (HoldRepository.PendingExpiry p : page) {
+                schedule(p.getId(), p.getExpiresAt());
+                afterExpiresAt = p.getExpiresAt();
+                afterId = p.getId();
+            }
+            scheduled += page.size();
+        } while (page.size() == CHUNK);
+        return scheduled;
+    }
+
+    void tick() {
+        List<Long> due;
+        lock.lock();
+        try {
+            due = wheel.advance(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+
+        for (int from = 0; from < due.size(); from += CHUNK) {
+            List<Long> chunk = due.subList(from, Math.min(due.size(), from + CHUNK));
+            try {
+                int expired = holdExpirer.expire(chunk);
+                log.info("hold.expiryWheel.fired due={} expired={}", chunk.size(), expired);
+            } catch (RuntimeException e) {
+                log.warn("hold.expiryWheel.failed due={} retryInMs={}", chunk.size(), RETRY_DELAY_MS, e);
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY_MS;
+                lock.lock();
+                try {
+                    chunk.forEach(id -> wheel.add(id, retryAt));
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,215 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.config.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Node-local seanceId -> {@link SeanceCounters} mirror of the sold / held counters kept by
+ * {@link SeanceInventory}, used to reject holds for sold-out seances and to answer availability without
+ * touching the DB.
+ * <p>
+ * The conditional updates in {@link SeanceInventory#reserve} stay the authority; entries are reloaded
+ * once they are older than {@code holds.ledger.max-age-ms} or when the DB disagrees. Writes on this node
+ * apply their delta to the entry after commit; writes on other nodes show up with the next reload.
+ * <p>
+ * {@link #snapshot} serves availability reads, which accept entries up to
+ * {@code seances.availability.max-staleness-ms} old; a hit touches no DB connection. {@link #snapshots}
+ * does the same for many seances and loads all of its misses with {@link SeanceInventory#loadAll}.
+ * <p>
+ * Entries not reloaded for {@code holds.ledger.idle-ms} are dropped by {@link #evictIdle}, so the map holds the
+ * seances used recently rather than every seance ever viewed.
+ */
+@Slf4j
+@Component
+public class SeanceCapacityLedger {
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final SeanceInventory seanceInventory;
+    private final long maxAgeNanos;
+    private final long availabilityMaxAgeNanos;
+    private final long idleNanos;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer staleness;
+    private final Counter refreshed;
+    private final Counter evicted;
+    private final Counter released;
+    private final Counter sold;
+
+    public SeanceCapacityLedger(SeanceInventory seanceInventory,
+                                MeterRegistry registry,
+                                @Value("${holds.ledger.max-age-ms:1000}") long maxAgeMs,
+                                @Value("${seances.availability.max-staleness-ms:2000}") long availabilityMaxStalenessMs,
+                                @Value("${holds.ledger.idle-ms:60000}") long idleMs) {
+        this.seanceInventory = seanceInventory;
+        this.maxAgeNanos = maxAgeMs * 1_000_000L;
+        this.availabilityMaxAgeNanos = availabilityMaxStalenessMs * 1_000_000L;
+        this.idleNanos = idleMs * 1_000_000L;
+
+        this.hits = registry.counter("capacity_ledger_lookups_total", "result", "hit");
+        this.misses = registry.counter("capacity_ledger_lookups_total", "result", "miss");
+        this.staleness = registry.timer("capacity_ledger_staleness_seconds");
+        this.refreshed = registry.counter("capacity_ledger_invalidations_total", "reason", "refresh");
+        this.evicted = registry.counter("capacity_ledger_invalidations_total", "reason", "evict");
+        this.released = registry.counter("capacity_ledger_delta_updates_total", "op", "release");
+        this.sold = registry.counter("capacity_ledger_delta_updates_total", "op", "sell");
+    }
+
+    public SeanceCounters get(Long seanceId) {
+        return get(seanceId, maxAgeNanos);
+    }
+
+    /**
+     * Point-in-time counters for reporting availability.
+     */
+    public SeanceCounters.Snapshot snapshot(Long seanceId) {
+        return get(seanceId, availabilityMaxAgeNanos).snapshot();
+    }
+
+    /**
+     * {@link #snapshot} for many seances, in the order given; unknown seances are left out.
+     */
+    public Map<Long, SeanceCounters.Snapshot> snapshots(Collection<Long> seanceIds) {
+        Map<Long, SeanceCounters.Snapshot> snapshots = new LinkedHashMap<>();
+        List<Long> missed = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Long seanceId : seanceIds) {
+            Entry entry = entries.get(seanceId);
+            long age = entry == null ? Long.MAX_VALUE : now - entry.loadedAt();
+            if (age < availabilityMaxAgeNanos) {
+                hits.increment();
+                staleness.record(age, TimeUnit.NANOSECONDS);
+                snapshots.put(seanceId, entry.counters().snapshot());
+            } else {
+                misses.increment();
+                snapshots.put(seanceId, null);
+                missed.add(seanceId);
+            }
+        }
+        if (missed.isEmpty()) {
+            return snapshots;
+        }
+
+        Map<Long, SeanceCounters> loaded = seanceInventory.loadAll(missed);
+        long loadedAt = System.nanoTime();
+        for (Long seanceId : missed) {
+            SeanceCounters counters = loaded.get(seanceId);
+            if (counters == null) {
+                snapshots.remove(seanceId);
+                continue;
+            }
+            entries.put(seanceId, new Entry(counters, loadedAt));
+            snapshots.put(seanceId, counters.snapshot());
+        }
+
+        log.debug("capacity.ledger.loadAll requested={} loaded={}", missed.size(), loaded.size());
+
+        return snapshots;
+    }
+
+    /**
+     * Replaces the entry with the DB state, e.g. after the DB rejected what the entry allowed.
+     */
+    public SeanceCounters refresh(Long seanceId) {
+        refreshed.increment();
+        return reload(seanceId);
+    }
+
+    private SeanceCounters get(Long seanceId, long maxAge) {
+        Entry entry = entries.get(seanceId);
+        if (entry != null) {
+            long age = System.nanoTime() - entry.loadedAt();
+            if (age < maxAge) {
+                hits.increment();
+                staleness.record(age, TimeUnit.NANOSECONDS);
+                return entry.counters();
+            }
+        }
+        misses.increment();
+        return reload(seanceId);
+    }
+
+    private SeanceCounters reload(Long seanceId) {
+        Entry loaded = new Entry(load(seanceId), System.nanoTime());
+        entries.put(seanceId, loaded);
+        return loaded.counters();
+    }
+
+    public void releaseOnRollback(SeanceCounters seanceCounters, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seanceCounters.release(quantity);
+                }
+            }
+        });
+    }
+
+    public void releaseAfterCommit(Long seanceId, int quantity) {
+        AfterCommit.run(() -> {
+            Entry entry = entries.get(seanceId);
+            if (entry != null) {
+                entry.counters().release(quantity);
+                released.increment();
+            }
+        });
+    }
+
+    public void sellAfterCommit(Long seanceId, int quantity) {
+        AfterCommit.run(() -> {
+            Entry entry = entries.get(seanceId);
+            if (entry != null) {
+                entry.counters().sell(quantity);
+                sold.increment();
+            }
+        });
+    }
+
+    /**
+     * A seance that is read gets its entry reloaded once it is older than the max age, so an entry older than
+     * {@code idle-ms} belongs to a seance nobody asked for in that time.
+     */
+    @Scheduled(fixedDelayString = "${holds.ledger.idle-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        entries.forEach((seanceId, entry) -> {
+            if (now - entry.loadedAt() >= idleNanos && entries.remove(seanceId, entry)) {
+                evicted.increment();
+            }
+        });
+    }
+
+    private SeanceCounters load(Long seanceId) {
+        SeanceCounters counters = seanceInventory.load(seanceId);
+
+        log.debug("capacity.ledger.load seanceId={} capacity={} sold={} held={} shards={}",
+                seanceId, counters.capacity(), counters.sold(), counters.held(), counters.shards());
+
+        return counters;
+    }
+
+    private record Entry(SeanceCounters counters, long loadedAt) {
+    }
+}
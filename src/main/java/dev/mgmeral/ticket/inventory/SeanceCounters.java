@@ -0,0 +1,95 @@
+package dev.mgmeral.ticket.inventory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free capacity counters of a single seance.
+ * <p>
+ * sold and held are packed into one {@code long} (high / low 32 bits) so a reservation
+ * is a single CAS on a consistent (sold, held) pair.
+ */
+public final class SeanceCounters {
+
+    private static final long LOW_MASK = 0xFFFF_FFFFL;
+
+    private final int capacity;
+    private final int shards;
+    private final AtomicLong state;
+
+    public SeanceCounters(int capacity, long sold, long held) {
+        this(capacity, sold, held, 1);
+    }
+
+    public SeanceCounters(int capacity, long sold, long held, int shards) {
+        this.capacity = capacity;
+        this.shards = shards;
+        this.state = new AtomicLong(pack(sold, held));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Number of DB inventory shards behind these counters; {@code 1} means the seance row itself.
+     */
+    public int shards() {
+        return shards;
+    }
+
+    public long sold() {
+        return sold(state.get());
+    }
+
+    public long held() {
+        return held(state.get());
+    }
+
+    public long available() {
+        return snapshot().available();
+    }
+
+    public Snapshot snapshot() {
+        long s = state.get();
+        return new Snapshot(capacity, sold(s), held(s));
+    }
+
+    public boolean tryReserve(int quantity) {
+        for (; ; ) {
+            long s = state.get();
+            long free = capacity - sold(s) - held(s);
+            if (quantity > free) {
+                return false;
+            }
+            if (state.compareAndSet(s, pack(sold(s), held(s) + quantity))) {
+                return true;
+            }
+        }
+    }
+
+    public void release(int quantity) {
+        state.getAndUpdate(s -> pack(sold(s), Math.max(0, held(s) - quantity)));
+    }
+
+    public void sell(int quantity) {
+        state.getAndUpdate(s -> pack(sold(s) + quantity, Math.max(0, held(s) - quantity)));
+    }
+
+    private static long pack(long sold, long held) {
+        return (sold << 32) | (held & LOW_MASK);
+    }
+
+    private static long sold(long s) {
+        return s >>> 32;
+    }
+
+    private static long held(long s) {
+        return s & LOW_MASK;
+    }
+
+    public record Snapshot(int capacity, long sold, long held) {
+        public long available() {
+            return Math.max(0, capacity - sold - held);
+        }
+    }
+}
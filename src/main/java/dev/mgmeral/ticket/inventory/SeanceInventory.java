@@ -0,0 +1,176 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.entity.Seance;
+import dev.mgmeral.ticket.entity.SeanceShard;
+import dev.mgmeral.ticket.repository.SeanceRepository;
+import dev.mgmeral.ticket.repository.SeanceShardRepository;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * DB side of the seance capacity counters.
+ * <p>
+ * A seance created with {@code inventoryShards <= 1} keeps its counters on the {@code seances} row
+ * (shard {@link #SEANCE_ROW}). Otherwise its capacity is split over {@code seance_shards} rows 1..N so
+ * that concurrent holds update different rows; a hold remembers the shard it reserved from, and is
+ * released / sold against that same shard. When no single shard can fit a request but the seance as
+ * a whole can, free capacity is moved between shards under a lock on all of them.
+ */
+@Slf4j
+@Component
+public class SeanceInventory {
+
+    public static final int SEANCE_ROW = 0;
+    public static final int NO_CAPACITY = -1;
+
+    private final SeanceRepository seanceRepository;
+    private final SeanceShardRepository shardRepository;
+
+    public SeanceInventory(SeanceRepository seanceRepository, SeanceShardRepository shardRepository) {
+        this.seanceRepository = seanceRepository;
+        this.shardRepository = shardRepository;
+    }
+
+    public void initialize(Seance seance) {
+        int shards = seance.getInventoryShards();
+        if (shards <= 1) {
+            return;
+        }
+
+        int base = seance.getCapacity() / shards;
+        int remainder = seance.getCapacity() % shards;
+
+        shardRepository.saveAll(IntStream.rangeClosed(1, shards)
+                .mapToObj(shardNo -> SeanceShard.builder()
+                        .seanceId(seance.getId())
+                        .shardNo(shardNo)
+                        .capacity(base + (shardNo <= remainder ? 1 : 0))
+                        .build())
+                .toList());
+
+        log.info("seance.inventory.sharded seanceId={} shards={} capacity={}",
+                seance.getId(), shards, seance.getCapacity());
+    }
+
+    /**
+     * Reads the counters with a projection: the {@link Seance} entity is second-level cached and its
+     * counter fields are stale there.
+     */
+    public SeanceCounters load(Long seanceId) {
+        SeanceCounters counters = loadAll(List.of(seanceId)).get(seanceId);
+        if (counters == null) {
+            throw new EntityNotFoundException("Seance not found: " + seanceId);
+        }
+        return counters;
+    }
+
+    /**
+     * {@link #load} for many seances in two queries: the seance rows, then one grouped sum over the shards
+     * of the sharded ones. Unknown ids are left out of the result.
+     */
+    public Map<Long, SeanceCounters> loadAll(Collection<Long> seanceIds) {
+        Map<Long, SeanceCounters> counters = new HashMap<>();
+        if (seanceIds.isEmpty()) {
+            return counters;
+        }
+
+        Map<Long, SeanceRepository.SeanceCounterRow> sharded = new HashMap<>();
+        for (SeanceRepository.SeanceCounterRow row : seanceRepository.findCountersByIdIn(seanceIds)) {
+            if (row.getShards() <= 1) {
+                counters.put(row.getId(), new SeanceCounters(row.getCapacity(), row.getSold(), row.getHeld()));
+            } else {
+                sharded.put(row.getId(), row);
+            }
+        }
+        if (sharded.isEmpty()) {
+            return counters;
+        }
+
+        for (SeanceShardRepository.SeanceShardTotals totals : shardRepository.sumBySeanceIdIn(sharded.keySet())) {
+            SeanceRepository.SeanceCounterRow row = sharded.remove(totals.getSeanceId());
+            counters.put(row.getId(), new SeanceCounters(row.getCapacity(), totals.getSold(), totals.getHeld(),
+                    row.getShards()));
+        }
+        // sharded seance whose shard rows are not there counts as nothing sold or held
+        sharded.values().forEach(row -> counters.put(row.getId(),
+                new SeanceCounters(row.getCapacity(), 0, 0, row.getShards())));
+        return counters;
+    }
+
+    /**
+     * @return the shard the quantity was reserved from, or {@link #NO_CAPACITY}
+     */
+    public int reserve(Long seanceId, int shards, int quantity) {
+        if (shards <= 1) {
+            return seanceRepository.reserveHeld(seanceId, quantity) == 1 ? SEANCE_ROW : NO_CAPACITY;
+        }
+
+        List<Integer> candidates = shardRepository.findShardNosWithAvailable(seanceId, quantity);
+        if (!candidates.isEmpty()) {
+            int start = ThreadLocalRandom.current().nextInt(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                int shardNo = candidates.get((start + i) % candidates.size());
+                if (shardRepository.reserveHeld(seanceId, shardNo, quantity) == 1) {
+                    return shardNo;
+                }
+            }
+        }
+        return borrow(seanceId, quantity);
+    }
+
+    public void release(Long seanceId, int shardNo, int quantity) {
+        if (shardNo == SEANCE_ROW) {
+            seanceRepository.releaseHeld(seanceId, quantity);
+        } else {
+            shardRepository.releaseHeld(seanceId, shardNo, quantity);
+        }
+    }
+
+    public void sell(Long seanceId, int shardNo, int quantity) {
+        if (shardNo == SEANCE_ROW) {
+            seanceRepository.sellHeld(seanceId, quantity);
+        } else {
+            shardRepository.sellHeld(seanceId, shardNo, quantity);
+        }
+    }
+
+    private int borrow(Long seanceId, int quantity) {
+        List<SeanceShard> shards = shardRepository.findWithLockBySeanceIdOrderByShardNo(seanceId);
+
+        int total = shards.stream().mapToInt(s -> Math.max(0, s.available())).sum();
+        if (total < quantity) {
+            return NO_CAPACITY;
+        }
+
+        SeanceShard target = shards.stream()
+                .max(Comparator.comparingInt(SeanceShard::available))
+                .orElseThrow();
+
+        int missing = quantity - target.available();
+        for (SeanceShard donor : shards) {
+            if (missing <= 0) break;
+            if (donor == target || donor.available() <= 0) continue;
+
+            int moved = Math.min(missing, donor.available());
+            donor.setCapacity(donor.getCapacity() - moved);
+            target.setCapacity(target.getCapacity() + moved);
+            missing -= moved;
+        }
+
+        log.info("seance.inventory.rebalance seanceId={} targetShard={} quantity={}",
+                seanceId, target.getShardNo(), quantity);
+
+        return shardRepository.reserveHeld(seanceId, target.getShardNo(), quantity) == 1
+                ? target.getShardNo()
+                : NO_CAPACITY;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.mgmeral.ticket.job;
+
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Deletes catalog tombstones past the retention; cursors whose watermark is older than that are rejected by the
+ * change feed.
+ * Runs on the node holding the {@value #LEASE} lease only.
+ */
+@Slf4j
+@Component
+public class CatalogTombstonePurgeJob {
+
+    static final String LEASE = "catalog-tombstone-purge";
+
+    private final CatalogTombstoneRepository tombstoneRepository;
+    private final JobLeases jobLeases;
+    private final Duration retention;
+    private final int chunk;
+
+    public CatalogTombstonePurgeJob(CatalogTombstoneRepository tombstoneRepository,
+                                    JobLeases jobLeases,
+                                    @Value("${catalog.changes.tombstone-retention-days:30}") int retentionDays,
+                                    @Value("${catalog.changes.purge-chunk:1000}") int chunk) {
+        this.tombstoneRepository = tombstoneRepository;
+        this.jobLeases = jobLeases;
+        this.retention = Duration.ofDays(retentionDays);
+        this.chunk = chunk;
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.changes.purge-ms:3600000}")
+    public void purge() {
+        if (!jobLeases.isLeader(LEASE)) return;
+
+        Instant before = Instant.now().minus(retention);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = tombstoneRepository.deleteBefore(before, chunk);
+            total += deleted;
+        } while (deleted == chunk);
+        if (total == 0) return;
+
+        log.info("catalog_tombstone_purge_job purgedCount={} before={}", total, before);
+    }
+}
@@ -1,36 +1,40 @@
 package dev.mgmeral.ticket.job;
 
-import dev.mgmeral.ticket.enums.HoldStatus;
-import dev.mgmeral.ticket.repository.HoldRepository;
+import dev.mgmeral.ticket.inventory.HoldExpirySweeper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 
+/**
+ * Slow safety net behind {@link dev.mgmeral.ticket.inventory.HoldExpiryWheel}: picks up holds whose
+ * wheel entry was lost, e.g. holds written by a node that went down before their TTL. Runs on the node
+ * holding the {@value #LEASE} lease only.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class HoldExpiryJob {
 
-    private final HoldRepository holdRepository;
+    public static final String LEASE = "hold-expiry";
+
+    private final HoldExpirySweeper sweeper;
+    private final JobLeases jobLeases;
 
     @Value("${holds.expiry-job.enabled:true}")
     private boolean enabled;
 
-    @Scheduled(fixedDelayString = "${holds.expiry-job.fixed-delay-ms:30000}")
-    @Transactional
+    @Scheduled(fixedDelayString = "${holds.expiry-job.fixed-delay-ms:300000}")
     public void expireHolds() {
-        if (!enabled) return;
+        if (!enabled || !jobLeases.isLeader(LEASE)) return;
 
         Instant now = Instant.now();
-        int expired = holdRepository.expireAll(HoldStatus.HELD, HoldStatus.EXPIRED, now);
+        int expired = sweeper.sweep(now);
+        if (expired == 0) return;
 
-        if (expired > 0) {
-            log.info("hold_expiry_job expiredCount={} now={}", expired, now);
-        }
+        log.info("hold_expiry_job expiredCount={} now={}", expired, now);
     }
 }
@@ -0,0 +1,34 @@
+package dev.mgmeral.ticket.job;
+
+import dev.mgmeral.ticket.idempotency.IdempotencyResponseStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Deletes idempotency responses past their TTL. Runs on the node holding the {@value #LEASE} lease only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyResponsePurgeJob {
+
+    static final String LEASE = "idempotency-purge";
+
+    private final IdempotencyResponseStore responseStore;
+    private final JobLeases jobLeases;
+
+    @Scheduled(fixedDelayString = "${idempotency.responses.purge-ms:60000}")
+    public void purge() {
+        if (!responseStore.isEnabled() || !jobLeases.isLeader(LEASE)) return;
+
+        Instant now = Instant.now();
+        int purged = responseStore.purge(now);
+        if (purged == 0) return;
+
+        log.info("idempotency_purge_job purgedCount={} now={}", purged, now);
+    }
+}
@@ -0,0 +1,52 @@
+package dev.mgmeral.ticket.job;
+
+import dev.mgmeral.ticket.entity.JobLease;
+import dev.mgmeral.ticket.repository.JobLeaseRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * DB side of {@link JobLeases}: one row per lease in {@code job_leases}.
+ */
+@Component
+public class JobLeaseStore {
+
+    private final JobLeaseRepository jobLeaseRepository;
+
+    public JobLeaseStore(JobLeaseRepository jobLeaseRepository) {
+        this.jobLeaseRepository = jobLeaseRepository;
+    }
+
+    @Transactional
+    public Attempt tryAcquire(String name, String owner, long ttlMs) {
+        JobLease previous = jobLeaseRepository.findById(name).orElse(null);
+        if (previous == null) {
+            jobLeaseRepository.register(name);
+        }
+        boolean acquired = jobLeaseRepository.acquire(name, owner, ttlMs) == 1;
+        if (previous == null) {
+            return new Attempt(acquired, "", null, null);
+        }
+        // On a takeover acquire stamps acquired_at with its own CURRENT_TIMESTAMP(3); read it back so the
+        // vacancy is measured on the DB clock like previousExpiresAt.
+        Instant takenOverAt = acquired && !owner.equals(previous.getOwner())
+                ? jobLeaseRepository.findById(name).map(JobLease::getAcquiredAt).orElse(null)
+                : null;
+        return new Attempt(acquired, previous.getOwner(), previous.getExpiresAt(), takenOverAt);
+    }
+
+    @Transactional
+    public void release(String name, String owner) {
+        jobLeaseRepository.release(name, owner);
+    }
+
+    /**
+     * @param previousOwner     owner before this attempt, empty for a fresh lease
+     * @param previousExpiresAt its expiry before this attempt, {@code null} for a fresh lease
+     * @param takenOverAt       DB time at which this attempt took the lease from another owner, otherwise {@code null}
+     */
+    public record Attempt(boolean acquired, String previousOwner, Instant previousExpiresAt, Instant takenOverAt) {
+    }
+}
@@ -0,0 +1,155 @@
+package dev.mgmeral.ticket.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leader election for scheduled jobs over the {@code job_leases} table, so that a job runs on one node
+ * at a time.
+ * <p>
+ * A lease is taken on the first {@link #isLeader} call for its name and then renewed (or contested, on
+ * followers) every {@code renew-ms}. A node counts as leader only until {@code ttl-ms} after its last
+ * successful renewal started, which is never later than the DB expiry; when the leader dies another
+ * node takes over within {@code ttl-ms + renew-ms}. Leases are handed back on shutdown.
+ */
+@Slf4j
+@Component
+public class JobLeases implements DisposableBean {
+
+    private final ConcurrentHashMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    private final JobLeaseStore jobLeaseStore;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final long ttlMs;
+    private final String owner;
+
+    public JobLeases(JobLeaseStore jobLeaseStore,
+                     MeterRegistry registry,
+                     @Value("${jobs.lease.enabled:true}") boolean enabled,
+                     @Value("${jobs.lease.ttl-ms:30000}") long ttlMs,
+                     @Value("${jobs.lease.owner:}") String owner) {
+        this.jobLeaseStore = jobLeaseStore;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.ttlMs = ttlMs;
+        this.owner = owner.isBlank()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8)
+                : owner;
+    }
+
+    public boolean isLeader(String name) {
+        if (!enabled) {
+            return true;
+        }
+        Lease lease = leases.computeIfAbsent(name, this::register);
+        if (!lease.attempted) {
+            renew(lease);
+        }
+        return lease.isHeld();
+    }
+
+    @Scheduled(fixedDelayString = "${jobs.lease.renew-ms:10000}")
+    public void renewAll() {
+        leases.values().forEach(this::renew);
+    }
+
+    private void renew(Lease lease) {
+        long start = System.nanoTime();
+        boolean wasHeld = lease.isHeld();
+        JobLeaseStore.Attempt attempt;
+        lease.attempted = true;
+        try {
+            attempt = jobLeaseStore.tryAcquire(lease.name, owner, ttlMs);
+        } catch (RuntimeException e) {
+            lease.renewFailed.increment();
+            if (wasHeld) {
+                log.warn("job.lease.renewFailed lease={} owner={}", lease.name, owner, e);
+            }
+            return;
+        }
+
+        if (attempt.acquired()) {
+            lease.validUntilNanos = start + ttlMs * 1_000_000L;
+            lease.held = true;
+            if (!wasHeld) {
+                lease.acquired.increment();
+                boolean takeover = !attempt.previousOwner().isEmpty() && !attempt.previousOwner().equals(owner);
+                if (takeover && attempt.previousExpiresAt() != null && attempt.takenOverAt() != null) {
+                    Duration vacant = Duration.between(attempt.previousExpiresAt(), attempt.takenOverAt());
+                    lease.failover.record(vacant.isNegative() ? Duration.ZERO : vacant);
+                }
+                log.info("job.lease.acquired lease={} owner={} previousOwner={}",
+                        lease.name, owner, attempt.previousOwner());
+            }
+        } else {
+            lease.held = false;
+            if (wasHeld) {
+                lease.lost.increment();
+                log.warn("job.lease.lost lease={} owner={} currentOwner={}",
+                        lease.name, owner, attempt.previousOwner());
+            }
+        }
+    }
+
+    private Lease register(String name) {
+        Lease lease = new Lease(name,
+                registry.counter("job_lease_acquired_total", "lease", name),
+                registry.counter("job_lease_lost_total", "lease", name),
+                registry.counter("job_lease_renew_failed_total", "lease", name),
+                registry.timer("job_lease_failover_seconds", "lease", name));
+        Gauge.builder("job_lease_leader", lease, l -> l.isHeld() ? 1 : 0)
+                .tag("lease", name)
+                .register(registry);
+        return lease;
+    }
+
+    @Override
+    public void destroy() {
+        leases.values().stream().filter(Lease::isHeld).forEach(lease -> {
+            lease.held = false;
+            try {
+                jobLeaseStore.release(lease.name, owner);
+                log.info("job.lease.released lease={} owner={}", lease.name, owner);
+            } catch (RuntimeException e) {
+                log.warn("job.lease.releaseFailed lease={} owner={}", lease.name, owner, e);
+            }
+        });
+    }
+
+    private static final class Lease {
+        private final String name;
+        private final Counter acquired;
+        private final Counter lost;
+        private final Counter renewFailed;
+        private final Timer failover;
+
+        private volatile boolean attempted;
+        private volatile boolean held;
+        private volatile long validUntilNanos;
+
+        private Lease(String name, Counter acquired, Counter lost, Counter renewFailed, Timer failover) {
+            this.name = name;
+            this.acquired = acquired;
+            this.lost = lost;
+            this.renewFailed = renewFailed;
+            this.failover = failover;
+        }
+
+        private boolean isHeld() {
+            return held && System.nanoTime() - validUntilNanos < 0;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package dev.mgmeral.ticket.mapper;
 
 import dev.mgmeral.ticket.entity.Event;
 import dev.mgmeral.ticket.model.*;
+import dev.mgmeral.ticket.repository.EventSummaryRow;
 import org.mapstruct.*;
 
 @Mapper(componentModel = "spring")
@@ -14,7 +15,7 @@ public interface EventMapper {
 
     EventGetResponse toGetResponse(Event event);
 
-    EventSearchResponse toSearchResponse(Event event);
+    EventSearchResponse toSearchResponse(EventSummaryRow row);
 
     EventUpdateResponse toUpdateResponse(Event event);
 
@@ -4,6 +4,7 @@ import dev.mgmeral.ticket.entity.Seance;
 import dev.mgmeral.ticket.model.SeanceCreateRequest;
 import dev.mgmeral.ticket.model.SeanceCreateResponse;
 import dev.mgmeral.ticket.model.SeanceGetResponse;
+import dev.mgmeral.ticket.repository.SeanceSummaryRow;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -12,6 +13,9 @@ public interface SeanceMapper {
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "event", ignore = true)
+    @Mapping(target = "soldQuantity", ignore = true)
+    @Mapping(target = "heldQuantity", ignore = true)
+    @Mapping(target = "availableQuantity", ignore = true)
     @Mapping(target = "eventId", source = "eventId")
     @Mapping(target = "startDate", source = "request.startDateTime")
     Seance toEntity(Long eventId, SeanceCreateRequest request);
@@ -20,5 +24,10 @@ public interface SeanceMapper {
     SeanceCreateResponse toCreateResponse(Seance seance);
 
     @Mapping(target = "startDateTime", source = "startDate")
+    @Mapping(target = "availability", ignore = true)
     SeanceGetResponse toGetResponse(Seance seance);
+
+    @Mapping(target = "startDateTime", source = "startDate")
+    @Mapping(target = "availability", ignore = true)
+    SeanceGetResponse toGetResponse(SeanceSummaryRow row);
 }
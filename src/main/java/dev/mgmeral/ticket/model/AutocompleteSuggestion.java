@@ -0,0 +1,8 @@
+package dev.mgmeral.ticket.model;
+
+public record AutocompleteSuggestion(
+        String type,
+        Long id,
+        String name
+) {
+}
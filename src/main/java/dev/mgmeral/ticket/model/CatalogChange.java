@@ -0,0 +1,19 @@
+package dev.mgmeral.ticket.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+
+import java.time.Instant;
+
+/**
+ * Latest state of one catalog entity: its get response as {@code value}, or {@code deleted} without a value.
+ */
+public record CatalogChange(
+        CatalogEntityType type,
+        Long id,
+        boolean deleted,
+        Instant changedAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        Object value
+) {
+}
@@ -0,0 +1,14 @@
+package dev.mgmeral.ticket.model;
+
+import java.util.List;
+
+/**
+ * One pull of the catalog change feed; pass {@code nextCursor} back as {@code since} for the next one.
+ * {@code hasMore} tells that the next pull has changes right away.
+ */
+public record CatalogChanges(
+        List<CatalogChange> changes,
+        boolean hasMore,
+        String nextCursor
+) {
+}
@@ -0,0 +1,15 @@
+package dev.mgmeral.ticket.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset scroll; pass {@code nextCursor} back as {@code cursor} to get the next one.
+ * {@code nextCursor} is {@code null} on the last page.
+ */
+public record CursorSlice<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String nextCursor
+) {
+}
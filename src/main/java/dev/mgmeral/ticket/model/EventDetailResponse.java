@@ -0,0 +1,9 @@
+package dev.mgmeral.ticket.model;
+
+import java.util.List;
+
+public record EventDetailResponse(
+        EventGetResponse event,
+        List<PerformerResponse> performers,
+        List<SeanceGetResponse> seances) {
+}
@@ -0,0 +1,19 @@
+package dev.mgmeral.ticket.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One entry of a multi-get, at the position of {@code id} in the request. {@code found} is {@code false}
+ * and {@code value} is left out when there is no such id.
+ */
+public record MultiGetItem<T>(
+        Long id,
+        boolean found,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        T value
+) {
+
+    public static <T> MultiGetItem<T> of(Long id, T value) {
+        return new MultiGetItem<>(id, value != null, value);
+    }
+}
@@ -1,5 +1,6 @@
 package dev.mgmeral.ticket.model;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
@@ -7,6 +8,7 @@ import java.time.Instant;
 
 public record SeanceCreateRequest(
         @NotNull Instant startDateTime,
-        @Min(1) int capacity
+        @Min(1) int capacity,
+        @Min(1) @Max(64) Integer inventoryShards
 ) {
 }
\ No newline at end of file
@@ -5,6 +5,7 @@ import java.time.Instant;
 public record SeanceCreateResponse(Long id,
                                    Long eventId,
                                    Instant startDateTime,
-                                   int capacity
+                                   int capacity,
+                                   int inventoryShards
 ) {
 }
\ No newline at end of file
@@ -1,10 +1,15 @@
 package dev.mgmeral.ticket.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.Instant;
 
 public record SeanceGetResponse(
         Long id,
         Long eventId,
         Instant startDateTime,
-        int capacity) {
+        int capacity,
+        int inventoryShards,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        SeanceAvailabilityResponse availability) {
 }
@@ -0,0 +1,10 @@
+package dev.mgmeral.ticket.model;
+
+public record WaitingRoomTicketResponse(
+        Long seanceId,
+        String token,
+        long position,
+        boolean admitted,
+        long retryAfterMs
+) {
+}
@@ -0,0 +1,109 @@
+package dev.mgmeral.ticket.paging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Node-local cache of list totals, keyed by the filter shape of the request (entity and filter values, not
+ * page or sort), so that {@code count=CACHED} pages skip the {@code count(*)} that is as expensive as the
+ * page query itself.
+ * <p>
+ * The first request of a shape counts in the DB; later ones read the cached total. Totals older than
+ * {@code ttl-ms} are recounted in the background, and shapes not read for {@code idle-ms} are dropped.
+ * Totals are therefore approximate: they may lag writes by up to {@code ttl-ms} plus one refresh.
+ * At most {@code max-entries} shapes are kept; beyond that requests count without caching.
+ */
+@Slf4j
+@Component
+public class PageCounts {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+    private final long idleNanos;
+    private final int maxEntries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshed;
+
+    public PageCounts(MeterRegistry registry,
+                      @Value("${paging.count-cache.ttl-ms:30000}") long ttlMs,
+                      @Value("${paging.count-cache.idle-ms:600000}") long idleMs,
+                      @Value("${paging.count-cache.max-entries:1000}") int maxEntries) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.idleNanos = idleMs * 1_000_000L;
+        this.maxEntries = maxEntries;
+
+        this.hits = registry.counter("page_count_cache_lookups_total", "result", "hit");
+        this.misses = registry.counter("page_count_cache_lookups_total", "result", "miss");
+        this.refreshed = registry.counter("page_count_cache_refreshes_total");
+        Gauge.builder("page_count_cache_entries", entries, ConcurrentHashMap::size).register(registry);
+    }
+
+    /**
+     * @param shape   entity and filter values of the request
+     * @param counter the {@code count(*)} of that shape; kept for background refreshes, so it must not
+     *                depend on the calling transaction
+     */
+    public long count(String shape, LongSupplier counter) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(shape);
+        if (entry != null) {
+            hits.increment();
+            entry.readAt = now;
+            return entry.total;
+        }
+
+        misses.increment();
+        long total = counter.getAsLong();
+        if (entries.size() < maxEntries) {
+            entries.putIfAbsent(shape, new Entry(counter, total, now));
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelayString = "${paging.count-cache.refresh-ms:5000}")
+    public void refresh() {
+        long now = System.nanoTime();
+        entries.forEach((shape, entry) -> {
+            if (now - entry.readAt > idleNanos) {
+                entries.remove(shape, entry);
+                return;
+            }
+            if (now - entry.countedAt < ttlNanos) {
+                return;
+            }
+            try {
+                entry.total = entry.counter.getAsLong();
+                entry.countedAt = System.nanoTime();
+                refreshed.increment();
+            } catch (RuntimeException e) {
+                // keep serving the previous total; the next run retries
+                log.warn("page.count.refreshFailed shape={}", shape, e);
+            }
+        });
+    }
+
+    private static final class Entry {
+        private final LongSupplier counter;
+        private volatile long total;
+        private volatile long countedAt;
+        private volatile long readAt;
+
+        private Entry(LongSupplier counter, long total, long now) {
+            this.counter = counter;
+            this.total = total;
+            this.countedAt = now;
+            this.readAt = now;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+/**
+ * Plain JDBC over {@code catalog_tombstones}: rows are append-only and read in order, so there is no entity,
+ * and writing them does not touch the second-level cache.
+ */
+@Repository
+public class CatalogTombstoneRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CatalogTombstoneRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insert(CatalogEntityType type, Long entityId, Instant deletedAt) {
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT INTO catalog_tombstones (entity_type, entity_id, deleted_at)
+                    VALUES (?, ?, ?)
+                    """);
+            ps.setString(1, type.name());
+            ps.setLong(2, entityId);
+            ps.setTimestamp(3, Timestamp.from(deletedAt), utc());
+            return ps;
+        });
+    }
+
+    /**
+     * Tombstones after ({@code at}, {@code afterId}) in (deleted_at, id) order, up to {@code until}.
+     */
+    public List<CatalogTombstone> findAfter(Instant at, long afterId, Instant until, int limit) {
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    SELECT id, entity_type, entity_id, deleted_at FROM catalog_tombstones
+                     WHERE (deleted_at > ? OR (deleted_at = ? AND id > ?))
+                       AND deleted_at <= ?
+                     ORDER BY deleted_at, id
+                     LIMIT ?
+                    """);
+            ps.setTimestamp(1, Timestamp.from(at), utc());
+            ps.setTimestamp(2, Timestamp.from(at), utc());
+            ps.setLong(3, afterId);
+            ps.setTimestamp(4, Timestamp.from(until), utc());
+            ps.setInt(5, limit);
+            return ps;
+        }, (rs, rowNum) -> new CatalogTombstone(
+                rs.getLong(1),
+                CatalogEntityType.valueOf(rs.getString(2)),
+                rs.getLong(3),
+                rs.getTimestamp(4, utc()).toInstant()));
+    }
+
+    public int deleteBefore(Instant before, int limit) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "DELETE FROM catalog_tombstones WHERE deleted_at < ? LIMIT ?");
+            ps.setTimestamp(1, Timestamp.from(before), utc());
+            ps.setInt(2, limit);
+            return ps;
+        });
+    }
+
+    // same zone as hibernate.jdbc.time_zone
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+
+    public record CatalogTombstone(long id, CatalogEntityType type, long entityId, Instant deletedAt) {
+    }
+}
@@ -1,8 +1,47 @@
 package dev.mgmeral.ticket.repository;
 
 import dev.mgmeral.ticket.entity.Event;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event>,
+        ProjectionRepository {
+
+    @Query("""
+            select e.id as id, e.type as type, e.startDate as startDate,
+                   e.name as name, e.summary as summary, e.description as description
+              from Event e
+             where e.id > :afterId
+             order by e.id
+            """)
+    List<EventSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query("""
+            select new dev.mgmeral.ticket.repository.EventSummaryRow(e.id, e.type, e.name, e.startDate, e.endDate)
+              from Event e
+             where e.id in :ids
+            """)
+    List<EventSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select e.id as id, e.name as name from Event e where e.id > :afterId order by e.id")
+    List<NameRow> findNamesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Events changed after ({@code at}, {@code afterId}) in (updatedAt, id) order, up to {@code until}.
+     */
+    @Query("""
+            select e from Event e
+             where (e.updatedAt > :at or (e.updatedAt = :at and e.id > :afterId))
+               and e.updatedAt <= :until
+             order by e.updatedAt, e.id
+            """)
+    List<Event> findChangedAfter(@Param("at") Instant at, @Param("afterId") Long afterId,
+                                 @Param("until") Instant until, Limit limit);
 }
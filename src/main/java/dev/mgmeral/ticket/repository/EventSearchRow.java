@@ -0,0 +1,23 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.enums.EventType;
+
+import java.time.Instant;
+
+/**
+ * Searchable fields of an event, read in id order to rebuild
+ * {@link dev.mgmeral.ticket.search.EventSearchIndex}.
+ */
+public interface EventSearchRow {
+    Long getId();
+
+    EventType getType();
+
+    Instant getStartDate();
+
+    String getName();
+
+    String getSummary();
+
+    String getDescription();
+}
@@ -0,0 +1,13 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.enums.EventType;
+
+import java.time.Instant;
+
+/**
+ * Columns of an event needed by list responses; leaves out {@code description} and {@code summary}.
+ */
+public record EventSummaryRow(Long id, EventType type, String name, Instant startDate, Instant endDate) {
+
+    public static final String[] ATTRIBUTES = {"id", "type", "name", "startDate", "endDate"};
+}
@@ -0,0 +1,21 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.Hold;
+
+import java.util.List;
+
+public interface HoldBatchRepository {
+
+    /**
+     * Inserts all holds with one multi-row {@code INSERT} and sets their generated ids.
+     */
+    void insertAll(List<Hold> holds);
+
+    /**
+     * Like {@link #insertAll}, but holds whose idempotency key is already taken are left out instead of
+     * failing the surrounding transaction.
+     *
+     * @return the holds that were not inserted
+     */
+    List<Hold> insertAllNew(List<Hold> holds);
+}
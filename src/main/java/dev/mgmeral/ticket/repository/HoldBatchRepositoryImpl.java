@@ -0,0 +1,93 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.Hold;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+public class HoldBatchRepositoryImpl implements HoldBatchRepository {
+
+    private static final String INSERT_PREFIX = """
+            INSERT INTO holds (user_id, seance_id, quantity, status, idempotency_key, expires_at, shard_no,
+                               created_at, updated_at)
+            VALUES\s""";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public HoldBatchRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Hold> holds) {
+        if (holds.isEmpty()) {
+            return;
+        }
+
+        String sql = INSERT_PREFIX + String.join(", ", Collections.nCopies(holds.size(), ROW));
+        Instant insertedAt = Instant.now();
+        Timestamp now = Timestamp.from(insertedAt);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        jdbcTemplate.update(con -> {
+            // same zone as hibernate.jdbc.time_zone
+            Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+            PreparedStatement ps = con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            int i = 1;
+            for (Hold h : holds) {
+                ps.setLong(i++, h.getUserId());
+                ps.setLong(i++, h.getSeanceId());
+                ps.setInt(i++, h.getQuantity());
+                ps.setString(i++, h.getStatus().name());
+                ps.setString(i++, h.getIdempotencyKey());
+                ps.setTimestamp(i++, Timestamp.from(h.getExpiresAt()), utc);
+                ps.setInt(i++, h.getShardNo());
+                ps.setTimestamp(i++, now, utc);
+                ps.setTimestamp(i++, now, utc);
+            }
+            return ps;
+        }, keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < holds.size(); i++) {
+            holds.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            holds.get(i).markInserted(insertedAt);
+        }
+    }
+
+    @Override
+    public List<Hold> insertAllNew(List<Hold> holds) {
+        try {
+            insertAll(holds);
+            return List.of();
+        } catch (DuplicateKeyException taken) {
+            if (holds.size() == 1) {
+                return List.of(holds.get(0));
+            }
+        }
+
+        // only the failed statement was rolled back; find the taken keys row by row
+        List<Hold> taken = new ArrayList<>();
+        for (Hold hold : holds) {
+            try {
+                insertAll(List.of(hold));
+            } catch (DuplicateKeyException e) {
+                taken.add(hold);
+            }
+        }
+        return taken;
+    }
+}
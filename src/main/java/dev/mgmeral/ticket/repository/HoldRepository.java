@@ -3,41 +3,78 @@ package dev.mgmeral.ticket.repository;
 import dev.mgmeral.ticket.entity.Hold;
 import dev.mgmeral.ticket.enums.HoldStatus;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface HoldRepository extends JpaRepository<Hold, Long> {
+public interface HoldRepository extends JpaRepository<Hold, Long>, HoldBatchRepository {
     Optional<Hold> findByIdempotencyKey(String idempotencyKey);
 
-    @Query("""
-            select coalesce(sum(h.quantity), 0)
-            from Hold h
-            where h.seanceId = :seanceId
-              and h.status = :status
-              and h.expiresAt > :now
-            """)
-    long sumActiveQuantity(Long seanceId, HoldStatus status, Instant now);
+    /**
+     * Locking read, so it also sees holds committed after this transaction's snapshot was taken.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    List<Hold> findWithLockByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+
+    @Query("select h.id as id, h.idempotencyKey as idempotencyKey from Hold h where h.id > :afterId order by h.id")
+    List<IdempotencyKeyRow> findIdempotencyKeysAfter(@Param("afterId") Long afterId, Limit limit);
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Hold> findWithLockById(Long id);
 
+    /**
+     * Locks up to {@code limit} due holds, skipping rows another transaction already holds so parallel
+     * sweepers work on disjoint chunks.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<Hold> findWithLockByStatusAndExpiresAtLessThanEqualOrderByExpiresAt(HoldStatus status, Instant now, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Hold> findWithLockByIdInAndStatusAndExpiresAtLessThanEqual(Collection<Long> ids, HoldStatus status, Instant now);
+
+    /**
+     * Keyset page in {@code (expiresAt, id)} order, which {@code idx_holds_status_expires} (status, expires_at,
+     * plus the primary key) serves without a sort.
+     */
+    @Query("""
+            select h.id as id, h.expiresAt as expiresAt from Hold h
+             where h.status = :status
+               and (h.expiresAt > :afterExpiresAt or (h.expiresAt = :afterExpiresAt and h.id > :afterId))
+             order by h.expiresAt, h.id
+            """)
+    List<PendingExpiry> findPendingExpiriesAfter(@Param("status") HoldStatus status,
+                                                 @Param("afterExpiresAt") Instant afterExpiresAt,
+                                                 @Param("afterId") Long afterId,
+                                                 Limit limit);
+
     @Modifying(clearAutomatically = true, flushAutomatically = true)
     @Query("""
             update Hold h
                set h.status = :expired,
                    h.releasedAt = :now
-             where h.status = :held
-               and h.expiresAt <= :now
+             where h.id in :ids
+               and h.status = :held
                and h.releasedAt is null
             """)
-    int expireAll(@Param("held") HoldStatus held,
-                  @Param("expired") HoldStatus expired,
-                  @Param("now") Instant now);
+    int expireAllById(@Param("ids") Collection<Long> ids,
+                      @Param("held") HoldStatus held,
+                      @Param("expired") HoldStatus expired,
+                      @Param("now") Instant now);
+
+    interface PendingExpiry {
+        Long getId();
 
+        Instant getExpiresAt();
+    }
 }
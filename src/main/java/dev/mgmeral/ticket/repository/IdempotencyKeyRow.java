@@ -0,0 +1,11 @@
+package dev.mgmeral.ticket.repository;
+
+/**
+ * Row id and idempotency key of a hold or purchase, read in id order to rebuild
+ * {@link dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter}.
+ */
+public interface IdempotencyKeyRow {
+    Long getId();
+
+    String getIdempotencyKey();
+}
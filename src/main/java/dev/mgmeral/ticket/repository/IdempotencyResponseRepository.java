@@ -0,0 +1,77 @@
+package dev.mgmeral.ticket.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+
+/**
+ * Plain JDBC over {@code idempotency_responses}: rows are only ever read by primary key, so there is
+ * no entity.
+ */
+@Repository
+public class IdempotencyResponseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyResponseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<byte[]> findBody(String scope, byte[] keyHash, Instant now) {
+        List<byte[]> bodies = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    SELECT body FROM idempotency_responses
+                     WHERE scope = ? AND key_hash = ? AND expires_at > ?
+                    """);
+            ps.setString(1, scope);
+            ps.setBytes(2, keyHash);
+            ps.setTimestamp(3, Timestamp.from(now), utc());
+            return ps;
+        }, (rs, rowNum) -> rs.getBytes(1));
+        return bodies.stream().findFirst();
+    }
+
+    /**
+     * Keeps the existing row if the key is already stored.
+     */
+    public int insert(String scope, byte[] keyHash, byte[] body, Instant expiresAt) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT IGNORE INTO idempotency_responses (scope, key_hash, body, expires_at)
+                    VALUES (?, ?, ?, ?)
+                    """);
+            ps.setString(1, scope);
+            ps.setBytes(2, keyHash);
+            ps.setBytes(3, body);
+            ps.setTimestamp(4, Timestamp.from(expiresAt), utc());
+            return ps;
+        });
+    }
+
+    public int delete(String scope, byte[] keyHash) {
+        return jdbcTemplate.update("DELETE FROM idempotency_responses WHERE scope = ? AND key_hash = ?",
+                scope, keyHash);
+    }
+
+    public int deleteExpired(Instant now, int limit) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "DELETE FROM idempotency_responses WHERE expires_at <= ? LIMIT ?");
+            ps.setTimestamp(1, Timestamp.from(now), utc());
+            ps.setInt(2, limit);
+            return ps;
+        });
+    }
+
+    // same zone as hibernate.jdbc.time_zone
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
@@ -0,0 +1,53 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.JobLease;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * Lease times are taken from the DB clock so that clock skew between nodes cannot make two of them
+ * believe they hold the same lease.
+ */
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "job_leases"))
+    @Query(value = """
+            INSERT INTO job_leases (name, owner, acquired_at, expires_at)
+            VALUES (:name, '', CURRENT_TIMESTAMP(3), CURRENT_TIMESTAMP(3))
+            ON DUPLICATE KEY UPDATE name = name
+            """, nativeQuery = true)
+    int register(@Param("name") String name);
+
+    /**
+     * Renews the lease for its owner or takes it over once it has expired.
+     * <p>
+     * {@code acquired_at} must stay the first assignment: MySQL evaluates them left to right, so it
+     * still compares against the previous owner.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "job_leases"))
+    @Query(value = """
+            UPDATE job_leases
+               SET acquired_at = CASE WHEN owner = :owner THEN acquired_at ELSE CURRENT_TIMESTAMP(3) END,
+                   owner = :owner,
+                   expires_at = TIMESTAMPADD(MICROSECOND, :ttlMs * 1000, CURRENT_TIMESTAMP(3))
+             WHERE name = :name
+               AND (owner = :owner OR expires_at < CURRENT_TIMESTAMP(3))
+            """, nativeQuery = true)
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("ttlMs") long ttlMs);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "job_leases"))
+    @Query(value = """
+            UPDATE job_leases
+               SET expires_at = CURRENT_TIMESTAMP(3)
+             WHERE name = :name
+               AND owner = :owner
+            """, nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner);
+}
@@ -0,0 +1,11 @@
+package dev.mgmeral.ticket.repository;
+
+/**
+ * Id and name of an event or performer, read in id order to rebuild
+ * {@link dev.mgmeral.ticket.search.AutocompleteIndex}.
+ */
+public interface NameRow {
+    Long getId();
+
+    String getName();
+}
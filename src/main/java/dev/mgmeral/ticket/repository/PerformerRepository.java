@@ -1,13 +1,66 @@
 package dev.mgmeral.ticket.repository;
 
 import dev.mgmeral.ticket.entity.Performer;
+import dev.mgmeral.ticket.model.PerformerResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface PerformerRepository extends JpaRepository<Performer, Long> {
     boolean existsByNameIgnoreCase(String name);
 
-    Page<Performer> findByNameContainingIgnoreCase(String name, Pageable pageable);
+    /**
+     * List reads return {@link PerformerResponse} directly: a DTO projection selecting only its columns.
+     */
+    Page<PerformerResponse> findResponsesBy(Pageable pageable);
+
+    List<PerformerResponse> findResponsesByIdIn(Collection<Long> ids);
+
+    Page<PerformerResponse> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    Slice<PerformerResponse> findSliceBy(Pageable pageable);
+
+    Slice<PerformerResponse> findSliceByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    long countByNameContainingIgnoreCase(String name);
+
+    List<PerformerResponse> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+
+    List<PerformerResponse> findByNameContainingIgnoreCaseAndIdGreaterThanOrderById(String name, Long afterId,
+                                                                                  Limit limit);
+
+    /**
+     * Performers of one event in a single join, instead of initializing the lazy {@code Event.performers}.
+     */
+    @Query("""
+            select new dev.mgmeral.ticket.model.PerformerResponse(p.id, p.name, p.role, p.description)
+              from Event e
+              join e.performers p
+             where e.id = :eventId
+             order by p.name, p.id
+            """)
+    List<PerformerResponse> findResponsesByEventId(@Param("eventId") Long eventId);
+
+    @Query("select p.id as id, p.name as name from Performer p where p.id > :afterId order by p.id")
+    List<NameRow> findNamesAfter(@Param("afterId") Long afterId, Limit limit);
 
+    /**
+     * Performers changed after ({@code at}, {@code afterId}) in (updatedAt, id) order, up to {@code until}.
+     */
+    @Query("""
+            select p from Performer p
+             where (p.updatedAt > :at or (p.updatedAt = :at and p.id > :afterId))
+               and p.updatedAt <= :until
+             order by p.updatedAt, p.id
+            """)
+    List<Performer> findChangedAfter(@Param("at") Instant at, @Param("afterId") Long afterId,
+                                     @Param("until") Instant until, Limit limit);
 }
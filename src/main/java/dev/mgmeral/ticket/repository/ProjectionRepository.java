@@ -0,0 +1,34 @@
+package dev.mgmeral.ticket.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Specification queries that select only {@code attributes} of {@code domainType} into the constructor of
+ * {@code resultType}, in that order, instead of hydrating managed entities.
+ */
+public interface ProjectionRepository {
+
+    /**
+     * {@code findAll(spec, pageable)} as a projection, with the same count query.
+     */
+    <T, R> Page<R> findPage(Class<T> domainType, Specification<T> spec, Pageable pageable,
+                            Class<R> resultType, String... attributes);
+
+    /**
+     * {@link #findPage} without the count query: one extra row is read to tell whether there is a next page.
+     */
+    <T, R> Slice<R> findSlice(Class<T> domainType, Specification<T> spec, Pageable pageable,
+                              Class<R> resultType, String... attributes);
+
+    /**
+     * The first {@code limit} rows in {@code sort} order.
+     */
+    <T, R> List<R> findFirst(Class<T> domainType, Specification<T> spec, Sort sort, int limit,
+                             Class<R> resultType, String... attributes);
+}
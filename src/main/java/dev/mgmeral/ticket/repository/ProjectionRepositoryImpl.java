@@ -0,0 +1,95 @@
+package dev.mgmeral.ticket.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class ProjectionRepositoryImpl implements ProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    public ProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public <T, R> Page<R> findPage(Class<T> domainType, Specification<T> spec, Pageable pageable,
+                                   Class<R> resultType, String... attributes) {
+        TypedQuery<R> query = query(domainType, spec, pageable.getSort(), resultType, attributes);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(domainType, spec));
+    }
+
+    @Override
+    public <T, R> Slice<R> findSlice(Class<T> domainType, Specification<T> spec, Pageable pageable,
+                                     Class<R> resultType, String... attributes) {
+        TypedQuery<R> query = query(domainType, spec, pageable.getSort(), resultType, attributes);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+
+        List<R> rows = query.getResultList();
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    @Override
+    public <T, R> List<R> findFirst(Class<T> domainType, Specification<T> spec, Sort sort, int limit,
+                                    Class<R> resultType, String... attributes) {
+        return query(domainType, spec, sort, resultType, attributes)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private <T, R> TypedQuery<R> query(Class<T> domainType, Specification<T> spec, Sort sort,
+                                       Class<R> resultType, String... attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<R> query = cb.createQuery(resultType);
+        Root<T> root = query.from(domainType);
+        query.select(cb.construct(resultType, Arrays.stream(attributes)
+                .map(root::get)
+                .toArray(Selection[]::new)));
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private <T> long count(Class<T> domainType, Specification<T> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(domainType);
+        query.select(cb.count(root));
+
+        Predicate predicate = spec == null ? null : spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
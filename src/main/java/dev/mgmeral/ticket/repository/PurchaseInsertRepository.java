@@ -0,0 +1,14 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.Purchase;
+
+public interface PurchaseInsertRepository {
+
+    /**
+     * Inserts the purchase and sets its generated id. A taken idempotency key or payment ref fails only
+     * this statement, not the surrounding transaction.
+     *
+     * @return {@code false} if a unique key was already taken and nothing was inserted
+     */
+    boolean insertNew(Purchase purchase);
+}
@@ -0,0 +1,60 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.Purchase;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+public class PurchaseInsertRepositoryImpl implements PurchaseInsertRepository {
+
+    private static final String INSERT = """
+            INSERT INTO purchases (hold_id, seance_id, user_id, quantity, amount, payment_ref, status,
+                                   idempotency_key, created_at, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PurchaseInsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public boolean insertNew(Purchase purchase) {
+        Instant insertedAt = Instant.now();
+        Timestamp now = Timestamp.from(insertedAt);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+
+        try {
+            jdbcTemplate.update(con -> {
+                // same zone as hibernate.jdbc.time_zone
+                Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+                PreparedStatement ps = con.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS);
+                ps.setLong(1, purchase.getHoldId());
+                ps.setLong(2, purchase.getSeanceId());
+                ps.setLong(3, purchase.getUserId());
+                ps.setInt(4, purchase.getQuantity());
+                ps.setBigDecimal(5, purchase.getAmount());
+                ps.setString(6, purchase.getPaymentRef());
+                ps.setString(7, purchase.getStatus().name());
+                ps.setString(8, purchase.getIdempotencyKey());
+                ps.setTimestamp(9, now, utc);
+                ps.setTimestamp(10, now, utc);
+                return ps;
+            }, keyHolder);
+        } catch (DuplicateKeyException taken) {
+            return false;
+        }
+
+        purchase.setId(keyHolder.getKey().longValue());
+        purchase.markInserted(insertedAt);
+        return true;
+    }
+}
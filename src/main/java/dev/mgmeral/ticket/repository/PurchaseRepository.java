@@ -1,25 +1,33 @@
 package dev.mgmeral.ticket.repository;
 
 import dev.mgmeral.ticket.entity.Purchase;
-import dev.mgmeral.ticket.enums.PurchaseStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
-public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+public interface PurchaseRepository extends JpaRepository<Purchase, Long>, PurchaseInsertRepository {
 
     Optional<Purchase> findByIdempotencyKey(String idempotencyKey);
 
-    boolean existsByPaymentRef(String paymentRef);
+    /**
+     * Locking read, so it also sees a purchase committed after this transaction's snapshot was taken.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Purchase> findWithLockByIdempotencyKey(String idempotencyKey);
+
+    @Query("select p.id as id, p.idempotencyKey as idempotencyKey from Purchase p where p.id > :afterId order by p.id")
+    List<IdempotencyKeyRow> findIdempotencyKeysAfter(@Param("afterId") Long afterId, Limit limit);
 
-    @Query("""
-            select coalesce(sum(p.quantity), 0)
-            from Purchase p
-            where p.seanceId = :seanceId
-              and p.status = :status
-            """)
-    long sumQuantityBySeanceAndStatus(Long seanceId, PurchaseStatus status);
+    boolean existsByPaymentRef(String paymentRef);
 
     Optional<Purchase> findByPaymentRef(String paymentRef);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    Optional<Purchase> findWithLockByPaymentRef(String paymentRef);
 }
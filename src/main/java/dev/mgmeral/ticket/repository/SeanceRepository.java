@@ -2,13 +2,120 @@ package dev.mgmeral.ticket.repository;
 
 import dev.mgmeral.ticket.entity.Seance;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface SeanceRepository extends JpaRepository<Seance, Long>, JpaSpecificationExecutor<Seance> {
+public interface SeanceRepository extends JpaRepository<Seance, Long>, JpaSpecificationExecutor<Seance>,
+        ProjectionRepository {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<Seance> findWithLockById(Long id);
+
+    @Query("""
+            select s.id as id,
+                   s.capacity as capacity,
+                   s.soldQuantity as sold,
+                   s.heldQuantity as held,
+                   s.inventoryShards as shards
+              from Seance s
+             where s.id in :ids
+            """)
+    List<SeanceCounterRow> findCountersByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select s.id from Seance s where s.eventId = :eventId order by s.startDate, s.id")
+    List<Long> findIdsByEventId(@Param("eventId") Long eventId);
+
+    @Query("""
+            select new dev.mgmeral.ticket.repository.SeanceSummaryRow(
+                       s.id, s.eventId, s.startDate, s.capacity, s.inventoryShards)
+              from Seance s
+             where s.eventId = :eventId
+             order by s.startDate, s.id
+            """)
+    List<SeanceSummaryRow> findSummariesByEventId(@Param("eventId") Long eventId);
+
+    @Query("""
+            select new dev.mgmeral.ticket.repository.SeanceSummaryRow(
+                       s.id, s.eventId, s.startDate, s.capacity, s.inventoryShards)
+              from Seance s
+             where s.id in :ids
+            """)
+    List<SeanceSummaryRow> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Seances changed after ({@code at}, {@code afterId}) in (updatedAt, id) order, up to {@code until}.
+     */
+    @Query("""
+            select s from Seance s
+             where (s.updatedAt > :at or (s.updatedAt = :at and s.id > :afterId))
+               and s.updatedAt <= :until
+             order by s.updatedAt, s.id
+            """)
+    List<Seance> findChangedAfter(@Param("at") Instant at, @Param("afterId") Long afterId,
+                                  @Param("until") Instant until, Limit limit);
+
+    /**
+     * Query space of the counter updates below. Counters are never read from the second-level cache, so
+     * the updates declare this instead of {@code seances} and do not evict every cached seance on each hold.
+     * They also keep {@code updated_at}, which MySQL would otherwise bump, so a hold does not show the seance
+     * in {@code GET /catalog/changes}.
+     */
+    String COUNTERS_SPACE = "seance_counters";
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = COUNTERS_SPACE))
+    @Query(value = """
+            UPDATE seances
+               SET held_quantity = held_quantity + :quantity,
+                   updated_at = updated_at
+             WHERE id = :id
+               AND capacity - sold_quantity - held_quantity >= :quantity
+            """, nativeQuery = true)
+    int reserveHeld(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = COUNTERS_SPACE))
+    @Query(value = """
+            UPDATE seances
+               SET held_quantity = held_quantity - :quantity,
+                   updated_at = updated_at
+             WHERE id = :id
+               AND held_quantity >= :quantity
+            """, nativeQuery = true)
+    int releaseHeld(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = COUNTERS_SPACE))
+    @Query(value = """
+            UPDATE seances
+               SET held_quantity = held_quantity - :quantity,
+                   sold_quantity = sold_quantity + :quantity,
+                   updated_at = updated_at
+             WHERE id = :id
+               AND held_quantity >= :quantity
+            """, nativeQuery = true)
+    int sellHeld(@Param("id") Long id, @Param("quantity") int quantity);
+
+    interface SeanceCounterRow {
+        Long getId();
+
+        int getCapacity();
+
+        long getSold();
+
+        long getHeld();
+
+        int getShards();
+    }
 }
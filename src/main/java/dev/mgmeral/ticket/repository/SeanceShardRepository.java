@@ -0,0 +1,75 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.SeanceShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SeanceShardRepository extends JpaRepository<SeanceShard, Long> {
+
+    @Query("""
+            select s.shardNo
+              from SeanceShard s
+             where s.seanceId = :seanceId
+               and s.capacity - s.soldQuantity - s.heldQuantity >= :quantity
+            """)
+    List<Integer> findShardNosWithAvailable(@Param("seanceId") Long seanceId, @Param("quantity") int quantity);
+
+    @Query("""
+            select s.seanceId as seanceId,
+                   sum(s.soldQuantity) as sold,
+                   sum(s.heldQuantity) as held
+              from SeanceShard s
+             where s.seanceId in :seanceIds
+             group by s.seanceId
+            """)
+    List<SeanceShardTotals> sumBySeanceIdIn(@Param("seanceIds") Collection<Long> seanceIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<SeanceShard> findWithLockBySeanceIdOrderByShardNo(Long seanceId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update SeanceShard s
+               set s.heldQuantity = s.heldQuantity + :quantity
+             where s.seanceId = :seanceId
+               and s.shardNo = :shardNo
+               and s.capacity - s.soldQuantity - s.heldQuantity >= :quantity
+            """)
+    int reserveHeld(@Param("seanceId") Long seanceId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update SeanceShard s
+               set s.heldQuantity = s.heldQuantity - :quantity
+             where s.seanceId = :seanceId
+               and s.shardNo = :shardNo
+               and s.heldQuantity >= :quantity
+            """)
+    int releaseHeld(@Param("seanceId") Long seanceId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("""
+            update SeanceShard s
+               set s.heldQuantity = s.heldQuantity - :quantity,
+                   s.soldQuantity = s.soldQuantity + :quantity
+             where s.seanceId = :seanceId
+               and s.shardNo = :shardNo
+               and s.heldQuantity >= :quantity
+            """)
+    int sellHeld(@Param("seanceId") Long seanceId, @Param("shardNo") int shardNo, @Param("quantity") int quantity);
+
+    interface SeanceShardTotals {
+        Long getSeanceId();
+
+        long getSold();
+
+        long getHeld();
+    }
+}
@@ -0,0 +1,11 @@
+package dev.mgmeral.ticket.repository;
+
+import java.time.Instant;
+
+/**
+ * Columns of a seance needed by list responses; leaves out the counters and timestamps.
+ */
+public record SeanceSummaryRow(Long id, Long eventId, Instant startDate, int capacity, int inventoryShards) {
+
+    public static final String[] ATTRIBUTES = {"id", "eventId", "startDate", "capacity", "inventoryShards"};
+}
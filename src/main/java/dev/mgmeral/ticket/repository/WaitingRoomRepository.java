@@ -0,0 +1,49 @@
+package dev.mgmeral.ticket.repository;
+
+import dev.mgmeral.ticket.entity.WaitingRoom;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface WaitingRoomRepository extends JpaRepository<WaitingRoom, Long> {
+
+    /**
+     * Creates the room if needed and moves {@code next_seq} by {@code size}; the new {@code next_seq}
+     * is then readable on the same connection through {@link #lastInsertId()}.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "waiting_rooms"))
+    @Query(value = """
+            INSERT INTO waiting_rooms (seance_id, next_seq, admitted_seq, advanced_at)
+            VALUES (:seanceId, LAST_INSERT_ID(:size), 0, :now)
+            ON DUPLICATE KEY UPDATE next_seq = LAST_INSERT_ID(next_seq + :size)
+            """, nativeQuery = true)
+    int reserveRange(@Param("seanceId") Long seanceId, @Param("size") int size, @Param("now") Instant now);
+
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long lastInsertId();
+
+    /**
+     * Moves the admission watermark by {@code step}, at most once per tick across all nodes: only the
+     * node whose update still sees {@code advanced_at <= :due} wins.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "waiting_rooms"))
+    @Query(value = """
+            UPDATE waiting_rooms
+               SET admitted_seq = LEAST(admitted_seq + :step, next_seq),
+                   advanced_at = :now
+             WHERE seance_id = :seanceId
+               AND advanced_at <= :due
+               AND admitted_seq < next_seq
+            """, nativeQuery = true)
+    int advance(@Param("seanceId") Long seanceId,
+                @Param("step") long step,
+                @Param("now") Instant now,
+                @Param("due") Instant due);
+}
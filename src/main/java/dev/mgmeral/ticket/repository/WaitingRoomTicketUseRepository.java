@@ -0,0 +1,61 @@
+package dev.mgmeral.ticket.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Optional;
+import java.util.TimeZone;
+
+/**
+ * Plain JDBC over {@code waiting_room_ticket_uses}: one row per used ticket, read by primary key only.
+ */
+@Repository
+public class WaitingRoomTicketUseRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WaitingRoomTicketUseRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Keeps the existing row if the ticket is already used.
+     *
+     * @return {@code 1} if this call recorded the use
+     */
+    public int insert(Long seanceId, long seq, String idempotencyKey, Instant now) {
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement("""
+                    INSERT IGNORE INTO waiting_room_ticket_uses (seance_id, seq, idempotency_key, used_at)
+                    VALUES (?, ?, ?, ?)
+                    """);
+            ps.setLong(1, seanceId);
+            ps.setLong(2, seq);
+            ps.setString(3, idempotencyKey);
+            ps.setTimestamp(4, Timestamp.from(now), utc());
+            return ps;
+        });
+    }
+
+    public Optional<String> findIdempotencyKey(Long seanceId, long seq) {
+        List<String> keys = jdbcTemplate.queryForList(
+                "SELECT idempotency_key FROM waiting_room_ticket_uses WHERE seance_id = ? AND seq = ?",
+                String.class, seanceId, seq);
+        return keys.stream().findFirst();
+    }
+
+    public int deleteUpTo(Long seanceId, long seq) {
+        return jdbcTemplate.update("DELETE FROM waiting_room_ticket_uses WHERE seance_id = ? AND seq <= ?",
+                seanceId, seq);
+    }
+
+    // same zone as hibernate.jdbc.time_zone
+    private static Calendar utc() {
+        return Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    }
+}
@@ -5,6 +5,7 @@ import dev.mgmeral.ticket.enums.EventType;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
+import java.util.Collection;
 
 public final class EventSpecifications {
     private EventSpecifications() {
@@ -14,8 +15,25 @@ public final class EventSpecifications {
         return (root, query, cb) -> cb.equal(root.get("type"), type);
     }
 
-    public static Specification<Event> nameContains(String name) {
-        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%");
+    public static Specification<Event> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Event> idGreaterThan(Long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+
+    /**
+     * Same columns as {@code EventSearchIndex}: name, summary and description.
+     */
+    public static Specification<Event> textContains(String text) {
+        return (root, query, cb) -> {
+            String pattern = "%" + text.toLowerCase() + "%";
+            return cb.or(
+                    cb.like(cb.lower(root.get("name")), pattern),
+                    cb.like(cb.lower(root.get("summary")), pattern),
+                    cb.like(cb.lower(root.get("description")), pattern));
+        };
     }
 
     public static Specification<Event> startDateGte(Instant startFrom) {
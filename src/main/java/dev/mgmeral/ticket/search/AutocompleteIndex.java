@@ -0,0 +1,139 @@
+package dev.mgmeral.ticket.search;
+
+import dev.mgmeral.ticket.config.AfterCommit;
+import dev.mgmeral.ticket.model.AutocompleteSuggestion;
+import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.NameRow;
+import dev.mgmeral.ticket.repository.PerformerRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Node-local prefix index of event and performer names behind {@code GET /autocomplete}.
+ * <p>
+ * Same lifecycle as {@link EventSearchIndex}: rebuilt from the DB every {@code rebuild-ms}, writes on this
+ * node applied after commit. Until the first rebuild lookups return nothing rather than scanning the tables.
+ */
+@Slf4j
+@Component
+public class AutocompleteIndex {
+
+    public static final String EVENT = "EVENT";
+    public static final String PERFORMER = "PERFORMER";
+
+    private static final int PAGE_SIZE = 5_000;
+
+    private final EventRepository eventRepository;
+    private final PerformerRepository performerRepository;
+    private final boolean enabled;
+    private final int topK;
+    private final Timer lookups;
+
+    private volatile PrefixTrie current;
+    private volatile PrefixTrie building;
+
+    public AutocompleteIndex(EventRepository eventRepository,
+                             PerformerRepository performerRepository,
+                             MeterRegistry registry,
+                             @Value("${autocomplete.enabled:true}") boolean enabled,
+                             @Value("${autocomplete.top-k:10}") int topK) {
+        this.eventRepository = eventRepository;
+        this.performerRepository = performerRepository;
+        this.enabled = enabled;
+        this.topK = topK;
+
+        this.lookups = registry.timer("autocomplete_lookup_seconds");
+        Gauge.builder("autocomplete_names", this, i -> i.current == null ? 0 : i.current.size())
+                .register(registry);
+    }
+
+    /**
+     * @return up to {@code limit} (at most {@code top-k}) event and performer names with a word starting
+     * with {@code prefix}
+     */
+    public List<AutocompleteSuggestion> suggest(String prefix, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        PrefixTrie trie = current;
+        if (!enabled || trie == null || prefix == null) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        List<AutocompleteSuggestion> suggestions = trie.top(prefix, limit);
+        lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return suggestions;
+    }
+
+    public void putAfterCommit(String type, Long id, String name) {
+        AutocompleteSuggestion suggestion = new AutocompleteSuggestion(type, id, name);
+        afterCommit(trie -> trie.put(suggestion));
+    }
+
+    public void removeAfterCommit(String type, Long id) {
+        afterCommit(trie -> trie.remove(type, id));
+    }
+
+    @Scheduled(fixedDelayString = "${autocomplete.rebuild-ms:300000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        PrefixTrie fresh = new PrefixTrie(topK);
+        building = fresh;
+        try {
+            load(fresh, EVENT, eventRepository::findNamesAfter);
+            load(fresh, PERFORMER, performerRepository::findNamesAfter);
+
+            current = fresh;
+            log.info("autocomplete.rebuilt names={} tookMs={}",
+                    fresh.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("autocomplete.rebuildFailed", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private static void load(PrefixTrie trie, String type, BiFunction<Long, Limit, List<NameRow>> pages) {
+        long afterId = 0;
+        List<NameRow> page;
+        do {
+            page = pages.apply(afterId, Limit.of(PAGE_SIZE));
+            for (NameRow row : page) {
+                trie.put(new AutocompleteSuggestion(type, row.getId(), row.getName()));
+            }
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    private void afterCommit(Consumer<PrefixTrie> write) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            PrefixTrie b = building;
+            if (b != null) {
+                write.accept(b);
+            }
+            PrefixTrie c = current;
+            if (c != null) {
+                write.accept(c);
+            }
+        });
+    }
+}
@@ -0,0 +1,145 @@
+package dev.mgmeral.ticket.search;
+
+import dev.mgmeral.ticket.config.AfterCommit;
+import dev.mgmeral.ticket.entity.Event;
+import dev.mgmeral.ticket.enums.EventType;
+import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.EventSearchRow;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Node-local full-text index of events, so that {@code GET /events?name=} does not scan {@code events}
+ * with {@code like '%x%'}.
+ * <p>
+ * The index is rebuilt from the DB every {@code rebuild-ms}; events created, updated or deleted on this
+ * node are applied after their transaction commits, so changes made on other nodes are only seen after
+ * the next rebuild. Until the first rebuild {@link #isReady} is {@code false} and callers fall back to
+ * the DB, which matches the same name, summary and description columns but without typo tolerance.
+ */
+@Slf4j
+@Component
+public class EventSearchIndex {
+
+    private static final int PAGE_SIZE = 5_000;
+
+    private final EventRepository eventRepository;
+    private final boolean enabled;
+    private final Timer queries;
+
+    private volatile InvertedIndex current;
+    private volatile InvertedIndex building;
+
+    public EventSearchIndex(EventRepository eventRepository,
+                            MeterRegistry registry,
+                            @Value("${events.search.index.enabled:true}") boolean enabled) {
+        this.eventRepository = eventRepository;
+        this.enabled = enabled;
+
+        this.queries = registry.timer("event_search_index_query_seconds");
+        Gauge.builder("event_search_index_documents", this, i -> i.current == null ? 0 : i.current.size())
+                .register(registry);
+    }
+
+    public boolean isReady() {
+        return enabled && current != null;
+    }
+
+    /**
+     * @return ids of all events matching {@code query} and the filters, best match first
+     */
+    public List<Long> search(String query, EventType type, Instant startFrom, Instant startTo) {
+        long start = System.nanoTime();
+        List<Long> ids = current.search(query, filters(type, startFrom, startTo));
+        queries.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return ids;
+    }
+
+    /**
+     * Keyset page over all matches: the first {@code limit} matching ids above {@code afterId}, in id order.
+     */
+    public List<Long> searchAfter(String query, EventType type, Instant startFrom, Instant startTo,
+                                  long afterId, int limit) {
+        long start = System.nanoTime();
+        List<Long> ids = current.searchAfter(query, filters(type, startFrom, startTo), afterId, limit);
+        queries.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return ids;
+    }
+
+    private static Predicate<InvertedIndex.Doc> filters(EventType type, Instant startFrom, Instant startTo) {
+        return doc -> (type == null || type == doc.type())
+                && (startFrom == null || (doc.startDate() != null && !doc.startDate().isBefore(startFrom)))
+                && (startTo == null || (doc.startDate() != null && !doc.startDate().isAfter(startTo)));
+    }
+
+    public void indexAfterCommit(Event event) {
+        InvertedIndex.Doc doc = InvertedIndex.Doc.of(event.getId(), event.getType(), event.getStartDate(),
+                event.getName(), event.getSummary(), event.getDescription());
+        afterCommit(index -> index.put(doc));
+    }
+
+    public void removeAfterCommit(Long eventId) {
+        afterCommit(index -> index.remove(eventId));
+    }
+
+    @Scheduled(fixedDelayString = "${events.search.index.rebuild-ms:300000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        InvertedIndex fresh = new InvertedIndex();
+        building = fresh;
+        try {
+            long afterId = 0;
+            List<EventSearchRow> page;
+            do {
+                page = eventRepository.findSearchRowsAfter(afterId, Limit.of(PAGE_SIZE));
+                for (EventSearchRow row : page) {
+                    fresh.put(InvertedIndex.Doc.of(row.getId(), row.getType(), row.getStartDate(),
+                            row.getName(), row.getSummary(), row.getDescription()));
+                }
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).getId();
+                }
+            } while (page.size() == PAGE_SIZE);
+
+            current = fresh;
+            log.info("event.search.index.rebuilt documents={} tookMs={}",
+                    fresh.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (RuntimeException e) {
+            log.warn("event.search.index.rebuildFailed", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private void afterCommit(Consumer<InvertedIndex> write) {
+        if (!enabled) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            // a write that lands while a rebuild is running goes to both, whichever of them saw the row
+            InvertedIndex b = building;
+            if (b != null) {
+                write.accept(b);
+            }
+            InvertedIndex c = current;
+            if (c != null) {
+                write.accept(c);
+            }
+        });
+    }
+}
@@ -0,0 +1,211 @@
+package dev.mgmeral.ticket.search;
+
+import dev.mgmeral.ticket.enums.EventType;
+
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Trigram -> event id postings over the normalized name, summary and description of events.
+ * <p>
+ * Text is lower-cased, stripped of diacritics and split into words; every word is padded with a space on
+ * both sides before its trigrams are taken, so a query matches anywhere inside a word and a query at the
+ * start or end of a word shares the padded trigrams too. A document is a match if it contains the query
+ * or, for typos, at least {@link #MIN_OVERLAP} of the query's trigrams. Queries without a trigram
+ * (shorter than three characters) are answered by scanning the documents.
+ */
+final class InvertedIndex {
+
+    static final double MIN_OVERLAP = 0.7;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<Long, Doc> docs = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    void put(Doc doc) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(doc.id());
+            docs.put(doc.id(), doc);
+            for (String gram : docTrigrams(doc)) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(doc.id());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the matching documents that pass {@code filter}, best first: query in the name, query in
+     * the summary / description, then typo matches; ties by trigram overlap, then id
+     */
+    List<Long> search(String query, Predicate<Doc> filter) {
+        List<Match> matches = new ArrayList<>();
+        forEachMatch(query, filter, matches::add);
+        matches.sort(Match.ORDER);
+        return matches.stream().map(Match::id).toList();
+    }
+
+    /**
+     * @return the first {@code limit} ids above {@code afterId}, in id order, of the matching documents that
+     * pass {@code filter}; every match is considered, without ranking or sorting all of them
+     */
+    List<Long> searchAfter(String query, Predicate<Doc> filter, long afterId, int limit) {
+        PriorityQueue<Long> lowest = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        forEachMatch(query, doc -> doc.id() > afterId && filter.test(doc), match -> {
+            if (lowest.size() < limit) {
+                lowest.add(match.id());
+            } else if (match.id() < lowest.peek()) {
+                lowest.poll();
+                lowest.add(match.id());
+            }
+        });
+        List<Long> ids = new ArrayList<>(lowest);
+        ids.sort(null);
+        return ids;
+    }
+
+    private void forEachMatch(String query, Predicate<Doc> filter, Consumer<Match> sink) {
+        String q = normalize(query);
+        Set<String> grams = queryTrigrams(q);
+
+        lock.readLock().lock();
+        try {
+            if (grams.isEmpty()) {
+                for (Doc doc : docs.values()) {
+                    int rank = rank(doc, q);
+                    if (rank > 0 && filter.test(doc)) {
+                        sink.accept(new Match(doc.id(), rank, 0));
+                    }
+                }
+            } else {
+                Map<Long, int[]> overlap = new HashMap<>();
+                for (String gram : grams) {
+                    Set<Long> ids = postings.get(gram);
+                    if (ids != null) {
+                        ids.forEach(id -> overlap.computeIfAbsent(id, k -> new int[1])[0]++);
+                    }
+                }
+                int min = grams.size() <= 2 ? grams.size() : (int) Math.ceil(grams.size() * MIN_OVERLAP);
+                overlap.forEach((id, count) -> {
+                    if (count[0] < min) {
+                        return;
+                    }
+                    Doc doc = docs.get(id);
+                    if (filter.test(doc)) {
+                        sink.accept(new Match(id, Math.max(1, rank(doc, q)), count[0]));
+                    }
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long id) {
+        Doc old = docs.remove(id);
+        if (old == null) {
+            return;
+        }
+        for (String gram : docTrigrams(old)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    private static int rank(Doc doc, String q) {
+        if (doc.name().contains(q)) {
+            return 3;
+        }
+        return doc.body().contains(q) ? 2 : 0;
+    }
+
+    private static Set<String> docTrigrams(Doc doc) {
+        Set<String> grams = new HashSet<>();
+        for (String text : List.of(doc.name(), doc.body())) {
+            for (String word : text.split(" ")) {
+                if (!word.isEmpty()) {
+                    addTrigrams(" " + word + " ", grams);
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static Set<String> queryTrigrams(String q) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : q.split(" ")) {
+            addTrigrams(word, grams);
+        }
+        return grams;
+    }
+
+    private static void addTrigrams(String word, Set<String> grams) {
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            grams.add(word.substring(i, i + 3));
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT).replace('ı', 'i');
+        String plain = MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(plain).replaceAll(" ").trim();
+    }
+
+    /**
+     * Indexed form of one event; {@code type} and {@code startDate} are kept for filtering.
+     */
+    record Doc(Long id, EventType type, Instant startDate, String name, String body) {
+
+        static Doc of(Long id, EventType type, Instant startDate, String name, String summary, String description) {
+            return new Doc(id, type, startDate, normalize(name), (normalize(summary) + " " + normalize(description)).trim());
+        }
+    }
+
+    private record Match(Long id, int rank, int overlap) {
+        private static final Comparator<Match> ORDER = Comparator.comparingInt(Match::rank).reversed()
+                .thenComparing(Comparator.comparingInt(Match::overlap).reversed())
+                .thenComparing(Match::id);
+    }
+}
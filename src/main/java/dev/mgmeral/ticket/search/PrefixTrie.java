@@ -0,0 +1,221 @@
+package dev.mgmeral.ticket.search;
+
+import dev.mgmeral.ticket.model.AutocompleteSuggestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Character trie of normalized names for prefix lookups.
+ * <p>
+ * A name is inserted once from the start of each of its words, so a prefix of any word finds it. Children
+ * are kept in sorted {@code char} arrays. Every node caches the best {@code k} suggestions of its subtree,
+ * built on first lookup from the caches of its children; a write only drops the caches on the path of the
+ * keys it touches, so a lookup costs one walk down the prefix once the cache is warm. Nodes emptied by
+ * removals stay until the trie is rebuilt.
+ */
+final class PrefixTrie {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    /**
+     * Names starting with the prefix first, then shorter names, then alphabetical.
+     */
+    private static final Comparator<Hit> ORDER = Comparator.comparing(Hit::leading).reversed()
+            .thenComparingInt((Hit h) -> h.suggestion().name().length())
+            .thenComparing(h -> h.suggestion().name(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(h -> h.suggestion().type())
+            .thenComparing(h -> h.suggestion().id());
+
+    private final int k;
+    private final Node root = new Node();
+    private final Map<Key, String> names = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    PrefixTrie(int k) {
+        this.k = k;
+    }
+
+    void put(AutocompleteSuggestion suggestion) {
+        Key key = new Key(suggestion.type(), suggestion.id());
+        String normalized = InvertedIndex.normalize(suggestion.name());
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            if (normalized.isEmpty()) {
+                return;
+            }
+            names.put(key, normalized);
+            forEachWordStart(normalized, (from, leading) -> {
+                Node node = walk(normalized, from, true);
+                if (node.hits == null) {
+                    node.hits = new ArrayList<>(1);
+                }
+                node.hits.add(new Hit(suggestion, leading));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String type, Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new Key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return at most {@code limit} (capped at {@code k}) suggestions whose name has a word starting with
+     * {@code prefix}
+     */
+    List<AutocompleteSuggestion> top(String prefix, int limit) {
+        String p = InvertedIndex.normalize(prefix);
+        if (p.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < p.length() && node != null; i++) {
+                node = node.child(p.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<Hit> top = top(node);
+            return top.subList(0, Math.min(limit, top.size())).stream().map(Hit::suggestion).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Hit> top(Node node) {
+        List<Hit> cached = node.top;
+        if (cached != null) {
+            return cached;
+        }
+        // same suggestion can be reached through several of its words; keep its best hit
+        Map<Key, Hit> best = new LinkedHashMap<>();
+        if (node.hits != null) {
+            node.hits.forEach(h -> best.merge(Key.of(h), h, PrefixTrie::better));
+        }
+        for (Node child : node.children) {
+            top(child).forEach(h -> best.merge(Key.of(h), h, PrefixTrie::better));
+        }
+        List<Hit> merged = new ArrayList<>(best.values());
+        merged.sort(ORDER);
+        List<Hit> top = List.copyOf(merged.subList(0, Math.min(k, merged.size())));
+        // racing readers compute the same list; writers hold the write lock, so no stale list is stored
+        node.top = top;
+        return top;
+    }
+
+    private void removeLocked(Key key) {
+        String old = names.remove(key);
+        if (old == null) {
+            return;
+        }
+        forEachWordStart(old, (from, leading) -> {
+            Node node = walk(old, from, false);
+            if (node != null && node.hits != null) {
+                node.hits.removeIf(h -> Key.of(h).equals(key));
+                if (node.hits.isEmpty()) {
+                    node.hits = null;
+                }
+            }
+        });
+    }
+
+    /**
+     * Follows {@code text} from {@code from} to its end, dropping the cached tops on the way.
+     */
+    private Node walk(String text, int from, boolean create) {
+        Node node = root;
+        node.top = null;
+        for (int i = from; i < text.length(); i++) {
+            Node next = node.child(text.charAt(i));
+            if (next == null) {
+                if (!create) {
+                    return null;
+                }
+                next = node.addChild(text.charAt(i));
+            }
+            node = next;
+            node.top = null;
+        }
+        return node;
+    }
+
+    private static void forEachWordStart(String normalized, WordStart action) {
+        for (int i = 0; i < normalized.length(); i++) {
+            if (i == 0 || normalized.charAt(i - 1) == ' ') {
+                action.accept(i, i == 0);
+            }
+        }
+    }
+
+    private static Hit better(Hit a, Hit b) {
+        return ORDER.compare(a, b) <= 0 ? a : b;
+    }
+
+    @FunctionalInterface
+    private interface WordStart {
+        void accept(int from, boolean leading);
+    }
+
+    private static final class Node {
+        private char[] keys = NO_KEYS;
+        private Node[] children = NO_CHILDREN;
+        private List<Hit> hits;
+        private volatile List<Hit> top;
+
+        private Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        private Node addChild(char c) {
+            int at = -(Arrays.binarySearch(keys, c) + 1);
+            char[] k = new char[keys.length + 1];
+            Node[] n = new Node[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, at);
+            System.arraycopy(children, 0, n, 0, at);
+            k[at] = c;
+            n[at] = new Node();
+            System.arraycopy(keys, at, k, at + 1, keys.length - at);
+            System.arraycopy(children, at, n, at + 1, children.length - at);
+            keys = k;
+            children = n;
+            return n[at];
+        }
+    }
+
+    private record Key(String type, Long id) {
+        private static Key of(Hit hit) {
+            return new Key(hit.suggestion().type(), hit.suggestion().id());
+        }
+    }
+
+    private record Hit(AutocompleteSuggestion suggestion, boolean leading) {
+    }
+}
@@ -0,0 +1,8 @@
+package dev.mgmeral.ticket.service;
+
+import dev.mgmeral.ticket.model.CatalogChanges;
+
+public interface CatalogService {
+
+    CatalogChanges changes(String since, int limit);
+}
@@ -1,10 +1,14 @@
 package dev.mgmeral.ticket.service;
 
+import dev.mgmeral.ticket.enums.CountMode;
 import dev.mgmeral.ticket.model.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface EventService {
 
@@ -12,11 +16,21 @@ public interface EventService {
 
     EventGetResponse getById(Long id);
 
+    EventDetailResponse detail(Long id);
+
+    List<MultiGetItem<EventGetResponse>> getByIds(Collection<Long> ids);
+
     EventUpdateResponse update(Long id, EventUpdateRequest request);
 
     void delete(Long id);
 
     Page<EventSearchResponse> search(String type, String name, Instant startFrom, Instant startTo, Pageable pageable);
 
+    Slice<EventSearchResponse> search(String type, String name, Instant startFrom, Instant startTo,
+                                      CountMode countMode, Pageable pageable);
+
+    CursorSlice<EventSearchResponse> scroll(String type, String name, Instant startFrom, Instant startTo,
+                                            String cursor, int size);
+
     EventUpdateResponse updatePerformers(Long eventId, EventPerformerUpdateRequest request);
 }
@@ -3,14 +3,19 @@ package dev.mgmeral.ticket.service;
 import dev.mgmeral.ticket.entity.Hold;
 import dev.mgmeral.ticket.model.HoldCreateRequest;
 import dev.mgmeral.ticket.model.HoldResponse;
+import dev.mgmeral.ticket.model.MultiGetItem;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface HoldService {
     HoldResponse create(HoldCreateRequest request);
 
     HoldResponse getById(Long holdId);
 
+    List<MultiGetItem<HoldResponse>> getByIds(Collection<Long> holdIds);
+
     void release(Long holdId);
 
     boolean expireIfNeeded(Hold hold, Instant now);
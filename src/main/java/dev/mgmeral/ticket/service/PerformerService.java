@@ -1,10 +1,17 @@
 package dev.mgmeral.ticket.service;
 
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.model.CursorSlice;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.PerformerCreateRequest;
 import dev.mgmeral.ticket.model.PerformerResponse;
 import dev.mgmeral.ticket.model.PerformerUpdateRequest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PerformerService {
 
@@ -12,8 +19,14 @@ public interface PerformerService {
 
     PerformerResponse getById(Long id);
 
+    List<MultiGetItem<PerformerResponse>> getByIds(Collection<Long> ids);
+
     Page<PerformerResponse> list(String name, Pageable pageable);
 
+    Slice<PerformerResponse> list(String name, CountMode countMode, Pageable pageable);
+
+    CursorSlice<PerformerResponse> scroll(String name, String cursor, int size);
+
     PerformerResponse update(Long id, PerformerUpdateRequest request);
 
     void delete(Long id);
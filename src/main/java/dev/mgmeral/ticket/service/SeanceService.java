@@ -1,20 +1,44 @@
 package dev.mgmeral.ticket.service;
 
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.model.CursorSlice;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.SeanceAvailabilityResponse;
 import dev.mgmeral.ticket.model.SeanceCreateRequest;
 import dev.mgmeral.ticket.model.SeanceCreateResponse;
 import dev.mgmeral.ticket.model.SeanceGetResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface SeanceService {
     SeanceCreateResponse create(Long eventId, SeanceCreateRequest request);
 
     SeanceGetResponse getById(Long id);
 
-    Page<SeanceGetResponse> search(Long eventId, Instant dateFrom, Instant dateTo, Pageable pageable);
+    List<MultiGetItem<SeanceGetResponse>> getByIds(Collection<Long> ids);
+
+    Page<SeanceGetResponse> search(Long eventId, Instant dateFrom, Instant dateTo, boolean onlyAvailable,
+                                   boolean withAvailability, Pageable pageable);
+
+    Slice<SeanceGetResponse> search(Long eventId, Instant dateFrom, Instant dateTo, boolean onlyAvailable,
+                                    boolean withAvailability, CountMode countMode, Pageable pageable);
+
+    List<SeanceGetResponse> listByEvent(Long eventId);
+
+    CursorSlice<SeanceGetResponse> scroll(Long eventId, Instant dateFrom, Instant dateTo, boolean onlyAvailable,
+                                          String cursor, int size);
 
     SeanceAvailabilityResponse availability(Long id);
+
+    List<SeanceAvailabilityResponse> availability(Collection<Long> ids);
+
+    List<SeanceAvailabilityResponse> availabilityByEvent(Long eventId);
+
+    SseEmitter streamAvailability(Collection<Long> ids);
 }
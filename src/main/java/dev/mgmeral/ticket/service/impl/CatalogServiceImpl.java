@@ -0,0 +1,192 @@
+package dev.mgmeral.ticket.service.impl;
+
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import dev.mgmeral.ticket.mapper.EventMapper;
+import dev.mgmeral.ticket.mapper.SeanceMapper;
+import dev.mgmeral.ticket.model.CatalogChange;
+import dev.mgmeral.ticket.model.CatalogChanges;
+import dev.mgmeral.ticket.model.PerformerResponse;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
+import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.PerformerRepository;
+import dev.mgmeral.ticket.repository.SeanceRepository;
+import dev.mgmeral.ticket.service.CatalogService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Change feed over the {@code updated_at} columns of events, performers and seances plus
+ * {@code catalog_tombstones} for deletes.
+ * <p>
+ * Changes are ordered by (time, source, id) across the four sources and the cursor is the position of the
+ * last one returned, plus a watermark: the time after which the client needs every tombstone. That is when
+ * its full sync started, moved up to the cursor position as the client catches up. Only changes at least {@code settle-ms} old are returned: {@code updated_at} is written
+ * by the application before commit, so a change committing late can carry an earlier time than one already
+ * returned; waiting {@code settle-ms} (longer than any catalog write transaction, plus clock skew) keeps
+ * the cursor from passing it. An entity updated several times between two pulls is returned once, in its
+ * latest state.
+ */
+@Service
+@Transactional(readOnly = true)
+@Slf4j
+public class CatalogServiceImpl implements CatalogService {
+
+    private static final int EVENTS = 0;
+    private static final int PERFORMERS = 1;
+    private static final int SEANCES = 2;
+    private static final int TOMBSTONES = 3;
+
+    private static final Position START = new Position(Instant.EPOCH, EVENTS, 0);
+
+    private final EventRepository eventRepository;
+    private final PerformerRepository performerRepository;
+    private final SeanceRepository seanceRepository;
+    private final CatalogTombstoneRepository tombstoneRepository;
+    private final EventMapper eventMapper;
+    private final SeanceMapper seanceMapper;
+    private final Duration settle;
+    private final Duration retention;
+
+    public CatalogServiceImpl(EventRepository eventRepository,
+                              PerformerRepository performerRepository,
+                              SeanceRepository seanceRepository,
+                              CatalogTombstoneRepository tombstoneRepository,
+                              EventMapper eventMapper,
+                              SeanceMapper seanceMapper,
+                              @Value("${catalog.changes.settle-ms:5000}") long settleMs,
+                              @Value("${catalog.changes.tombstone-retention-days:30}") int retentionDays) {
+        this.eventRepository = eventRepository;
+        this.performerRepository = performerRepository;
+        this.seanceRepository = seanceRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.eventMapper = eventMapper;
+        this.seanceMapper = seanceMapper;
+        this.settle = Duration.ofMillis(settleMs);
+        this.retention = Duration.ofDays(retentionDays);
+    }
+
+    /**
+     * Each source is read once with {@code limit + 1} rows after the cursor, so a pull costs four indexed
+     * range scans whatever the size of the catalog. Without {@code since} the feed starts from the
+     * beginning, which is a full sync.
+     */
+    @Override
+    public CatalogChanges changes(String since, int limit) {
+        Cursors.checkSize(limit);
+        Cursor after = decode(since);
+        Instant now = Instant.now();
+        // tombstones past the retention are purged, so deletes after an older watermark may be gone
+        Instant watermark = after == null ? now : after.watermark();
+        if (watermark.isBefore(now.minus(retention))) {
+            throw new IllegalArgumentException("Cursor expired; sync again without since");
+        }
+        Position from = after == null ? START : after.position();
+        Instant until = now.minus(settle);
+
+        log.debug("catalog.changes params after={} until={} limit={}", after, until, limit);
+
+        Limit rows = Limit.of(limit + 1);
+        List<Change> changes = new ArrayList<>();
+        eventRepository.findChangedAfter(from.at(), from.afterId(EVENTS), until, rows).forEach(e ->
+                changes.add(new Change(EVENTS, e.getId(), new CatalogChange(CatalogEntityType.EVENT, e.getId(),
+                        false, e.getUpdatedAt(), eventMapper.toGetResponse(e)))));
+        performerRepository.findChangedAfter(from.at(), from.afterId(PERFORMERS), until, rows).forEach(p ->
+                changes.add(new Change(PERFORMERS, p.getId(), new CatalogChange(CatalogEntityType.PERFORMER,
+                        p.getId(), false, p.getUpdatedAt(),
+                        new PerformerResponse(p.getId(), p.getName(), p.getRole(), p.getDescription())))));
+        seanceRepository.findChangedAfter(from.at(), from.afterId(SEANCES), until, rows).forEach(s ->
+                changes.add(new Change(SEANCES, s.getId(), new CatalogChange(CatalogEntityType.SEANCE, s.getId(),
+                        false, s.getUpdatedAt(), seanceMapper.toGetResponse(s)))));
+        tombstoneRepository.findAfter(from.at(), from.afterId(TOMBSTONES), until, limit + 1).forEach(t ->
+                changes.add(new Change(TOMBSTONES, t.id(), new CatalogChange(t.type(), t.entityId(),
+                        true, t.deletedAt(), null))));
+
+        changes.sort(Change.ORDER);
+        boolean hasMore = changes.size() > limit;
+        List<Change> page = hasMore ? changes.subList(0, limit) : changes;
+        String next;
+        if (!page.isEmpty()) {
+            next = encode(page.get(page.size() - 1).position(), watermark);
+        } else if (from.at().isBefore(until)) {
+            // nothing up to the settled time: move past it, so the cursor of an idle client does not expire
+            next = encode(new Position(until, TOMBSTONES, Long.MAX_VALUE), watermark);
+        } else {
+            next = since;
+        }
+
+        log.debug("catalog.changes.result count={} hasMore={}", page.size(), hasMore);
+
+        return new CatalogChanges(page.stream().map(Change::change).toList(), hasMore, next);
+    }
+
+    /**
+     * The watermark is moved up to the position: every change up to it has been read, deletes included.
+     */
+    static String encode(Position position, Instant watermark) {
+        Instant floor = watermark.isAfter(position.at()) ? watermark : position.at();
+        String raw = position.at() + "," + position.source() + "," + position.id() + "," + floor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return {@code null} for a full sync
+     */
+    static Cursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8)
+                    .split(",");
+            if (parts.length != 4) {
+                throw new IllegalArgumentException();
+            }
+            int source = Integer.parseInt(parts[1]);
+            if (source < EVENTS || source > TOMBSTONES) {
+                throw new IllegalArgumentException();
+            }
+            return new Cursor(new Position(Instant.parse(parts[0]), source, Long.parseLong(parts[2])),
+                    Instant.parse(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    record Position(Instant at, int source, long id) {
+
+        /**
+         * Id to seek after in {@code other} at time {@code at}: sources ordered before this one have
+         * been read past {@code at}, those ordered after it not yet.
+         */
+        long afterId(int other) {
+            if (other < source) {
+                return Long.MAX_VALUE;
+            }
+            return other == source ? id : 0;
+        }
+    }
+
+    record Cursor(Position position, Instant watermark) {
+    }
+
+    private record Change(int source, long id, CatalogChange change) {
+        private static final Comparator<Change> ORDER = Comparator.comparing((Change c) -> c.change().changedAt())
+                .thenComparingInt(Change::source)
+                .thenComparingLong(Change::id);
+
+        private Position position() {
+            return new Position(change.changedAt(), source, id);
+        }
+    }
+}
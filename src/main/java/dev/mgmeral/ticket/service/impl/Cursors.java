@@ -0,0 +1,63 @@
+package dev.mgmeral.ticket.service.impl;
+
+import dev.mgmeral.ticket.model.CursorSlice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque keyset cursors: base64url of the last returned row's sort key and id.
+ */
+final class Cursors {
+
+    static final int MAX_SIZE = 500;
+
+    private Cursors() {
+    }
+
+    record Position(Instant sortKey, long id) {
+    }
+
+    static void checkSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SIZE);
+        }
+    }
+
+    static String encode(Instant sortKey, Long id) {
+        String raw = sortKey == null ? String.valueOf(id) : sortKey + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return {@code null} for the first page
+     */
+    static Position decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            int comma = raw.indexOf(',');
+            if (comma < 0) {
+                return new Position(null, Long.parseLong(raw));
+            }
+            return new Position(Instant.parse(raw.substring(0, comma)), Long.parseLong(raw.substring(comma + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * @param rows up to {@code size + 1} rows; the extra one only tells that there is a next page
+     */
+    static <E, R> CursorSlice<R> slice(List<E> rows, int size, Function<E, String> cursorOf, Function<E, R> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorSlice<>(content.stream().map(mapper).toList(), size, hasNext, next);
+    }
+}
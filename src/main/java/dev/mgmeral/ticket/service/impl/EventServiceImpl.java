@@ -1,24 +1,49 @@
 package dev.mgmeral.ticket.service.impl;
 
 import dev.mgmeral.ticket.entity.Event;
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import dev.mgmeral.ticket.enums.CountMode;
 import dev.mgmeral.ticket.enums.EventType;
 import dev.mgmeral.ticket.mapper.EventMapper;
 import dev.mgmeral.ticket.model.*;
+import dev.mgmeral.ticket.paging.PageCounts;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
 import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.EventSummaryRow;
 import dev.mgmeral.ticket.repository.PerformerRepository;
 import dev.mgmeral.ticket.repository.spec.EventSpecifications;
+import dev.mgmeral.ticket.search.AutocompleteIndex;
+import dev.mgmeral.ticket.search.EventSearchIndex;
 import dev.mgmeral.ticket.service.EventService;
+import dev.mgmeral.ticket.service.SeanceService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Transactional
 @Service
@@ -27,11 +52,24 @@ public class EventServiceImpl implements EventService {
     private final EventRepository eventRepository;
     private final EventMapper eventMapper;
     private final PerformerRepository performerRepository;
-
-    public EventServiceImpl(EventRepository eventRepository, EventMapper eventMapper, PerformerRepository performerRepository) {
+    private final EventSearchIndex searchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final PageCounts pageCounts;
+    private final SeanceService seanceService;
+    private final CatalogTombstoneRepository tombstoneRepository;
+
+    public EventServiceImpl(EventRepository eventRepository, EventMapper eventMapper,
+                            PerformerRepository performerRepository, EventSearchIndex searchIndex,
+                            AutocompleteIndex autocompleteIndex, PageCounts pageCounts,
+                            SeanceService seanceService, CatalogTombstoneRepository tombstoneRepository) {
         this.eventRepository = eventRepository;
         this.eventMapper = eventMapper;
         this.performerRepository = performerRepository;
+        this.searchIndex = searchIndex;
+        this.autocompleteIndex = autocompleteIndex;
+        this.pageCounts = pageCounts;
+        this.seanceService = seanceService;
+        this.tombstoneRepository = tombstoneRepository;
     }
 
     private static String safe(Object o) {
@@ -50,6 +88,8 @@ public class EventServiceImpl implements EventService {
 
         applyPerformers(event, request.performerIds());
         event = eventRepository.save(event);
+        searchIndex.indexAfterCommit(event);
+        autocompleteIndex.putAfterCommit(AutocompleteIndex.EVENT, event.getId(), event.getName());
 
         log.info("event.create.ok eventId={} name={} type={} startDate={} performersCount={}",
                 event.getId(),
@@ -62,6 +102,7 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public EventGetResponse getById(Long id) {
         log.debug("event.getById.start eventId={}", id);
 
@@ -72,6 +113,88 @@ public class EventServiceImpl implements EventService {
         return eventMapper.toGetResponse(event);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultiGetItem<EventGetResponse>> getByIds(Collection<Long> ids) {
+        List<Long> distinct = MultiGet.checkIds(ids);
+        log.debug("event.getByIds.start count={}", distinct.size());
+
+        List<Event> events = eventRepository.findAllById(distinct);
+
+        log.debug("event.getByIds.ok requested={} found={}", distinct.size(), events.size());
+        return MultiGet.inRequestOrder(distinct, events, Event::getId, eventMapper::toGetResponse);
+    }
+
+    /**
+     * The event, its performers and its seances with their counters in a fixed number of queries. The three
+     * reads do not depend on each other and run on their own virtual threads, each in its own short read.
+     * They are awaited in completion order: whichever fails first (e.g. the event lookup with a 404) is
+     * rethrown right away and the other reads are interrupted, without waiting for them. No transaction is
+     * held while waiting.
+     * <p>
+     * Each read borrows its own pooled connection, so one request holds up to three of the
+     * {@code db.bulkhead.permits} (10 by default) at once, three times what a single-query endpoint takes.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public EventDetailResponse detail(Long id) {
+        log.debug("event.detail.start eventId={}", id);
+
+        ExecutorService scope = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            CompletableFuture<EventGetResponse> event = CompletableFuture.supplyAsync(() ->
+                    eventRepository.findById(id)
+                            .map(eventMapper::toGetResponse)
+                            .orElseThrow(() -> new EntityNotFoundException("Event not found: " + id)), scope);
+            CompletableFuture<List<PerformerResponse>> performers = CompletableFuture.supplyAsync(() ->
+                    performerRepository.findResponsesByEventId(id), scope);
+            CompletableFuture<List<SeanceGetResponse>> seances = CompletableFuture.supplyAsync(() ->
+                    seanceService.listByEvent(id), scope);
+
+            awaitAll(scope, event, performers, seances);
+            EventDetailResponse response = new EventDetailResponse(event.join(), performers.join(), seances.join());
+
+            log.debug("event.detail.ok eventId={} performers={} seances={}",
+                    id, response.performers().size(), response.seances().size());
+            return response;
+        } finally {
+            // does not wait: reads still running after a failure end on their own and give back their connection
+            scope.shutdown();
+        }
+    }
+
+    /**
+     * Returns once every task has completed, or throws the first failure as soon as it happens, after
+     * interrupting the tasks still running.
+     */
+    private static void awaitAll(ExecutorService scope, CompletableFuture<?>... tasks) {
+        CompletableFuture<Void> firstFailure = new CompletableFuture<>();
+        for (CompletableFuture<?> task : tasks) {
+            task.whenComplete((result, error) -> {
+                if (error != null) {
+                    firstFailure.completeExceptionally(error);
+                }
+            });
+        }
+        try {
+            CompletableFuture.anyOf(CompletableFuture.allOf(tasks), firstFailure).get();
+        } catch (ExecutionException e) {
+            scope.shutdownNow();
+            Throwable cause = e.getCause();
+            while (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            scope.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading event detail", e);
+        }
+    }
+
     @Override
     public EventUpdateResponse update(Long id, EventUpdateRequest request) {
         log.info("event.update.start eventId={} name={} type={} startDate={} performerIdsProvided={}",
@@ -90,6 +213,8 @@ public class EventServiceImpl implements EventService {
         }
 
         Event saved = eventRepository.save(event);
+        searchIndex.indexAfterCommit(saved);
+        autocompleteIndex.putAfterCommit(AutocompleteIndex.EVENT, saved.getId(), saved.getName());
 
         log.info("event.update.ok eventId={} name={} type={} startDate={} performersCount={}",
                 saved.getId(),
@@ -111,10 +236,17 @@ public class EventServiceImpl implements EventService {
         }
 
         eventRepository.deleteById(id);
+        tombstoneRepository.insert(CatalogEntityType.EVENT, id, Instant.now());
+        searchIndex.removeAfterCommit(id);
+        autocompleteIndex.removeAfterCommit(AutocompleteIndex.EVENT, id);
         log.info("event.delete.ok eventId={}", id);
     }
 
+    /**
+     * Selects only the columns of {@link EventSummaryRow}, not whole entities.
+     */
     @Override
+    @Transactional(readOnly = true)
     public Page<EventSearchResponse> search(String type, String name, Instant startFrom, Instant startTo, Pageable pageable) {
         log.debug("event.search params type={} name={} startFrom={} startTo={} page={} size={} sort={}",
                 safe(type), safe(name), startFrom, startTo,
@@ -122,14 +254,113 @@ public class EventServiceImpl implements EventService {
                 pageable == null ? null : pageable.getPageSize(),
                 pageable == null ? null : pageable.getSort());
 
+        EventType eventType = parseType(type);
+
+        Page<EventSearchResponse> page;
+        if (name != null && !name.isBlank() && searchIndex.isReady()) {
+            page = searchByIndex(searchIndex.search(name.trim(), eventType, startFrom, startTo), pageable);
+        } else {
+            Specification<Event> spec = filters(eventType, name, startFrom, startTo);
+
+            page = eventRepository.findPage(Event.class, spec, pageable,
+                            EventSummaryRow.class, EventSummaryRow.ATTRIBUTES)
+                    .map(eventMapper::toSearchResponse);
+        }
+
+        log.debug("event.search.result totalElements={} totalPages={} pageNumber={}",
+                page.getTotalElements(), page.getTotalPages(), page.getNumber());
+
+        return page;
+    }
+
+    /**
+     * {@link CountMode#NONE} reads one extra row instead of counting; {@link CountMode#CACHED} takes the total
+     * of the same filters from {@link PageCounts}. Name queries answered by {@link EventSearchIndex} already
+     * know their total and behave as {@link CountMode#EXACT}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<EventSearchResponse> search(String type, String name, Instant startFrom, Instant startTo,
+                                             CountMode countMode, Pageable pageable) {
+        if (countMode == CountMode.EXACT || (name != null && !name.isBlank() && searchIndex.isReady())) {
+            return search(type, name, startFrom, startTo, pageable);
+        }
+
+        log.debug("event.search params type={} name={} startFrom={} startTo={} count={} page={} size={} sort={}",
+                safe(type), safe(name), startFrom, startTo, countMode,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+
+        EventType eventType = parseType(type);
+        Specification<Event> spec = filters(eventType, name, startFrom, startTo);
+
+        Slice<EventSummaryRow> slice = eventRepository.findSlice(Event.class, spec, pageable,
+                EventSummaryRow.class, EventSummaryRow.ATTRIBUTES);
+        if (countMode == CountMode.CACHED) {
+            String shape = "events|" + eventType + "|" + (name == null ? "" : name.trim().toLowerCase())
+                    + "|" + startFrom + "|" + startTo;
+            slice = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                    () -> pageCounts.count(shape, () -> eventRepository.count(spec)));
+        }
+        return slice.map(eventMapper::toSearchResponse);
+    }
+
+    /**
+     * Keyset scroll in id order ({@code start_date} is nullable, so it cannot be the seek key): no COUNT,
+     * and every page costs the same however deep it is. With a name and a ready {@link EventSearchIndex}
+     * the matches come from the index and only the page's rows are loaded.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<EventSearchResponse> scroll(String type, String name, Instant startFrom, Instant startTo,
+                                                   String cursor, int size) {
+        Cursors.checkSize(size);
+        Cursors.Position after = Cursors.decode(cursor);
+        long afterId = after == null ? 0 : after.id();
+
+        log.debug("event.scroll params type={} name={} startFrom={} startTo={} afterId={} size={}",
+                safe(type), safe(name), startFrom, startTo, afterId, size);
+
+        EventType eventType = parseType(type);
+
+        if (name != null && !name.isBlank() && searchIndex.isReady()) {
+            // the index already tells whether there is a next page, so only the page's rows are loaded
+            List<Long> pageIds = searchIndex.searchAfter(name.trim(), eventType, startFrom, startTo, afterId, size + 1);
+            boolean hasNext = pageIds.size() > size;
+            List<Long> ids = hasNext ? pageIds.subList(0, size) : pageIds;
+            List<EventSearchResponse> content = ids.isEmpty() ? List.of() : eventRepository.findSummariesByIdIn(ids)
+                    .stream()
+                    .sorted(Comparator.comparing(EventSummaryRow::id))
+                    .map(eventMapper::toSearchResponse)
+                    .toList();
+            // seek past the page's last match even if its row was deleted since the index saw it
+            String next = hasNext ? Cursors.encode(null, ids.get(ids.size() - 1)) : null;
+            return new CursorSlice<>(content, size, hasNext, next);
+        }
+
+        Specification<Event> spec = filters(eventType, name, startFrom, startTo)
+                .and(EventSpecifications.idGreaterThan(afterId));
+        List<EventSummaryRow> rows = eventRepository.findFirst(Event.class, spec, Sort.by("id"), size + 1,
+                EventSummaryRow.class, EventSummaryRow.ATTRIBUTES);
+
+        return Cursors.slice(rows, size, row -> Cursors.encode(null, row.id()), eventMapper::toSearchResponse);
+    }
+
+    private static EventType parseType(String type) {
+        if (type == null || type.isBlank()) {
+            return null;
+        }
+        return EventType.valueOf(type.trim().toUpperCase());
+    }
+
+    private static Specification<Event> filters(EventType eventType, String name, Instant startFrom,
+                                                Instant startTo) {
         Specification<Event> spec = Specification.where(null);
 
-        if (type != null && !type.isBlank()) {
-            EventType eventType = EventType.valueOf(type.trim().toUpperCase());
+        if (eventType != null) {
             spec = spec.and(EventSpecifications.typeEquals(eventType));
         }
         if (name != null && !name.isBlank()) {
-            spec = spec.and(EventSpecifications.nameContains(name.trim()));
+            spec = spec.and(EventSpecifications.textContains(name.trim()));
         }
         if (startFrom != null) {
             spec = spec.and(EventSpecifications.startDateGte(startFrom));
@@ -137,14 +368,37 @@ public class EventServiceImpl implements EventService {
         if (startTo != null) {
             spec = spec.and(EventSpecifications.startDateLte(startTo));
         }
+        return spec;
+    }
 
-        Page<EventSearchResponse> page = eventRepository.findAll(spec, pageable)
-                .map(eventMapper::toSearchResponse);
-
-        log.debug("event.search.result totalElements={} totalPages={} pageNumber={}",
-                page.getTotalElements(), page.getTotalPages(), page.getNumber());
+    /**
+     * Pages through ids resolved by {@link EventSearchIndex}. Unsorted requests keep the index's relevance
+     * order and load only the page's rows by primary key; an explicit sort is left to the DB, restricted to
+     * the matched ids.
+     */
+    private Page<EventSearchResponse> searchByIndex(List<Long> ids, Pageable pageable) {
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        if (pageable.getSort().isSorted()) {
+            return eventRepository.findPage(Event.class, EventSpecifications.idIn(ids), pageable,
+                            EventSummaryRow.class, EventSummaryRow.ATTRIBUTES)
+                    .map(eventMapper::toSearchResponse);
+        }
 
-        return page;
+        List<Long> pageIds = ids;
+        if (pageable.isPaged()) {
+            int from = (int) Math.min(pageable.getOffset(), ids.size());
+            pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        }
+        Map<Long, EventSummaryRow> events = eventRepository.findSummariesByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(EventSummaryRow::id, Function.identity()));
+        List<EventSearchResponse> content = pageIds.stream()
+                .map(events::get)
+                .filter(Objects::nonNull)
+                .map(eventMapper::toSearchResponse)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.size());
     }
 
     @Override
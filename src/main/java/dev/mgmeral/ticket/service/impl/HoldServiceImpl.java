@@ -1,126 +1,157 @@
 package dev.mgmeral.ticket.service.impl;
 
 import dev.mgmeral.ticket.entity.Hold;
-import dev.mgmeral.ticket.entity.Seance;
 import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter;
+import dev.mgmeral.ticket.idempotency.IdempotencyResponseStore;
+import dev.mgmeral.ticket.inventory.HoldAdmissionQueue;
+import dev.mgmeral.ticket.inventory.HoldBatchWriter;
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceInventory;
 import dev.mgmeral.ticket.model.HoldCreateRequest;
 import dev.mgmeral.ticket.model.HoldResponse;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.repository.HoldRepository;
-import dev.mgmeral.ticket.repository.PurchaseRepository;
-import dev.mgmeral.ticket.repository.SeanceRepository;
 import dev.mgmeral.ticket.service.HoldService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.Duration;
 import java.time.Instant;
-
-import static dev.mgmeral.ticket.enums.PurchaseStatus.SOLD;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Service
 @Transactional
 @Slf4j
 public class HoldServiceImpl implements HoldService {
 
-    private static final Duration HOLD_TTL = Duration.ofMinutes(5);
     private static final BigDecimal UNIT_PRICE = BigDecimal.valueOf(100);
 
     private final HoldRepository holdRepository;
-    private final SeanceRepository seanceRepository;
-    private final PurchaseRepository purchaseRepository;
-
-    public HoldServiceImpl(HoldRepository holdRepository, SeanceRepository seanceRepository, PurchaseRepository purchaseRepository) {
+    private final SeanceInventory seanceInventory;
+    private final SeanceCapacityLedger capacityLedger;
+    private final HoldBatchWriter holdBatchWriter;
+    private final HoldAdmissionQueue admissionQueue;
+    private final IdempotencyKeyFilter idempotencyKeys;
+    private final IdempotencyResponseStore responseStore;
+
+    public HoldServiceImpl(HoldRepository holdRepository,
+                           SeanceInventory seanceInventory,
+                           SeanceCapacityLedger capacityLedger,
+                           HoldBatchWriter holdBatchWriter,
+                           HoldAdmissionQueue admissionQueue,
+                           IdempotencyKeyFilter idempotencyKeys,
+                           IdempotencyResponseStore responseStore) {
         this.holdRepository = holdRepository;
-        this.seanceRepository = seanceRepository;
-        this.purchaseRepository = purchaseRepository;
+        this.seanceInventory = seanceInventory;
+        this.capacityLedger = capacityLedger;
+        this.holdBatchWriter = holdBatchWriter;
+        this.admissionQueue = admissionQueue;
+        this.idempotencyKeys = idempotencyKeys;
+        this.responseStore = responseStore;
     }
 
+    /**
+     * Runs without a transaction of its own: the reservation and insert happen in {@link HoldBatchWriter},
+     * either on this thread or batched by {@link HoldAdmissionQueue}, so a caller waiting on the queue does
+     * not pin a connection.
+     */
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public HoldResponse create(HoldCreateRequest request) {
         Instant now = Instant.now();
 
         log.info("hold.create.start seanceId={} userId={} qty={} idemKey={}",
                 request.seanceId(), request.userId(), request.quantity(), request.idempotencyKey());
 
-        var existing = holdRepository.findByIdempotencyKey(request.idempotencyKey());
+        boolean lookedUp = idempotencyKeys.mightExist(IdempotencyKeyFilter.Scope.HOLD, request.idempotencyKey());
+        if (lookedUp) {
+            var stored = responseStore.find(IdempotencyKeyFilter.Scope.HOLD, request.idempotencyKey(), HoldResponse.class)
+                    .filter(r -> r.status() != HoldStatus.HELD || r.expiresAt() == null || r.expiresAt().isAfter(now));
+            if (stored.isPresent()) {
+                log.info("hold.create.idempotentReplay holdId={} seanceId={} idemKey={}",
+                        stored.get().id(), stored.get().seanceId(), request.idempotencyKey());
+                return stored.get();
+            }
+        }
+        var existing = lookedUp ? holdRepository.findByIdempotencyKey(request.idempotencyKey()) : Optional.<Hold>empty();
         if (existing.isPresent()) {
             Hold h = existing.get();
-            boolean expiredNow = expireIfNeeded(h, now);
-            if (expiredNow) {
-                holdRepository.save(h);
+            if (isExpired(h, now)) {
                 log.info("hold.create.idempotentExpired holdId={} seanceId={} userId={} expiresAt={} now={}",
                         h.getId(), h.getSeanceId(), h.getUserId(), h.getExpiresAt(), now);
             } else {
                 log.info("hold.create.idempotentHit holdId={} seanceId={} userId={} status={} expiresAt={}",
                         h.getId(), h.getSeanceId(), h.getUserId(), h.getStatus(), h.getExpiresAt());
             }
-            return toResponse(h);
+            return toResponse(h, now);
         }
 
-
-        Seance seance = seanceRepository.findWithLockById(request.seanceId())
-                .orElseThrow(() -> new EntityNotFoundException("Seance not found: " + request.seanceId()));
-
-        long activeHeld = holdRepository.sumActiveQuantity(seance.getId(), HoldStatus.HELD, now);
-        long soldCount = purchaseRepository.sumQuantityBySeanceAndStatus(seance.getId(), SOLD);
-
-        long available = (long) seance.getCapacity() - soldCount - activeHeld;
-
-        log.debug("hold.create.availability seanceId={} capacity={} sold={} activeHeld={} available={}",
-                seance.getId(), seance.getCapacity(), soldCount, activeHeld, available);
-
-        if (request.quantity() > available) {
-            log.warn("hold.create.insufficientCapacity seanceId={} requested={} available={} userId={}",
-                    seance.getId(), request.quantity(), available, request.userId());
-            throw new IllegalArgumentException("Insufficient capacity. available=" + available);
-        }
-
-        Hold hold = Hold.builder()
-                .userId(request.userId())
-                .seanceId(seance.getId())
-                .quantity(request.quantity())
-                .status(HoldStatus.HELD)
-                .idempotencyKey(request.idempotencyKey())
-                .expiresAt(now.plus(HOLD_TTL))
-                .build();
-
+        HoldBatchWriter.Outcome outcome;
         try {
-            Hold saved = holdRepository.save(hold);
-
-            log.info("hold.created holdId={} seanceId={} userId={} qty={} expiresAt={}",
-                    saved.getId(), saved.getSeanceId(), saved.getUserId(), saved.getQuantity(), saved.getExpiresAt());
-
-            return toResponse(saved);
+            outcome = admissionQueue.isEnabled()
+                    ? admissionQueue.submit(request)
+                    : holdBatchWriter.write(request.seanceId(), List.of(request)).get(0);
 
         } catch (DataIntegrityViolationException dupKey) {
             Hold same = holdRepository.findByIdempotencyKey(request.idempotencyKey())
                     .orElseThrow(() -> dupKey);
 
-            boolean expiredNow = expireIfNeeded(same, now);
-            if (expiredNow) {
-                holdRepository.save(same);
-            }
-
             log.info("hold.create.dupRecovered holdId={} seanceId={} userId={} status={} expiresAt={}",
                     same.getId(), same.getSeanceId(), same.getUserId(), same.getStatus(), same.getExpiresAt());
+            idempotencyKeys.add(IdempotencyKeyFilter.Scope.HOLD, request.idempotencyKey());
 
-            return toResponse(same);
+            return toResponse(same, now);
         }
+
+        if (!outcome.admitted()) {
+            if (!lookedUp) {
+                // the filter may not know keys written by other nodes yet
+                var late = holdRepository.findByIdempotencyKey(request.idempotencyKey());
+                if (late.isPresent()) {
+                    Hold h = late.get();
+                    log.info("hold.create.idempotentHitLate holdId={} seanceId={} userId={} status={} expiresAt={}",
+                            h.getId(), h.getSeanceId(), h.getUserId(), h.getStatus(), h.getExpiresAt());
+                    idempotencyKeys.add(IdempotencyKeyFilter.Scope.HOLD, request.idempotencyKey());
+                    return toResponse(h, now);
+                }
+            }
+            log.warn("hold.create.insufficientCapacity seanceId={} requested={} available={} userId={}",
+                    request.seanceId(), request.quantity(), outcome.available(), request.userId());
+            throw new IllegalArgumentException("Insufficient capacity. available=" + outcome.available());
+        }
+
+        Hold saved = outcome.hold();
+        idempotencyKeys.add(IdempotencyKeyFilter.Scope.HOLD, request.idempotencyKey());
+        if (outcome.replayed()) {
+            log.info("hold.create.idempotentReplayed holdId={} seanceId={} userId={} status={} expiresAt={}",
+                    saved.getId(), saved.getSeanceId(), saved.getUserId(), saved.getStatus(), saved.getExpiresAt());
+            return toResponse(saved, now);
+        }
+        log.info("hold.created holdId={} seanceId={} userId={} qty={} expiresAt={} shardNo={}",
+                saved.getId(), saved.getSeanceId(), saved.getUserId(), saved.getQuantity(), saved.getExpiresAt(),
+                saved.getShardNo());
+
+        HoldResponse response = toResponse(saved, now);
+        // replayed only while the hold can still be HELD; release and purchase evict it earlier
+        responseStore.save(IdempotencyKeyFilter.Scope.HOLD, request.idempotencyKey(), response, saved.getExpiresAt());
+        return response;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public HoldResponse getById(Long holdId) {
         Instant now = Instant.now();
         Hold hold = holdRepository.findById(holdId)
                 .orElseThrow(() -> new EntityNotFoundException("Hold not found: " + holdId));
 
-        boolean expiredNow = expireIfNeeded(hold, now);
-        if (expiredNow) {
-            holdRepository.save(hold);
+        if (isExpired(hold, now)) {
             log.info("hold.get.expiredLazy holdId={} seanceId={} userId={} now={}",
                     hold.getId(), hold.getSeanceId(), hold.getUserId(), now);
         } else {
@@ -128,7 +159,23 @@ public class HoldServiceImpl implements HoldService {
                     hold.getId(), hold.getSeanceId(), hold.getUserId(), hold.getStatus(), hold.getExpiresAt());
         }
 
-        return toResponse(hold);
+        return toResponse(hold, now);
+    }
+
+    /**
+     * Like {@link #getById}, holds past their expiry are reported as {@code EXPIRED} without being written.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultiGetItem<HoldResponse>> getByIds(Collection<Long> holdIds) {
+        List<Long> distinct = MultiGet.checkIds(holdIds);
+        Instant now = Instant.now();
+        log.debug("hold.getByIds.start count={}", distinct.size());
+
+        List<Hold> holds = holdRepository.findAllById(distinct);
+
+        log.debug("hold.getByIds.ok requested={} found={}", distinct.size(), holds.size());
+        return MultiGet.inRequestOrder(distinct, holds, Hold::getId, h -> toResponse(h, now));
     }
 
     @Override
@@ -140,6 +187,9 @@ public class HoldServiceImpl implements HoldService {
         boolean expiredNow = expireIfNeeded(hold, now);
         if (expiredNow) {
             holdRepository.save(hold);
+            seanceInventory.release(hold.getSeanceId(), hold.getShardNo(), hold.getQuantity());
+            capacityLedger.releaseAfterCommit(hold.getSeanceId(), hold.getQuantity());
+            responseStore.evict(IdempotencyKeyFilter.Scope.HOLD, hold.getIdempotencyKey());
             log.info("hold.release.expiredLazy holdId={} seanceId={} userId={} now={}",
                     hold.getId(), hold.getSeanceId(), hold.getUserId(), now);
             return;
@@ -154,6 +204,9 @@ public class HoldServiceImpl implements HoldService {
         hold.setStatus(HoldStatus.RELEASED);
         hold.setReleasedAt(now);
         holdRepository.save(hold);
+        seanceInventory.release(hold.getSeanceId(), hold.getShardNo(), hold.getQuantity());
+        capacityLedger.releaseAfterCommit(hold.getSeanceId(), hold.getQuantity());
+        responseStore.evict(IdempotencyKeyFilter.Scope.HOLD, hold.getIdempotencyKey());
 
         log.info("hold.released holdId={} seanceId={} userId={} at={}",
                 holdId, hold.getSeanceId(), hold.getUserId(), now);
@@ -161,10 +214,7 @@ public class HoldServiceImpl implements HoldService {
 
     @Override
     public boolean expireIfNeeded(Hold hold, Instant now) {
-        if (hold.getStatus() == HoldStatus.HELD
-                && hold.getExpiresAt() != null
-                && !hold.getExpiresAt().isAfter(now)) {
-
+        if (isExpired(hold, now)) {
             hold.setStatus(HoldStatus.EXPIRED);
 
             if (hold.getReleasedAt() == null) {
@@ -175,14 +225,24 @@ public class HoldServiceImpl implements HoldService {
         return false;
     }
 
-    private HoldResponse toResponse(Hold h) {
+    private static boolean isExpired(Hold hold, Instant now) {
+        return hold.getStatus() == HoldStatus.HELD
+                && hold.getExpiresAt() != null
+                && !hold.getExpiresAt().isAfter(now);
+    }
+
+    /**
+     * Unlocked read paths only report an elapsed hold as EXPIRED; the status change itself (and the
+     * capacity it gives back) is left to the locked paths and {@code HoldExpiryJob}.
+     */
+    private HoldResponse toResponse(Hold h, Instant now) {
         BigDecimal total = UNIT_PRICE.multiply(BigDecimal.valueOf(h.getQuantity()));
         return new HoldResponse(
                 h.getId(),
                 h.getUserId(),
                 h.getSeanceId(),
                 h.getQuantity(),
-                h.getStatus(),
+                isExpired(h, now) ? HoldStatus.EXPIRED : h.getStatus(),
                 h.getExpiresAt(),
                 total
         );
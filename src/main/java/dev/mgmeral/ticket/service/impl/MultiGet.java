@@ -0,0 +1,47 @@
+package dev.mgmeral.ticket.service.impl;
+
+import dev.mgmeral.ticket.model.MultiGetItem;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Batch reads by id: the ids are loaded with one {@code IN} query and answered in request order.
+ */
+final class MultiGet {
+
+    static final int MAX_IDS = 200;
+
+    private MultiGet() {
+    }
+
+    /**
+     * @return the distinct ids in request order
+     */
+    static List<Long> checkIds(Collection<Long> ids) {
+        List<Long> distinct = ids == null ? List.of() : ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty() || distinct.size() > MAX_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_IDS + " ids are required");
+        }
+        return distinct;
+    }
+
+    /**
+     * @param rows rows of {@code ids} in any order; ids without a row become not-found entries
+     */
+    static <E, R> List<MultiGetItem<R>> inRequestOrder(List<Long> ids, Collection<E> rows, Function<E, Long> idOf,
+                                                       Function<E, R> mapper) {
+        Map<Long, E> byId = new HashMap<>();
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+        return ids.stream()
+                .map(id -> {
+                    E row = byId.get(id);
+                    return MultiGetItem.of(id, row == null ? null : mapper.apply(row));
+                })
+                .toList();
+    }
+}
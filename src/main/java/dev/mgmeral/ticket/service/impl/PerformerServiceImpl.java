@@ -1,26 +1,48 @@
 package dev.mgmeral.ticket.service.impl;
 
 import dev.mgmeral.ticket.entity.Performer;
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.model.CursorSlice;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.PerformerCreateRequest;
 import dev.mgmeral.ticket.model.PerformerResponse;
 import dev.mgmeral.ticket.model.PerformerUpdateRequest;
+import dev.mgmeral.ticket.paging.PageCounts;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
 import dev.mgmeral.ticket.repository.PerformerRepository;
+import dev.mgmeral.ticket.search.AutocompleteIndex;
 import dev.mgmeral.ticket.service.PerformerService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
 @Service
 @Transactional
 @Slf4j
 public class PerformerServiceImpl implements PerformerService {
     private final PerformerRepository performerRepository;
+    private final AutocompleteIndex autocompleteIndex;
+    private final PageCounts pageCounts;
+    private final CatalogTombstoneRepository tombstoneRepository;
 
-    public PerformerServiceImpl(PerformerRepository performerRepository) {
+    public PerformerServiceImpl(PerformerRepository performerRepository, AutocompleteIndex autocompleteIndex,
+                                PageCounts pageCounts, CatalogTombstoneRepository tombstoneRepository) {
         this.performerRepository = performerRepository;
+        this.autocompleteIndex = autocompleteIndex;
+        this.pageCounts = pageCounts;
+        this.tombstoneRepository = tombstoneRepository;
     }
 
     private static String safe(Object o) {
@@ -44,6 +66,7 @@ public class PerformerServiceImpl implements PerformerService {
         performer.setDescription(request.description());
 
         Performer saved = performerRepository.save(performer);
+        autocompleteIndex.putAfterCommit(AutocompleteIndex.PERFORMER, saved.getId(), saved.getName());
 
         log.info("performer.create.ok performerId={} name={} role={}",
                 saved.getId(), safe(saved.getName()), safe(saved.getRole()));
@@ -63,6 +86,18 @@ public class PerformerServiceImpl implements PerformerService {
         return toResponse(performer);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<MultiGetItem<PerformerResponse>> getByIds(Collection<Long> ids) {
+        List<Long> distinct = MultiGet.checkIds(ids);
+        log.debug("performer.getByIds.start count={}", distinct.size());
+
+        List<PerformerResponse> performers = performerRepository.findResponsesByIdIn(distinct);
+
+        log.debug("performer.getByIds.ok requested={} found={}", distinct.size(), performers.size());
+        return MultiGet.inRequestOrder(distinct, performers, PerformerResponse::id, Function.identity());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Page<PerformerResponse> list(String name, Pageable pageable) {
@@ -74,9 +109,9 @@ public class PerformerServiceImpl implements PerformerService {
 
         Page<PerformerResponse> page;
         if (name == null || name.isBlank()) {
-            page = performerRepository.findAll(pageable).map(this::toResponse);
+            page = performerRepository.findResponsesBy(pageable);
         } else {
-            page = performerRepository.findByNameContainingIgnoreCase(name.trim(), pageable).map(this::toResponse);
+            page = performerRepository.findByNameContainingIgnoreCase(name.trim(), pageable);
         }
 
         log.debug("performer.list.result totalElements={} totalPages={} pageNumber={}",
@@ -85,6 +120,56 @@ public class PerformerServiceImpl implements PerformerService {
         return page;
     }
 
+    /**
+     * {@link CountMode#NONE} reads one extra row instead of counting; {@link CountMode#CACHED} takes the total
+     * of the same name filter from {@link PageCounts}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PerformerResponse> list(String name, CountMode countMode, Pageable pageable) {
+        if (countMode == CountMode.EXACT) {
+            return list(name, pageable);
+        }
+
+        log.debug("performer.list params name={} count={} page={} size={} sort={}",
+                safe(name), countMode, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+
+        boolean byName = name != null && !name.isBlank();
+        String filter = byName ? name.trim() : null;
+
+        Slice<PerformerResponse> slice = byName
+                ? performerRepository.findSliceByNameContainingIgnoreCase(filter, pageable)
+                : performerRepository.findSliceBy(pageable);
+        if (countMode == CountMode.CACHED) {
+            String shape = "performers|" + (byName ? filter.toLowerCase() : "");
+            slice = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                    () -> pageCounts.count(shape, () -> byName
+                            ? performerRepository.countByNameContainingIgnoreCase(filter)
+                            : performerRepository.count()));
+        }
+        return slice;
+    }
+
+    /**
+     * Keyset scroll in id order: no COUNT, and every page costs the same however deep it is.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorSlice<PerformerResponse> scroll(String name, String cursor, int size) {
+        Cursors.checkSize(size);
+        Cursors.Position after = Cursors.decode(cursor);
+        long afterId = after == null ? 0 : after.id();
+
+        log.debug("performer.scroll params name={} afterId={} size={}", safe(name), afterId, size);
+
+        List<PerformerResponse> rows = name == null || name.isBlank()
+                ? performerRepository.findByIdGreaterThanOrderById(afterId, Limit.of(size + 1))
+                : performerRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderById(
+                name.trim(), afterId, Limit.of(size + 1));
+
+        return Cursors.slice(rows, size, p -> Cursors.encode(null, p.id()), Function.identity());
+    }
+
     @Override
     public PerformerResponse update(Long id, PerformerUpdateRequest request) {
         log.info("performer.update.start performerId={} name={} role={}",
@@ -98,6 +183,7 @@ public class PerformerServiceImpl implements PerformerService {
         performer.setDescription(request.description());
 
         Performer saved = performerRepository.save(performer);
+        autocompleteIndex.putAfterCommit(AutocompleteIndex.PERFORMER, saved.getId(), saved.getName());
 
         log.info("performer.update.ok performerId={} name={} role={}",
                 saved.getId(), safe(saved.getName()), safe(saved.getRole()));
@@ -115,6 +201,8 @@ public class PerformerServiceImpl implements PerformerService {
         }
 
         performerRepository.deleteById(id);
+        tombstoneRepository.insert(CatalogEntityType.PERFORMER, id, Instant.now());
+        autocompleteIndex.removeAfterCommit(AutocompleteIndex.PERFORMER, id);
         log.info("performer.delete.ok performerId={}", id);
     }
 
@@ -6,6 +6,11 @@ import dev.mgmeral.ticket.entity.Purchase;
 import dev.mgmeral.ticket.enums.HoldStatus;
 import dev.mgmeral.ticket.enums.PaymentStatus;
 import dev.mgmeral.ticket.enums.PurchaseStatus;
+import dev.mgmeral.ticket.exception.DuplicatePaymentRefException;
+import dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter;
+import dev.mgmeral.ticket.idempotency.IdempotencyResponseStore;
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceInventory;
 import dev.mgmeral.ticket.model.PurchaseCreateRequest;
 import dev.mgmeral.ticket.model.PurchaseCreateResult;
 import dev.mgmeral.ticket.model.PurchaseResponse;
@@ -24,6 +29,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Optional;
 
 @Service
 @Transactional
@@ -38,14 +44,26 @@ public class PurchaseServiceImpl implements PurchaseService {
     private final PurchaseRepository purchaseRepository;
     private final HoldRepository holdRepository;
     private final PaymentRepository paymentRepository;
+    private final SeanceInventory seanceInventory;
+    private final SeanceCapacityLedger capacityLedger;
+    private final IdempotencyKeyFilter idempotencyKeys;
+    private final IdempotencyResponseStore responseStore;
 
     public PurchaseServiceImpl(PurchaseRepository purchaseRepository,
                                HoldRepository holdRepository,
                                PaymentRepository paymentRepository,
+                               SeanceInventory seanceInventory,
+                               SeanceCapacityLedger capacityLedger,
+                               IdempotencyKeyFilter idempotencyKeys,
+                               IdempotencyResponseStore responseStore,
                                MeterRegistry registry) {
         this.purchaseRepository = purchaseRepository;
         this.holdRepository = holdRepository;
         this.paymentRepository = paymentRepository;
+        this.seanceInventory = seanceInventory;
+        this.capacityLedger = capacityLedger;
+        this.idempotencyKeys = idempotencyKeys;
+        this.responseStore = responseStore;
 
         this.purchaseCreated = registry.counter("purchase_created_total");
         this.purchaseExisting = registry.counter("purchase_existing_total");
@@ -63,7 +81,18 @@ public class PurchaseServiceImpl implements PurchaseService {
 
         return purchaseCreateTimer.record(() -> {
             try {
-                var existingByKey = purchaseRepository.findByIdempotencyKey(idemKey);
+                boolean lookedUp = idempotencyKeys.mightExist(IdempotencyKeyFilter.Scope.PURCHASE, idemKey);
+                if (lookedUp) {
+                    // purchases are never updated after insert, so the stored response is still current
+                    var stored = responseStore.find(IdempotencyKeyFilter.Scope.PURCHASE, idemKey, PurchaseResponse.class);
+                    if (stored.isPresent()) {
+                        purchaseExisting.increment();
+                        log.info("order.idempotentReplay orderId={} idemKey={} paymentRef={}",
+                                stored.get().purchaseId(), idemKey, stored.get().paymentRef());
+                        return PurchaseCreateResult.existing(stored.get());
+                    }
+                }
+                var existingByKey = lookedUp ? purchaseRepository.findByIdempotencyKey(idemKey) : Optional.<Purchase>empty();
                 if (existingByKey.isPresent()) {
                     var ex = existingByKey.get();
                     purchaseExisting.increment();
@@ -87,6 +116,16 @@ public class PurchaseServiceImpl implements PurchaseService {
                         .orElseThrow(() -> new EntityNotFoundException("Hold not found: " + holdIdReq));
 
                 if (hold.getStatus() != HoldStatus.HELD) {
+                    // a retry that raced the original, or whose key the filter does not know yet; the
+                    // locking read sees purchases committed after this transaction's snapshot
+                    var late = purchaseRepository.findWithLockByIdempotencyKey(idemKey);
+                    if (late.isPresent()) {
+                        purchaseExisting.increment();
+                        idempotencyKeys.add(IdempotencyKeyFilter.Scope.PURCHASE, idemKey);
+                        log.info("order.idempotentHitLate orderId={} idemKey={} paymentRef={} holdId={}",
+                                late.get().getId(), idemKey, late.get().getPaymentRef(), late.get().getHoldId());
+                        return PurchaseCreateResult.existing(toResponse(late.get()));
+                    }
                     log.warn("order.create.holdNotHeld idemKey={} holdId={} status={} seanceId={} userId={}",
                             idemKey, hold.getId(), hold.getStatus(), hold.getSeanceId(), hold.getUserId());
                     throw new IllegalArgumentException("Hold not active. status=" + hold.getStatus());
@@ -123,11 +162,18 @@ public class PurchaseServiceImpl implements PurchaseService {
                         .idempotencyKey(idemKey)
                         .build();
 
-                Purchase saved = purchaseRepository.save(purchase);
+                if (!purchaseRepository.insertNew(purchase)) {
+                    return recoverTaken(idemKey, paymentRef);
+                }
+                Purchase saved = purchase;
+                idempotencyKeys.add(IdempotencyKeyFilter.Scope.PURCHASE, idemKey);
 
                 hold.setStatus(HoldStatus.CONSUMED);
                 hold.setReleasedAt(now);
                 holdRepository.save(hold);
+                seanceInventory.sell(hold.getSeanceId(), hold.getShardNo(), hold.getQuantity());
+                capacityLedger.sellAfterCommit(hold.getSeanceId(), hold.getQuantity());
+                responseStore.evict(IdempotencyKeyFilter.Scope.HOLD, hold.getIdempotencyKey());
 
                 purchaseCreated.increment();
 
@@ -135,31 +181,20 @@ public class PurchaseServiceImpl implements PurchaseService {
                         saved.getId(), idemKey, hold.getId(), hold.getSeanceId(), hold.getUserId(),
                         payment.getPaymentRef(), expectedAmount, hold.getQuantity());
 
-                return PurchaseCreateResult.created(toResponse(saved));
+                PurchaseResponse response = toResponse(saved);
+                responseStore.save(IdempotencyKeyFilter.Scope.PURCHASE, idemKey, response);
+                return PurchaseCreateResult.created(response);
 
             } catch (DataIntegrityViolationException ex) {
-                var byKey = purchaseRepository.findByIdempotencyKey(idemKey);
-                if (byKey.isPresent()) {
-                    purchaseExisting.increment();
-                    var p = byKey.get();
-                    log.info("order.idempotentRecovered idemKey={} orderId={} paymentRef={}",
-                            idemKey, p.getId(), p.getPaymentRef());
-                    return PurchaseCreateResult.existing(toResponse(p));
-                }
-
-                var byPayment = purchaseRepository.findByPaymentRef(paymentRef);
-                if (byPayment.isPresent()) {
-                    purchaseFailed.increment();
-                    log.warn("order.duplicatePaymentRef idemKey={} paymentRef={} existingOrderId={}",
-                            idemKey, paymentRef, byPayment.get().getId());
-                    throw new dev.mgmeral.ticket.exception.DuplicatePaymentRefException(byPayment.get().getId());
-                }
-
                 purchaseFailed.increment();
                 log.error("order.create.dbFailure idemKey={} paymentRef={} holdId={} err={}",
                         idemKey, paymentRef, holdIdReq, ex.toString(), ex);
                 throw new IllegalStateException("Purchase save failed", ex);
 
+            } catch (DuplicatePaymentRefException e) {
+                purchaseFailed.increment();
+                throw e;
+
             } catch (RuntimeException e) {
                 purchaseFailed.increment();
                 log.error("order.create.failed idemKey={} paymentRef={} holdId={} err={}",
@@ -169,6 +204,32 @@ public class PurchaseServiceImpl implements PurchaseService {
         });
     }
 
+    /**
+     * The insert lost on a unique key: the idempotency key means a retry and gets the purchase that won,
+     * a taken payment ref is a conflict. Only the insert statement failed, so the transaction is still
+     * usable for the locking reads.
+     */
+    private PurchaseCreateResult recoverTaken(String idemKey, String paymentRef) {
+        var byKey = purchaseRepository.findWithLockByIdempotencyKey(idemKey);
+        if (byKey.isPresent()) {
+            purchaseExisting.increment();
+            var p = byKey.get();
+            idempotencyKeys.add(IdempotencyKeyFilter.Scope.PURCHASE, idemKey);
+            log.info("order.idempotentRecovered idemKey={} orderId={} paymentRef={}",
+                    idemKey, p.getId(), p.getPaymentRef());
+            return PurchaseCreateResult.existing(toResponse(p));
+        }
+
+        var byPayment = purchaseRepository.findWithLockByPaymentRef(paymentRef);
+        if (byPayment.isPresent()) {
+            log.warn("order.duplicatePaymentRef idemKey={} paymentRef={} existingOrderId={}",
+                    idemKey, paymentRef, byPayment.get().getId());
+            throw new DuplicatePaymentRefException(byPayment.get().getId());
+        }
+
+        throw new DataIntegrityViolationException("Purchase insert rejected but no conflicting row found: " + idemKey);
+    }
+
     private PurchaseResponse toResponse(Purchase p) {
         return new PurchaseResponse(
                 p.getId(),
@@ -1,66 +1,96 @@
 package dev.mgmeral.ticket.service.impl;
 
+import dev.mgmeral.ticket.availability.AvailabilityStream;
 import dev.mgmeral.ticket.entity.Seance;
-import dev.mgmeral.ticket.enums.HoldStatus;
-import dev.mgmeral.ticket.enums.PurchaseStatus;
+import dev.mgmeral.ticket.entity.SeanceShard;
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceCounters;
+import dev.mgmeral.ticket.inventory.SeanceInventory;
 import dev.mgmeral.ticket.mapper.SeanceMapper;
+import dev.mgmeral.ticket.model.CursorSlice;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.SeanceAvailabilityResponse;
 import dev.mgmeral.ticket.model.SeanceCreateRequest;
 import dev.mgmeral.ticket.model.SeanceCreateResponse;
 import dev.mgmeral.ticket.model.SeanceGetResponse;
+import dev.mgmeral.ticket.paging.PageCounts;
 import dev.mgmeral.ticket.repository.EventRepository;
-import dev.mgmeral.ticket.repository.HoldRepository;
-import dev.mgmeral.ticket.repository.PurchaseRepository;
 import dev.mgmeral.ticket.repository.SeanceRepository;
+import dev.mgmeral.ticket.repository.SeanceSummaryRow;
 import dev.mgmeral.ticket.service.SeanceService;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 @Transactional
 @Slf4j
 public class SeanceServiceImpl implements SeanceService {
 
+    static final int MAX_AVAILABILITY_IDS = 200;
+
     private final SeanceRepository seanceRepository;
     private final EventRepository eventRepository;
-    private final HoldRepository holdRepository;
-    private final PurchaseRepository purchaseRepository;
+    private final SeanceInventory seanceInventory;
+    private final SeanceCapacityLedger capacityLedger;
     private final SeanceMapper seanceMapper;
+    private final PageCounts pageCounts;
+    private final AvailabilityStream availabilityStream;
 
     public SeanceServiceImpl(SeanceRepository seanceRepository,
                              EventRepository eventRepository,
-                             HoldRepository holdRepository,
-                             PurchaseRepository purchaseRepository,
-                             SeanceMapper seanceMapper) {
+                             SeanceInventory seanceInventory,
+                             SeanceCapacityLedger capacityLedger,
+                             SeanceMapper seanceMapper,
+                             PageCounts pageCounts,
+                             AvailabilityStream availabilityStream) {
         this.seanceRepository = seanceRepository;
         this.eventRepository = eventRepository;
-        this.holdRepository = holdRepository;
-        this.purchaseRepository = purchaseRepository;
+        this.seanceInventory = seanceInventory;
+        this.capacityLedger = capacityLedger;
         this.seanceMapper = seanceMapper;
+        this.pageCounts = pageCounts;
+        this.availabilityStream = availabilityStream;
     }
 
     @Override
     public SeanceCreateResponse create(Long eventId, SeanceCreateRequest request) {
-        log.info("seance.create.start eventId={} startDate={} capacity={}",
-                eventId, request.startDateTime(), request.capacity());
+        log.info("seance.create.start eventId={} startDate={} capacity={} inventoryShards={}",
+                eventId, request.startDateTime(), request.capacity(), request.inventoryShards());
 
         if (!eventRepository.existsById(eventId)) {
             log.warn("seance.create.eventNotFound eventId={}", eventId);
             throw new EntityNotFoundException("Event not found: " + eventId);
         }
 
+        if (request.inventoryShards() != null && request.inventoryShards() > request.capacity()) {
+            throw new IllegalArgumentException("inventoryShards must not exceed capacity");
+        }
+
         Seance seance = seanceMapper.toEntity(eventId, request);
         Seance saved = seanceRepository.save(seance);
+        seanceInventory.initialize(saved);
 
-        log.info("seance.create.ok seanceId={} eventId={} startDate={} capacity={}",
-                saved.getId(), eventId, saved.getStartDate(), saved.getCapacity());
+        log.info("seance.create.ok seanceId={} eventId={} startDate={} capacity={} inventoryShards={}",
+                saved.getId(), eventId, saved.getStartDate(), saved.getCapacity(), saved.getInventoryShards());
 
         return seanceMapper.toCreateResponse(saved);
     }
@@ -84,65 +114,272 @@ public class SeanceServiceImpl implements SeanceService {
 
     @Override
     @Transactional(readOnly = true)
-    public Page<SeanceGetResponse> search(Long eventId, Instant dateFrom, Instant dateTo, Pageable pageable) {
-        log.debug("seance.search params eventId={} dateFrom={} dateTo={} page={} size={} sort={}",
-                eventId, dateFrom, dateTo,
-                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+    public List<MultiGetItem<SeanceGetResponse>> getByIds(Collection<Long> ids) {
+        List<Long> distinct = MultiGet.checkIds(ids);
+        log.debug("seance.getByIds.start count={}", distinct.size());
 
-        boolean noFilters = (eventId == null && dateFrom == null && dateTo == null);
+        List<SeanceSummaryRow> rows = seanceRepository.findSummariesByIdIn(distinct);
 
-        Page<Seance> page;
-        if (noFilters) {
-            page = seanceRepository.findAll(pageable);
-        } else {
-            Specification<Seance> spec = Specification.where(null);
+        log.debug("seance.getByIds.ok requested={} found={}", distinct.size(), rows.size());
+        return MultiGet.inRequestOrder(distinct, rows, SeanceSummaryRow::id, seanceMapper::toGetResponse);
+    }
 
-            if (eventId != null) {
-                spec = spec.and((root, q, cb) -> cb.equal(root.get("event").get("id"), eventId));
-            }
-            if (dateFrom != null) {
-                spec = spec.and((root, q, cb) -> cb.greaterThanOrEqualTo(root.get("startDate"), dateFrom));
-            }
-            if (dateTo != null) {
-                spec = spec.and((root, q, cb) -> cb.lessThanOrEqualTo(root.get("startDate"), dateTo));
-            }
+    /**
+     * {@code onlyAvailable} filters on the DB-maintained {@code available_quantity} columns, so it does not
+     * compute anything per row; {@code withAvailability} adds the counters of the page's seances from
+     * {@link SeanceCapacityLedger} in one batch. Only the columns of {@link SeanceSummaryRow} are selected.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SeanceGetResponse> search(Long eventId, Instant dateFrom, Instant dateTo, boolean onlyAvailable,
+                                          boolean withAvailability, Pageable pageable) {
+        log.debug("seance.search params eventId={} dateFrom={} dateTo={} onlyAvailable={} withAvailability={} "
+                        + "page={} size={} sort={}",
+                eventId, dateFrom, dateTo, onlyAvailable, withAvailability,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
 
-            page = seanceRepository.findAll(spec, pageable);
-        }
+        Page<SeanceSummaryRow> page = seanceRepository.findPage(Seance.class,
+                filters(eventId, dateFrom, dateTo, onlyAvailable), pageable,
+                SeanceSummaryRow.class, SeanceSummaryRow.ATTRIBUTES);
 
         log.debug("seance.search.result totalElements={} totalPages={} pageNumber={}",
                 page.getTotalElements(), page.getTotalPages(), page.getNumber());
 
-        return page.map(seanceMapper::toGetResponse);
+        Page<SeanceGetResponse> responses = page.map(seanceMapper::toGetResponse);
+        if (!withAvailability || responses.isEmpty()) {
+            return responses;
+        }
+        return responses.map(availabilityOf(responses.getContent()));
+    }
+
+    /**
+     * {@link CountMode#NONE} reads one extra row instead of counting; {@link CountMode#CACHED} takes the total
+     * of the same filters from {@link PageCounts}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<SeanceGetResponse> search(Long eventId, Instant dateFrom, Instant dateTo, boolean onlyAvailable,
+                                           boolean withAvailability, CountMode countMode, Pageable pageable) {
+        if (countMode == CountMode.EXACT) {
+            return search(eventId, dateFrom, dateTo, onlyAvailable, withAvailability, pageable);
+        }
+
+        log.debug("seance.search params eventId={} dateFrom={} dateTo={} onlyAvailable={} withAvailability={} "
+                        + "count={} page={} size={} sort={}",
+                eventId, dateFrom, dateTo, onlyAvailable, withAvailability, countMode,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+
+        Specification<Seance> spec = filters(eventId, dateFrom, dateTo, onlyAvailable);
+
+        Slice<SeanceSummaryRow> slice = seanceRepository.findSlice(Seance.class, spec, pageable,
+                SeanceSummaryRow.class, SeanceSummaryRow.ATTRIBUTES);
+        if (countMode == CountMode.CACHED) {
+            String shape = "seances|" + eventId + "|" + dateFrom + "|" + dateTo + "|" + onlyAvailable;
+            slice = PageableExecutionUtils.getPage(slice.getContent(), pageable,
+                    () -> pageCounts.count(shape, () -> seanceRepository.count(spec)));
+        }
+
+        Slice<SeanceGetResponse> responses = slice.map(seanceMapper::toGetResponse);
+        if (!withAvailability || responses.isEmpty()) {
+            return responses;
+        }
+        return responses.map(availabilityOf(responses.getContent()));
+    }
+
+    /**
+     * Counters of {@code responses} from {@link SeanceCapacityLedger} in one batch.
+     */
+    private Function<SeanceGetResponse, SeanceGetResponse> availabilityOf(List<SeanceGetResponse> responses) {
+        Map<Long, SeanceCounters.Snapshot> snapshots = capacityLedger.snapshots(
+                responses.stream().map(SeanceGetResponse::id).toList());
+        return r -> {
+            SeanceCounters.Snapshot snapshot = snapshots.get(r.id());
+            return snapshot == null ? r : new SeanceGetResponse(r.id(), r.eventId(), r.startDateTime(),
+                    r.capacity(), r.inventoryShards(), toAvailability(r.id(), snapshot));
+        };
     }
 
+    /**
+     * Keyset scroll in (startDate, id) order, served by {@code idx_seances_event_start} / {@code idx_seances_start}:
+     * no COUNT, and every page costs the same however deep it is.
+     */
     @Override
     @Transactional(readOnly = true)
+    public CursorSlice<SeanceGetResponse> scroll(Long eventId, Instant dateFrom, Instant dateTo,
+                                                 boolean onlyAvailable, String cursor, int size) {
+        Cursors.checkSize(size);
+        Cursors.Position after = Cursors.decode(cursor);
+        if (after != null && after.sortKey() == null) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+
+        log.debug("seance.scroll params eventId={} dateFrom={} dateTo={} onlyAvailable={} after={} size={}",
+                eventId, dateFrom, dateTo, onlyAvailable, after, size);
+
+        Specification<Seance> spec = filters(eventId, dateFrom, dateTo, onlyAvailable);
+        if (after != null) {
+            spec = spec.and(startsAfter(after));
+        }
+        List<SeanceSummaryRow> rows = seanceRepository.findFirst(Seance.class, spec, Sort.by("startDate", "id"),
+                size + 1, SeanceSummaryRow.class, SeanceSummaryRow.ATTRIBUTES);
+
+        return Cursors.slice(rows, size, row -> Cursors.encode(row.startDate(), row.id()),
+                seanceMapper::toGetResponse);
+    }
+
+    private static Specification<Seance> filters(Long eventId, Instant dateFrom, Instant dateTo,
+                                                 boolean onlyAvailable) {
+        Specification<Seance> spec = Specification.where(null);
+
+        if (eventId != null) {
+            spec = spec.and((root, q, cb) -> cb.equal(root.get("event").get("id"), eventId));
+        }
+        if (dateFrom != null) {
+            spec = spec.and((root, q, cb) -> cb.greaterThanOrEqualTo(root.get("startDate"), dateFrom));
+        }
+        if (dateTo != null) {
+            spec = spec.and((root, q, cb) -> cb.lessThanOrEqualTo(root.get("startDate"), dateTo));
+        }
+        if (onlyAvailable) {
+            spec = spec.and(hasAvailable());
+        }
+        return spec;
+    }
+
+    private static Specification<Seance> startsAfter(Cursors.Position after) {
+        return (root, q, cb) -> cb.or(
+                cb.greaterThan(root.get("startDate"), after.sortKey()),
+                cb.and(cb.equal(root.get("startDate"), after.sortKey()),
+                        cb.greaterThan(root.get("id"), after.id())));
+    }
+
+    /**
+     * Unsharded seances keep their counters on the seance row; sharded ones have capacity left as long as
+     * one of their shards does.
+     */
+    private static Specification<Seance> hasAvailable() {
+        return (root, q, cb) -> {
+            Subquery<Integer> shards = q.subquery(Integer.class);
+            Root<SeanceShard> shard = shards.from(SeanceShard.class);
+            shards.select(cb.literal(1))
+                    .where(cb.equal(shard.get("seanceId"), root.get("id")),
+                            cb.greaterThan(shard.get("availableQuantity"), 0));
+
+            return cb.or(
+                    cb.and(cb.le(root.get("inventoryShards"), 1), cb.greaterThan(root.get("availableQuantity"), 0)),
+                    cb.and(cb.gt(root.get("inventoryShards"), 1), cb.exists(shards)));
+        };
+    }
+
+    /**
+     * All seances of the event in start order, with their counters: one query for the rows and at most one
+     * more for the ledger misses. Does not check that the event exists.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SeanceGetResponse> listByEvent(Long eventId) {
+        log.debug("seance.listByEvent.start eventId={}", eventId);
+
+        List<SeanceGetResponse> responses = seanceRepository.findSummariesByEventId(eventId).stream()
+                .map(seanceMapper::toGetResponse)
+                .toList();
+        if (responses.isEmpty()) {
+            return responses;
+        }
+        List<SeanceGetResponse> withAvailability = responses.stream().map(availabilityOf(responses)).toList();
+
+        log.debug("seance.listByEvent.ok eventId={} count={}", eventId, withAvailability.size());
+
+        return withAvailability;
+    }
+
+    /**
+     * Answered from {@link SeanceCapacityLedger}; runs without a transaction so that a ledger hit does not
+     * take a DB connection.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public SeanceAvailabilityResponse availability(Long id) {
         log.debug("seance.availability.start seanceId={}", id);
 
-        Seance seance = seanceRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException("Seance not found: " + id));
+        SeanceAvailabilityResponse response = toAvailability(id, capacityLedger.snapshot(id));
+
+        log.info("seance.availability.ok seanceId={} capacity={} sold={} held={} available={}",
+                id, response.capacity(), response.soldCount(), response.heldCount(), response.availableCount());
+
+        return response;
+    }
+
+    /**
+     * Ledger misses among the ids are loaded together, so the DB sees at most two queries whatever the
+     * number of seances. Unknown ids are left out of the result.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SeanceAvailabilityResponse> availability(Collection<Long> ids) {
+        List<Long> distinct = ids.stream().distinct().toList();
+        if (distinct.isEmpty() || distinct.size() > MAX_AVAILABILITY_IDS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_AVAILABILITY_IDS + " seance ids are required");
+        }
+        log.debug("seance.availability.bulk.start count={}", distinct.size());
+
+        List<SeanceAvailabilityResponse> responses = toAvailability(capacityLedger.snapshots(distinct));
+
+        log.debug("seance.availability.bulk.ok requested={} found={}", distinct.size(), responses.size());
+
+        return responses;
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SeanceAvailabilityResponse> availabilityByEvent(Long eventId) {
+        log.debug("seance.availability.byEvent.start eventId={}", eventId);
+
+        List<Long> ids = seanceRepository.findIdsByEventId(eventId);
+        if (ids.isEmpty()) {
+            if (!eventRepository.existsById(eventId)) {
+                throw new EntityNotFoundException("Event not found: " + eventId);
+            }
+            return List.of();
+        }
+
+        List<SeanceAvailabilityResponse> responses = toAvailability(capacityLedger.snapshots(ids));
+
+        log.debug("seance.availability.byEvent.ok eventId={} count={}", eventId, responses.size());
+
+        return responses;
+    }
 
-        Instant now = Instant.now();
+    /**
+     * Counters come from {@link SeanceCapacityLedger} like {@link #availability(Collection)}; the stream reads
+     * them once per tick for all of its subscribers.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public SseEmitter streamAvailability(Collection<Long> ids) {
+        return availabilityStream.subscribe(ids);
+    }
 
-        long heldCount = holdRepository.sumActiveQuantity(seance.getId(), HoldStatus.HELD, now);
-        long soldCount = purchaseRepository.sumQuantityBySeanceAndStatus(seance.getId(), PurchaseStatus.SOLD);
+    private List<SeanceAvailabilityResponse> toAvailability(Map<Long, SeanceCounters.Snapshot> snapshots) {
+        return snapshots.entrySet().stream()
+                .map(e -> toAvailability(e.getKey(), e.getValue()))
+                .toList();
+    }
 
-        long capacity = seance.getCapacity();
+    private SeanceAvailabilityResponse toAvailability(Long id, SeanceCounters.Snapshot snapshot) {
+        long capacity = snapshot.capacity();
+        long soldCount = snapshot.sold();
+        long heldCount = snapshot.held();
         long available = capacity - soldCount - heldCount;
 
         if (available < 0) {
-            log.warn("seance.availability.negative seanceId={} capacity={} sold={} held={} available={} now={}",
-                    seance.getId(), capacity, soldCount, heldCount, available, now);
+            log.warn("seance.availability.negative seanceId={} capacity={} sold={} held={} available={}",
+                    id, capacity, soldCount, heldCount, available);
             available = 0;
         }
 
-        log.info("seance.availability.ok seanceId={} capacity={} sold={} held={} available={} now={}",
-                seance.getId(), capacity, soldCount, heldCount, available, now);
-
         return new SeanceAvailabilityResponse(
-                seance.getId(),
+                id,
                 (int) capacity,
                 soldCount,
                 heldCount,
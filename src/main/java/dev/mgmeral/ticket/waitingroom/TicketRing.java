@@ -0,0 +1,74 @@
+package dev.mgmeral.ticket.waitingroom;
+
+/**
+ * Fixed-size ring of the ticket sequence numbers this node issued for one seance, in issue order.
+ * <p>
+ * Next to each ticket the ring keeps the hash of the idempotency key it was first used with, so reuse of
+ * a ticket this node issued is turned away without a DB round trip. Tickets from other nodes are not in
+ * the ring; {@link WaitingRoomSequences#use} is what makes every ticket single-use across nodes.
+ */
+final class TicketRing {
+
+    private final long[] seqs;
+    private final int[] usedBy;
+    private final int mask;
+    private long head;
+    private long tail;
+
+    TicketRing(int capacityPowerOfTwo) {
+        if (Integer.bitCount(capacityPowerOfTwo) != 1) {
+            throw new IllegalArgumentException("ring capacity must be a power of two: " + capacityPowerOfTwo);
+        }
+        this.seqs = new long[capacityPowerOfTwo];
+        this.usedBy = new int[capacityPowerOfTwo];
+        this.mask = capacityPowerOfTwo - 1;
+    }
+
+    synchronized boolean offer(long seq) {
+        if (tail - head == seqs.length) {
+            return false;
+        }
+        int slot = (int) (tail++ & mask);
+        seqs[slot] = seq;
+        usedBy[slot] = 0;
+        return true;
+    }
+
+    /**
+     * @return {@code false} only if this node issued the ticket and it was already used with another key
+     */
+    synchronized boolean use(long seq, String idempotencyKey) {
+        int keyHash = idempotencyKey.hashCode() | 1;
+        long lo = head;
+        long hi = tail - 1;
+        while (lo <= hi) {
+            long mid = (lo + hi) >>> 1;
+            int slot = (int) (mid & mask);
+            if (seqs[slot] < seq) {
+                lo = mid + 1;
+            } else if (seqs[slot] > seq) {
+                hi = mid - 1;
+            } else {
+                if (usedBy[slot] == 0) {
+                    usedBy[slot] = keyHash;
+                    return true;
+                }
+                return usedBy[slot] == keyHash;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops tickets whose sequence number is at or below {@code seq}.
+     */
+    synchronized void evictUpTo(long seq) {
+        while (head < tail && seqs[(int) (head & mask)] <= seq) {
+            head++;
+        }
+    }
+
+    synchronized int size() {
+        return (int) (tail - head);
+    }
+}
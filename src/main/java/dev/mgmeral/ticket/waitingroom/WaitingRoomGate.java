@@ -0,0 +1,202 @@
+package dev.mgmeral.ticket.waitingroom;
+
+import dev.mgmeral.ticket.exception.WaitingRoomFullException;
+import dev.mgmeral.ticket.exception.WaitingRoomQueuedException;
+import dev.mgmeral.ticket.model.WaitingRoomTicketResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Waiting room in front of {@code POST /holds}.
+ * <p>
+ * While a seance is quiet, requests go straight through up to {@code admission-rate-per-second} per node.
+ * Beyond that, and for as long as anyone is queued for the seance on any node, new arrivals get a signed
+ * ticket with a sequence number from a DB-reserved range ({@link WaitingRoomSequences}) and a position.
+ * Every tick one node moves the shared admission watermark forward by {@code rate * tick}; a ticket at or
+ * below the watermark is admitted for {@code admitted-ttl-ms}, for one idempotency key (and its retries):
+ * the first use is recorded in the DB ({@link WaitingRoomSequences#use}), so it holds on every node.
+ */
+@Slf4j
+@Component
+public class WaitingRoomGate {
+
+    private final ConcurrentHashMap<Long, Room> rooms = new ConcurrentHashMap<>();
+
+    private final WaitingRoomSequences sequences;
+    private final WaitingRoomTokens tokens;
+    private final boolean enabled;
+    private final int ratePerSecond;
+    private final Duration tick;
+    private final long step;
+    private final long admittedWindow;
+    private final int ringCapacity;
+    private final int sequenceBlock;
+    private final long idleNanos;
+
+    public WaitingRoomGate(WaitingRoomSequences sequences,
+                           WaitingRoomTokens tokens,
+                           @Value("${holds.waiting-room.enabled:false}") boolean enabled,
+                           @Value("${holds.waiting-room.admission-rate-per-second:100}") int ratePerSecond,
+                           @Value("${holds.waiting-room.tick-ms:200}") long tickMs,
+                           @Value("${holds.waiting-room.admitted-ttl-ms:60000}") long admittedTtlMs,
+                           @Value("${holds.waiting-room.ring-capacity:65536}") int ringCapacity,
+                           @Value("${holds.waiting-room.sequence-block:20}") int sequenceBlock,
+                           @Value("${holds.waiting-room.idle-ms:30000}") long idleMs) {
+        this.sequences = sequences;
+        this.tokens = tokens;
+        this.enabled = enabled;
+        this.ratePerSecond = ratePerSecond;
+        this.tick = Duration.ofMillis(tickMs);
+        this.step = Math.max(1, ratePerSecond * tickMs / 1000);
+        this.admittedWindow = Math.max(1, ratePerSecond * admittedTtlMs / 1000);
+        this.ringCapacity = ringCapacity;
+        this.sequenceBlock = sequenceBlock;
+        this.idleNanos = idleMs * 1_000_000L;
+    }
+
+    /**
+     * Returns when the caller may create a hold; otherwise throws {@link WaitingRoomQueuedException}
+     * carrying the caller's ticket.
+     */
+    public void enter(Long seanceId, String token, String idempotencyKey) {
+        if (!enabled) {
+            return;
+        }
+        Room room = rooms.computeIfAbsent(seanceId, Room::new);
+        room.lastSeen = System.nanoTime();
+
+        if (token != null) {
+            long seq = verified(seanceId, token);
+            if (seq > room.admittedSeq) {
+                throw new WaitingRoomQueuedException(ticket(room, token, seq));
+            }
+            if (room.admittedSeq - seq > admittedWindow) {
+                throw new IllegalArgumentException("Waiting room token expired");
+            }
+            // the ring rejects reuse of this node's tickets without a round trip; the DB decides for all nodes
+            if (!room.ring.use(seq, idempotencyKey) || !sequences.use(seanceId, seq, idempotencyKey)) {
+                throw new IllegalArgumentException("Waiting room token already used");
+            }
+            return;
+        }
+
+        if (room.idle() && room.tryPass()) {
+            return;
+        }
+
+        long seq = room.issue();
+        log.info("waitingRoom.queued seanceId={} seq={} admittedSeq={}", seanceId, seq, room.admittedSeq);
+        throw new WaitingRoomQueuedException(ticket(room, tokens.issue(seanceId, seq), seq));
+    }
+
+    public WaitingRoomTicketResponse status(Long seanceId, String token) {
+        Room room = rooms.computeIfAbsent(seanceId, Room::new);
+        room.lastSeen = System.nanoTime();
+        return ticket(room, token, verified(seanceId, token));
+    }
+
+    @Scheduled(fixedDelayString = "${holds.waiting-room.tick-ms:200}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        rooms.values().removeIf(room -> room.idle() && room.ring.size() == 0 && now - room.lastSeen > idleNanos);
+
+        for (Room room : rooms.values()) {
+            try {
+                WaitingRoomSequences.Watermark watermark = sequences.advance(room.seanceId, step, tick, admittedWindow);
+                room.admittedSeq = watermark.admittedSeq();
+                room.nextSeq = watermark.nextSeq();
+                room.ring.evictUpTo(watermark.admittedSeq() - admittedWindow);
+            } catch (RuntimeException e) {
+                log.warn("waitingRoom.tick.failed seanceId={}", room.seanceId, e);
+            }
+        }
+    }
+
+    private long verified(Long seanceId, String token) {
+        long seq = tokens.verify(seanceId, token);
+        if (seq < 0) {
+            throw new IllegalArgumentException("Invalid waiting room token");
+        }
+        return seq;
+    }
+
+    private WaitingRoomTicketResponse ticket(Room room, String token, long seq) {
+        long position = Math.max(0, seq - room.admittedSeq);
+        long retryAfterMs = Math.max(tick.toMillis(), position * 1000 / ratePerSecond);
+        return new WaitingRoomTicketResponse(room.seanceId, token, position, position == 0, retryAfterMs);
+    }
+
+    private final class Room {
+        private final Long seanceId;
+        private final TicketRing ring = new TicketRing(ringCapacity);
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private volatile long admittedSeq;
+        private volatile long nextSeq;
+        private volatile long lastIssued;
+        private volatile long lastSeen;
+
+        // guarded by lock
+        private long rangeNext = 1;
+        private long rangeEnd;
+        private long windowStart;
+        private int windowCount;
+
+        private Room(Long seanceId) {
+            this.seanceId = seanceId;
+        }
+
+        /**
+         * Nobody is queued for this seance, here or on another node.
+         */
+        private boolean idle() {
+            return lastIssued <= admittedSeq && nextSeq <= admittedSeq;
+        }
+
+        private boolean tryPass() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                if (now - windowStart >= 1_000_000_000L) {
+                    windowStart = now;
+                    windowCount = 0;
+                }
+                if (windowCount < ratePerSecond) {
+                    windowCount++;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private long issue() {
+            lock.lock();
+            try {
+                if (rangeNext > rangeEnd) {
+                    rangeNext = sequences.allocate(seanceId, sequenceBlock);
+                    rangeEnd = rangeNext + sequenceBlock - 1;
+                }
+                long seq = rangeNext;
+                if (!ring.offer(seq)) {
+                    throw new WaitingRoomFullException(seanceId);
+                }
+                rangeNext++;
+                lastIssued = seq;
+                return seq;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
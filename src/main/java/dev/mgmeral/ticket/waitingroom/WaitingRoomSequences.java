@@ -0,0 +1,80 @@
+package dev.mgmeral.ticket.waitingroom;
+
+import dev.mgmeral.ticket.repository.WaitingRoomRepository;
+import dev.mgmeral.ticket.repository.WaitingRoomTicketUseRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * DB side of the waiting room: hands out ranges of ticket sequence numbers to nodes, moves the
+ * shared admission watermark, so FIFO order holds across nodes up to one range, and records which
+ * idempotency key each admitted ticket was used with, so a ticket is single-use on every node.
+ */
+@Component
+public class WaitingRoomSequences {
+
+    private final WaitingRoomRepository waitingRoomRepository;
+    private final WaitingRoomTicketUseRepository ticketUseRepository;
+
+    public WaitingRoomSequences(WaitingRoomRepository waitingRoomRepository,
+                                WaitingRoomTicketUseRepository ticketUseRepository) {
+        this.waitingRoomRepository = waitingRoomRepository;
+        this.ticketUseRepository = ticketUseRepository;
+    }
+
+    /**
+     * @return the first sequence number of a freshly reserved range of {@code size}
+     */
+    @Transactional
+    public long allocate(Long seanceId, int size) {
+        try {
+            waitingRoomRepository.reserveRange(seanceId, size, Instant.now());
+        } catch (DataIntegrityViolationException e) {
+            throw new EntityNotFoundException("Seance not found: " + seanceId);
+        }
+        return waitingRoomRepository.lastInsertId() - size + 1;
+    }
+
+    /**
+     * The node whose update moves the watermark also forgets the uses of tickets that fell out of the
+     * admission window, which the gate rejects as expired anyway.
+     */
+    @Transactional
+    public Watermark advance(Long seanceId, long step, Duration tick, long admittedWindow) {
+        Instant now = Instant.now();
+        boolean advanced = waitingRoomRepository.advance(seanceId, step, now, now.minus(tick)) > 0;
+        Watermark watermark = waitingRoomRepository.findById(seanceId)
+                .map(r -> new Watermark(r.getAdmittedSeq(), r.getNextSeq()))
+                .orElse(new Watermark(0, 0));
+        if (advanced && watermark.admittedSeq() > admittedWindow) {
+            ticketUseRepository.deleteUpTo(seanceId, watermark.admittedSeq() - admittedWindow);
+        }
+        return watermark;
+    }
+
+    /**
+     * Lets ticket {@code seq} through for {@code idempotencyKey}, whichever node issued it.
+     *
+     * @return {@code false} if the ticket was already used with another key
+     */
+    public boolean use(Long seanceId, long seq, String idempotencyKey) {
+        if (ticketUseRepository.insert(seanceId, seq, idempotencyKey, Instant.now()) > 0) {
+            return true;
+        }
+        return ticketUseRepository.findIdempotencyKey(seanceId, seq)
+                .map(idempotencyKey::equals)
+                .orElse(false);
+    }
+
+    /**
+     * @param admittedSeq tickets up to this sequence number are admitted
+     * @param nextSeq     last sequence number handed out to any node
+     */
+    public record Watermark(long admittedSeq, long nextSeq) {
+    }
+}
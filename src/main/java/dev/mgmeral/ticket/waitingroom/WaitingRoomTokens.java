@@ -0,0 +1,79 @@
+package dev.mgmeral.ticket.waitingroom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+/**
+ * Signed {@code <seq>.<mac>} tickets, so any node can check a ticket issued by another one without
+ * shared state.
+ * <p>
+ * {@code holds.waiting-room.secret} has no default: with the waiting room enabled the application does
+ * not start without it. While disabled and unset, no ticket is issued and every token fails to verify.
+ */
+@Component
+public class WaitingRoomTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    public WaitingRoomTokens(@Value("${holds.waiting-room.enabled:false}") boolean enabled,
+                             @Value("${holds.waiting-room.secret:}") String secret) {
+        if (secret == null || secret.isBlank()) {
+            if (enabled) {
+                throw new IllegalStateException(
+                        "holds.waiting-room.secret must be set when holds.waiting-room.enabled=true");
+            }
+            this.key = null;
+        } else {
+            this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        }
+    }
+
+    public String issue(Long seanceId, long seq) {
+        if (key == null) {
+            throw new IllegalStateException("holds.waiting-room.secret is not set");
+        }
+        return seq + "." + mac(seanceId, seq);
+    }
+
+    /**
+     * @return the ticket's sequence number, or {@code -1} if the token is malformed or not for this seance
+     */
+    public long verify(Long seanceId, String token) {
+        if (key == null) {
+            return -1;
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return -1;
+        }
+        long seq;
+        try {
+            seq = Long.parseLong(token.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        byte[] expected = mac(seanceId, seq).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = token.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual) ? seq : -1;
+    }
+
+    private String mac(Long seanceId, long seq) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] raw = mac.doFinal((seanceId + ":" + seq).getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
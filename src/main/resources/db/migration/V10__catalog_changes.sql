@@ -0,0 +1,15 @@
+-- Deleted events and performers, so GET /catalog/changes can report deletes; purged after the retention
+CREATE TABLE catalog_tombstones (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  entity_type VARCHAR(16) NOT NULL,
+  entity_id BIGINT NOT NULL,
+  deleted_at TIMESTAMP(3) NOT NULL,
+
+  PRIMARY KEY (id),
+  KEY idx_catalog_tombstones_deleted (deleted_at)
+);
+
+-- change feed scans "... where updated_at >= ? order by updated_at, id"
+CREATE INDEX idx_events_updated ON events (updated_at);
+CREATE INDEX idx_performers_updated ON performers (updated_at);
+CREATE INDEX idx_seances_updated ON seances (updated_at);
@@ -0,0 +1,10 @@
+-- Which idempotency key each admitted waiting room ticket was first used with, shared by all nodes;
+-- rows are deleted once the watermark has moved past the ticket's admission window
+CREATE TABLE waiting_room_ticket_uses (
+  seance_id BIGINT NOT NULL,
+  seq BIGINT NOT NULL,
+  idempotency_key VARCHAR(80) NOT NULL,
+  used_at TIMESTAMP(3) NOT NULL,
+
+  PRIMARY KEY (seance_id, seq)
+);
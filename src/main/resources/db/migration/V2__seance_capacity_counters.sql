@@ -0,0 +1,13 @@
+ALTER TABLE seances
+  ADD COLUMN sold_quantity INT NOT NULL DEFAULT 0,
+  ADD COLUMN held_quantity INT NOT NULL DEFAULT 0;
+
+UPDATE seances s
+   SET s.sold_quantity = (SELECT COALESCE(SUM(p.quantity), 0)
+                            FROM purchases p
+                           WHERE p.seance_id = s.id
+                             AND p.status = 'SOLD'),
+       s.held_quantity = (SELECT COALESCE(SUM(h.quantity), 0)
+                            FROM holds h
+                           WHERE h.seance_id = s.id
+                             AND h.status = 'HELD');
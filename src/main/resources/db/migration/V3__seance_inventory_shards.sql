@@ -0,0 +1,21 @@
+ALTER TABLE seances
+  ADD COLUMN inventory_shards INT NOT NULL DEFAULT 1;
+
+ALTER TABLE holds
+  ADD COLUMN shard_no INT NOT NULL DEFAULT 0;
+
+CREATE TABLE seance_shards (
+  id BIGINT NOT NULL AUTO_INCREMENT,
+  seance_id BIGINT NOT NULL,
+  shard_no INT NOT NULL,
+  capacity INT NOT NULL,
+  sold_quantity INT NOT NULL DEFAULT 0,
+  held_quantity INT NOT NULL DEFAULT 0,
+
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+  PRIMARY KEY (id),
+  UNIQUE KEY uk_seance_shards_seance_shard (seance_id, shard_no),
+  CONSTRAINT fk_seance_shards_seance FOREIGN KEY (seance_id) REFERENCES seances(id)
+);
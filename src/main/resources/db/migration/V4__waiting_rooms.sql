@@ -0,0 +1,12 @@
+CREATE TABLE waiting_rooms (
+  seance_id BIGINT NOT NULL,
+  next_seq BIGINT NOT NULL DEFAULT 0,
+  admitted_seq BIGINT NOT NULL DEFAULT 0,
+  advanced_at TIMESTAMP(3) NOT NULL,
+
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+  PRIMARY KEY (seance_id),
+  CONSTRAINT fk_waiting_rooms_seance FOREIGN KEY (seance_id) REFERENCES seances(id)
+);
@@ -0,0 +1,2 @@
+-- Startup rebuild of the expiry wheel and the safety-net sweep both scan HELD holds by expires_at
+CREATE INDEX idx_holds_status_expires ON holds (status, expires_at);
@@ -0,0 +1,11 @@
+CREATE TABLE job_leases (
+  name VARCHAR(64) NOT NULL,
+  owner VARCHAR(128) NOT NULL,
+  acquired_at TIMESTAMP(3) NOT NULL,
+  expires_at TIMESTAMP(3) NOT NULL,
+
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+
+  PRIMARY KEY (name)
+);
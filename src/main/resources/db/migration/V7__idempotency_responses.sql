@@ -0,0 +1,14 @@
+-- Serialized POST /holds and POST /purchases responses, replayed for retries until expires_at
+CREATE TABLE idempotency_responses (
+  scope VARCHAR(16) NOT NULL,
+  key_hash BINARY(16) NOT NULL,
+  body VARBINARY(4096) NOT NULL,
+  expires_at TIMESTAMP(3) NOT NULL,
+
+  created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+  PRIMARY KEY (scope, key_hash)
+);
+
+-- purge scans by expiry
+CREATE INDEX idx_idempotency_responses_expires ON idempotency_responses (expires_at);
@@ -0,0 +1,7 @@
+ALTER TABLE seances
+  ADD COLUMN available_quantity INT AS (capacity - sold_quantity - held_quantity) STORED,
+  ADD KEY idx_seances_available_start (available_quantity, start_date);
+
+ALTER TABLE seance_shards
+  ADD COLUMN available_quantity INT AS (capacity - sold_quantity - held_quantity) STORED,
+  ADD KEY idx_seance_shards_seance_available (seance_id, available_quantity);
@@ -0,0 +1,3 @@
+-- secondary indexes carry the primary key, so these serve "... order by start_date, id" / "... order by id"
+CREATE INDEX idx_seances_start ON seances (start_date);
+CREATE INDEX idx_events_type ON events (type);
@@ -99,3 +99,13 @@ VALUES
 INSERT INTO holds (id, user_id, seance_id, quantity, status, idempotency_key, expires_at, released_at)
 VALUES
   (12, 203, 10, 1, 'HELD', 'hold-edge-expired-1', DATE_SUB(NOW(), INTERVAL 5 MINUTE), NULL);
+
+UPDATE seances s
+   SET s.sold_quantity = (SELECT COALESCE(SUM(p.quantity), 0)
+                            FROM purchases p
+                           WHERE p.seance_id = s.id
+                             AND p.status = 'SOLD'),
+       s.held_quantity = (SELECT COALESCE(SUM(h.quantity), 0)
+                            FROM holds h
+                           WHERE h.seance_id = s.id
+                             AND h.status = 'HELD');
@@ -0,0 +1,134 @@
+package dev.mgmeral.ticket.availability;
+
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceCounters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityStreamTest {
+
+    @Mock
+    SeanceCapacityLedger capacityLedger;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    List<Runnable> queued = new ArrayList<>();
+    AvailabilityStream stream;
+
+    @BeforeEach
+    void setup() {
+        stream = new AvailabilityStream(capacityLedger, registry, 500, 60_000, 60_000, 2, queued::add);
+    }
+
+    @Test
+    void tick_shouldSendOneFrame_perChangedSeance_toEverySubscriber() throws IOException {
+        when(capacityLedger.snapshots(eq(List.of(1L)))).thenReturn(Map.of(1L, snapshot(10, 0, 1)));
+        var first = mock(SseEmitter.class);
+        var second = mock(SseEmitter.class);
+        stream.register(first, List.of(1L));
+        stream.register(second, List.of(1L));
+        runQueued();
+
+        stream.tick();
+        runQueued();
+        verify(first, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+
+        when(capacityLedger.snapshots(eq(List.of(1L)))).thenReturn(Map.of(1L, snapshot(10, 0, 3)));
+        stream.tick();
+        runQueued();
+
+        verify(first, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(second, times(2)).send(any(SseEmitter.SseEventBuilder.class));
+        // two subscriptions and two ticks, each one batch
+        verify(capacityLedger, times(4)).snapshots(eq(List.of(1L)));
+        verify(capacityLedger, never()).snapshot(any());
+    }
+
+    @Test
+    void offer_shouldReplaceFrameNotYetSent_withNewerOne() throws IOException {
+        when(capacityLedger.snapshots(eq(List.of(1L))))
+                .thenReturn(Map.of(1L, snapshot(10, 0, 1)))
+                .thenReturn(Map.of(1L, snapshot(10, 0, 2)));
+        var emitter = mock(SseEmitter.class);
+        stream.register(emitter, List.of(1L));
+
+        stream.tick();
+        runQueued();
+
+        verify(emitter, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        assertThat(registry.get("availability_stream_coalesced_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedSend_shouldDropSubscriber_andStopReadingItsSeances() throws IOException {
+        when(capacityLedger.snapshots(eq(List.of(1L)))).thenReturn(Map.of(1L, snapshot(10, 0, 1)));
+        var emitter = mock(SseEmitter.class);
+        doThrow(new IOException("broken pipe")).when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        stream.register(emitter, List.of(1L));
+        runQueued();
+
+        stream.tick();
+
+        verify(capacityLedger, times(1)).snapshots(any());
+        assertThat(registry.get("availability_stream_subscribers").gauge().value()).isZero();
+        assertThat(registry.get("availability_stream_disconnects_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void subscribe_shouldRejectTooManySeances_andUnknownSeance() {
+        assertThatThrownBy(() -> stream.subscribe(List.of(1L, 2L, 3L)))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        when(capacityLedger.snapshots(eq(List.of(1L, 9L)))).thenReturn(Map.of(1L, snapshot(10, 0, 1)));
+        assertThatThrownBy(() -> stream.subscribe(List.of(1L, 9L)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Seance(s) not found: [9]");
+        verify(capacityLedger, never()).snapshot(any());
+        assertThat(registry.get("availability_stream_subscribers").gauge().value()).isZero();
+    }
+
+    @Test
+    void tick_shouldReadAllFollowedSeances_inOneBatch_andSkipMissingOnes() throws IOException {
+        when(capacityLedger.snapshots(eq(List.of(1L, 2L))))
+                .thenReturn(Map.of(1L, snapshot(10, 0, 1), 2L, snapshot(5, 0, 0)))
+                .thenReturn(Map.of(1L, snapshot(10, 0, 4)));
+        var emitter = mock(SseEmitter.class);
+        stream.register(emitter, List.of(1L, 2L));
+        runQueued();
+
+        stream.tick();
+        runQueued();
+
+        verify(capacityLedger, times(2)).snapshots(eq(List.of(1L, 2L)));
+        verify(capacityLedger, never()).snapshot(any());
+        // initial frames for both, then the change of seance 1
+        verify(emitter, times(3)).send(any(SseEmitter.SseEventBuilder.class));
+    }
+
+    private void runQueued() {
+        while (!queued.isEmpty()) {
+            queued.remove(0).run();
+        }
+    }
+
+    private static SeanceCounters.Snapshot snapshot(int capacity, long sold, long held) {
+        return new SeanceCounters.Snapshot(capacity, sold, held);
+    }
+}
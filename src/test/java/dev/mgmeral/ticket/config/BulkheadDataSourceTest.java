@@ -0,0 +1,48 @@
+package dev.mgmeral.ticket.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+class BulkheadDataSourceTest {
+
+    @Test
+    void getConnection_shouldRejectBeyondPermits_untilAConnectionIsClosed() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection first = mock(Connection.class);
+        when(target.getConnection()).thenReturn(first, mock(Connection.class));
+        var registry = new SimpleMeterRegistry();
+
+        var bulkhead = new BulkheadDataSource(target, 1, 10, registry);
+
+        Connection c1 = bulkhead.getConnection();
+        assertThatThrownBy(bulkhead::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(registry.counter("db_bulkhead_rejected_total").count()).isEqualTo(1.0);
+
+        c1.close();
+        c1.close();
+        verify(first, times(2)).close();
+
+        assertThat(bulkhead.getConnection()).isNotNull();
+        assertThat(registry.get("db_bulkhead_available_permits").gauge().value()).isZero();
+    }
+
+    @Test
+    void getConnection_shouldGiveThePermitBack_whenTargetFails() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("down")).thenReturn(mock(Connection.class));
+
+        var bulkhead = new BulkheadDataSource(target, 1, 10, new SimpleMeterRegistry());
+
+        assertThatThrownBy(bulkhead::getConnection).hasMessage("down");
+        assertThat(bulkhead.getConnection()).isNotNull();
+    }
+}
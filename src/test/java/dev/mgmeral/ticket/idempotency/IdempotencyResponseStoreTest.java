@@ -0,0 +1,125 @@
+package dev.mgmeral.ticket.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter.Scope;
+import dev.mgmeral.ticket.model.HoldResponse;
+import dev.mgmeral.ticket.repository.IdempotencyResponseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyResponseStoreTest {
+
+    private static final HoldResponse RESPONSE = new HoldResponse(1L, 2L, 3L, 4, HoldStatus.HELD,
+            Instant.parse("2028-01-01T00:05:00Z"), new BigDecimal("400"));
+
+    @Mock
+    IdempotencyResponseRepository repository;
+
+    @Captor
+    ArgumentCaptor<byte[]> bodyCaptor;
+    @Captor
+    ArgumentCaptor<Instant> expiresCaptor;
+
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    IdempotencyResponseStore store;
+
+    @BeforeEach
+    void setup() {
+        store = new IdempotencyResponseStore(repository, objectMapper, registry, true, 60_000, 2);
+    }
+
+    @Test
+    void save_thenFind_shouldRoundTripResponse_underCompactKeyHash() {
+        store.save(Scope.HOLD, "idem-1", RESPONSE);
+
+        verify(repository).insert(eq("HOLD"), eq(IdempotencyResponseStore.keyHash("idem-1")), bodyCaptor.capture(),
+                expiresCaptor.capture());
+        assertThat(IdempotencyResponseStore.keyHash("idem-1")).hasSize(16);
+        assertThat(expiresCaptor.getValue()).isCloseTo(Instant.now().plus(Duration.ofMinutes(1)), within(5, ChronoUnit.SECONDS));
+
+        when(repository.findBody(eq("HOLD"), eq(IdempotencyResponseStore.keyHash("idem-1")), any()))
+                .thenReturn(Optional.of(bodyCaptor.getValue()));
+
+        assertThat(store.find(Scope.HOLD, "idem-1", HoldResponse.class)).contains(RESPONSE);
+        assertThat(registry.get("idempotency_response_hits_total").tag("scope", "hold").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void find_shouldReturnEmpty_whenBodyCannotBeRead() {
+        when(repository.findBody(eq("HOLD"), any(), any()))
+                .thenReturn(Optional.of("{not json".getBytes(StandardCharsets.UTF_8)));
+
+        assertThat(store.find(Scope.HOLD, "idem-1", HoldResponse.class)).isEmpty();
+        assertThat(registry.get("idempotency_response_misses_total").tag("scope", "hold").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void save_shouldSwallowDbFailure() {
+        when(repository.insert(any(), any(), any(), any())).thenThrow(new QueryTimeoutException("slow"));
+
+        store.save(Scope.PURCHASE, "idem-1", RESPONSE);
+
+        verify(repository).insert(eq("PURCHASE"), any(), any(), any());
+    }
+
+    @Test
+    void save_shouldKeepResponseOnlyUntilValidUntil_whenBeforeTtl() {
+        Instant validUntil = Instant.now().plusSeconds(10);
+
+        store.save(Scope.HOLD, "idem-1", RESPONSE, validUntil);
+
+        verify(repository).insert(eq("HOLD"), any(), any(), eq(validUntil));
+    }
+
+    @Test
+    void evict_shouldDeleteByKeyHash() {
+        store.evict(Scope.HOLD, "idem-1");
+
+        verify(repository).delete(eq("HOLD"), eq(IdempotencyResponseStore.keyHash("idem-1")));
+    }
+
+    @Test
+    void purge_shouldDeleteInChunks_untilShortChunk() {
+        Instant now = Instant.parse("2028-01-02T00:00:00Z");
+        when(repository.deleteExpired(eq(now), eq(2))).thenReturn(2, 2, 1);
+
+        assertThat(store.purge(now)).isEqualTo(5);
+        verify(repository, times(3)).deleteExpired(eq(now), eq(2));
+        assertThat(registry.get("idempotency_response_purged_total").counter().count()).isEqualTo(5);
+    }
+
+    @Test
+    void disabledStore_shouldNotTouchDb() {
+        store = new IdempotencyResponseStore(repository, objectMapper, registry, false, 60_000, 2);
+
+        store.save(Scope.HOLD, "idem-1", RESPONSE);
+
+        assertThat(store.find(Scope.HOLD, "idem-1", HoldResponse.class)).isEmpty();
+        verifyNoInteractions(repository);
+    }
+}
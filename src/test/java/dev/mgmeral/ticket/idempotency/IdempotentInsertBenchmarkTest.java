@@ -0,0 +1,254 @@
+package dev.mgmeral.ticket.idempotency;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hold creation against a real MySQL with {@code DUPLICATE_PERCENT}% of requests retrying a recent
+ * idempotency key, for the two ways of handling the key:
+ * <ul>
+ *     <li>{@code SELECT_FIRST}: look the key up, reserve and insert; a duplicate insert rolls the
+ *     transaction back and the key is read again in a new one (the path before insert-first)</li>
+ *     <li>{@code INSERT_FIRST}: reserve and insert; a duplicate insert fails only its statement, the
+ *     reservation is given back and the winner is read with a locking read in the same transaction</li>
+ * </ul>
+ * Retries pick from the most recently issued keys, so some of them race the original request. Works on
+ * its own {@code bench_*} tables and only runs when {@code TICKET_BENCH_JDBC_URL} is set, e.g.
+ * <pre>
+ * TICKET_BENCH_JDBC_URL=jdbc:mysql://localhost:3306/ticket TICKET_BENCH_USER=ticket TICKET_BENCH_PASSWORD=ticket \
+ *   mvn test -Dtest=IdempotentInsertBenchmarkTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "TICKET_BENCH_JDBC_URL", matches = ".+")
+class IdempotentInsertBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final long RUN_MILLIS = 5_000;
+    private static final int SHARDS = 16;
+    private static final int DUPLICATE_PERCENT = 10;
+    private static final int RECENT_KEYS = 256;
+
+    private enum Mode {
+        SELECT_FIRST, INSERT_FIRST
+    }
+
+    @Test
+    void insertFirst_shouldNeedFewerStatements_underDuplicateRetries() throws Exception {
+        createTables();
+        try {
+            List<String> lines = new ArrayList<>();
+            double[] statementsPerOp = new double[Mode.values().length];
+            for (Mode mode : Mode.values()) {
+                reset();
+                Result result = run(mode);
+                statementsPerOp[mode.ordinal()] = result.statementsPerOp();
+                lines.add(String.format("mode=%-12s ops/s=%.0f statements/op=%.2f duplicates=%d rollbacks=%d",
+                        mode, result.opsPerSecond(), result.statementsPerOp(), result.duplicates(),
+                        result.rollbacks()));
+                assertThat(result.opsPerSecond()).isPositive();
+            }
+            lines.forEach(System.out::println);
+            assertThat(statementsPerOp[Mode.INSERT_FIRST.ordinal()])
+                    .isLessThan(statementsPerOp[Mode.SELECT_FIRST.ordinal()]);
+        } finally {
+            dropTables();
+        }
+    }
+
+    private Result run(Mode mode) throws Exception {
+        LongAdder ops = new LongAdder();
+        LongAdder statements = new LongAdder();
+        LongAdder duplicates = new LongAdder();
+        LongAdder rollbacks = new LongAdder();
+        AtomicLong nextKey = new AtomicLong();
+        AtomicReferenceArray<String> recent = new AtomicReferenceArray<>(RECENT_KEYS);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long[] window = new long[2];
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                pool.submit(() -> {
+                    try (Connection c = connect();
+                         PreparedStatement select = c.prepareStatement(
+                                 "select id from bench_idem_holds where idempotency_key = ?");
+                         PreparedStatement selectLocked = c.prepareStatement(
+                                 "select id from bench_idem_holds where idempotency_key = ? for share");
+                         PreparedStatement reserve = c.prepareStatement("""
+                                 update bench_idem_shards
+                                    set held_quantity = held_quantity + 1
+                                  where shard_no = ?
+                                    and capacity - held_quantity >= 1
+                                 """);
+                         PreparedStatement release = c.prepareStatement(
+                                 "update bench_idem_shards set held_quantity = held_quantity - 1 where shard_no = ?");
+                         PreparedStatement insertHold = c.prepareStatement(
+                                 "insert into bench_idem_holds (shard_no, idempotency_key) values (?, ?)")) {
+                        c.setAutoCommit(false);
+                        start.await();
+                        while (System.currentTimeMillis() < window[1]) {
+                            ThreadLocalRandom random = ThreadLocalRandom.current();
+                            String key = null;
+                            if (random.nextInt(100) < DUPLICATE_PERCENT) {
+                                key = recent.get(random.nextInt(RECENT_KEYS));
+                            }
+                            if (key == null) {
+                                long n = nextKey.incrementAndGet();
+                                key = "k-" + n;
+                                recent.set((int) (n % RECENT_KEYS), key);
+                            }
+                            int shardNo = 1 + random.nextInt(SHARDS);
+
+                            if (mode == Mode.SELECT_FIRST) {
+                                selectFirst(c, select, reserve, insertHold, key, shardNo,
+                                        statements, duplicates, rollbacks);
+                            } else {
+                                insertFirst(c, selectLocked, reserve, release, insertHold, key, shardNo,
+                                        statements, duplicates);
+                            }
+                            ops.increment();
+                        }
+                    }
+                    return null;
+                });
+            }
+            window[0] = System.currentTimeMillis();
+            window[1] = window[0] + RUN_MILLIS;
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(RUN_MILLIS * 4, TimeUnit.MILLISECONDS)).isTrue();
+        }
+        return new Result(ops.sum() * 1000.0 / RUN_MILLIS, (double) statements.sum() / Math.max(1, ops.sum()),
+                duplicates.sum(), rollbacks.sum());
+    }
+
+    private static void selectFirst(Connection c, PreparedStatement select, PreparedStatement reserve,
+                                     PreparedStatement insertHold, String key, int shardNo,
+                                     LongAdder statements, LongAdder duplicates, LongAdder rollbacks)
+            throws SQLException {
+        statements.increment();
+        if (exists(select, key)) {
+            c.commit();
+            return;
+        }
+        reserve.setInt(1, shardNo);
+        statements.increment();
+        reserve.executeUpdate();
+        try {
+            insertHold.setInt(1, shardNo);
+            insertHold.setString(2, key);
+            statements.increment();
+            insertHold.executeUpdate();
+            c.commit();
+        } catch (SQLIntegrityConstraintViolationException dup) {
+            duplicates.increment();
+            rollbacks.increment();
+            c.rollback();
+            statements.increment();
+            assertThat(exists(select, key)).isTrue();
+            c.commit();
+        }
+    }
+
+    private static void insertFirst(Connection c, PreparedStatement selectLocked, PreparedStatement reserve,
+                                    PreparedStatement release, PreparedStatement insertHold, String key,
+                                    int shardNo, LongAdder statements, LongAdder duplicates) throws SQLException {
+        reserve.setInt(1, shardNo);
+        statements.increment();
+        reserve.executeUpdate();
+        try {
+            insertHold.setInt(1, shardNo);
+            insertHold.setString(2, key);
+            statements.increment();
+            insertHold.executeUpdate();
+        } catch (SQLIntegrityConstraintViolationException dup) {
+            duplicates.increment();
+            release.setInt(1, shardNo);
+            statements.increment();
+            release.executeUpdate();
+            statements.increment();
+            assertThat(exists(selectLocked, key)).isTrue();
+        }
+        c.commit();
+    }
+
+    private static boolean exists(PreparedStatement select, String key) throws SQLException {
+        select.setString(1, key);
+        try (ResultSet rs = select.executeQuery()) {
+            return rs.next();
+        }
+    }
+
+    private record Result(double opsPerSecond, double statementsPerOp, long duplicates, long rollbacks) {
+    }
+
+    private static void createTables() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("drop table if exists bench_idem_holds");
+            s.execute("drop table if exists bench_idem_shards");
+            s.execute("""
+                    create table bench_idem_shards (
+                      shard_no INT NOT NULL,
+                      capacity INT NOT NULL,
+                      held_quantity INT NOT NULL DEFAULT 0,
+                      PRIMARY KEY (shard_no)
+                    )
+                    """);
+            s.execute("""
+                    create table bench_idem_holds (
+                      id BIGINT NOT NULL AUTO_INCREMENT,
+                      shard_no INT NOT NULL,
+                      idempotency_key VARCHAR(80) NOT NULL,
+                      PRIMARY KEY (id),
+                      UNIQUE KEY uk_bench_idem_holds_key (idempotency_key)
+                    )
+                    """);
+        }
+    }
+
+    private static void reset() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("truncate table bench_idem_holds");
+            s.execute("delete from bench_idem_shards");
+            for (int shardNo = 1; shardNo <= SHARDS; shardNo++) {
+                s.execute("insert into bench_idem_shards (shard_no, capacity) values ("
+                        + shardNo + ", " + (Integer.MAX_VALUE / SHARDS) + ")");
+            }
+        }
+    }
+
+    private static void dropTables() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("drop table if exists bench_idem_holds");
+            s.execute("drop table if exists bench_idem_shards");
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getenv("TICKET_BENCH_JDBC_URL"),
+                System.getenv("TICKET_BENCH_USER"),
+                System.getenv("TICKET_BENCH_PASSWORD"));
+    }
+}
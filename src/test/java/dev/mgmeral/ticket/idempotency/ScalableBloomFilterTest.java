@@ -0,0 +1,49 @@
+package dev.mgmeral.ticket.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissAddedKeys_evenPastInitialCapacity() {
+        var filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("hold-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("hold-" + i)).isTrue();
+        }
+        assertThat(filter.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    void mightContain_shouldStayUnderTargetFalsePositiveRate_whileGrowing() {
+        var filter = new ScalableBloomFilter(1_000, 0.01);
+        for (int i = 0; i < 20_000; i++) {
+            filter.put("known-" + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("unknown-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertThat((double) falsePositives / probes).isLessThan(0.01);
+        assertThat(filter.expectedFpp()).isLessThan(0.01);
+        assertThat(filter.memoryBytes()).isPositive();
+    }
+
+    @Test
+    void emptyFilter_shouldContainNothing() {
+        var filter = new ScalableBloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("anything")).isFalse();
+        assertThat(filter.expectedFpp()).isZero();
+    }
+}
@@ -0,0 +1,67 @@
+package dev.mgmeral.ticket.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void advance_shouldFireAtDeadlineTick_onEveryLevel() {
+        // tick 10ms, 4 slots, 2 levels: level 0 covers 40ms, level 1 covers 160ms, the rest overflows
+        var wheel = new HierarchicalTimingWheel(10, 4, 2, 0);
+        wheel.add(1, 30);
+        wheel.add(2, 130);
+        wheel.add(3, 1_000);
+
+        assertThat(wheel.advance(29)).isEmpty();
+        assertThat(wheel.advance(30)).containsExactly(1L);
+        assertThat(wheel.advance(129)).isEmpty();
+        assertThat(wheel.advance(130)).containsExactly(2L);
+        assertThat(wheel.advance(999)).isEmpty();
+        assertThat(wheel.advance(1_000)).containsExactly(3L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void add_shouldFireOnNextTick_whenAlreadyDue() {
+        var wheel = new HierarchicalTimingWheel(100, 8, 3, 1_000);
+        wheel.add(7, 500);
+
+        assertThat(wheel.advance(1_099)).isEmpty();
+        assertThat(wheel.advance(1_100)).containsExactly(7L);
+    }
+
+    @Test
+    void advance_shouldFireEachIdExactlyOnce_atItsTick() {
+        long tickMs = 10;
+        var wheel = new HierarchicalTimingWheel(tickMs, 8, 2, 0);
+        var random = new Random(42);
+        Map<Long, Long> dueTick = new HashMap<>();
+
+        long now = 0;
+        for (long id = 0; id < 2_000; id++) {
+            if (id % 20 == 0) {
+                now += tickMs;
+                for (long fired : wheel.advance(now)) {
+                    assertThat(dueTick.remove(fired)).isEqualTo(now / tickMs);
+                }
+            }
+            long deadline = now + random.nextInt(5_000);
+            wheel.add(id, deadline);
+            dueTick.put(id, Math.max(deadline / tickMs, now / tickMs + 1));
+        }
+        while (!dueTick.isEmpty()) {
+            now += tickMs;
+            for (long fired : wheel.advance(now)) {
+                assertThat(dueTick.remove(fired)).isEqualTo(now / tickMs);
+            }
+        }
+
+        assertThat(wheel.size()).isZero();
+    }
+}
@@ -0,0 +1,97 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.entity.Hold;
+import dev.mgmeral.ticket.exception.HoldAdmissionTimeoutException;
+import dev.mgmeral.ticket.model.HoldCreateRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HoldAdmissionQueueTest {
+
+    @Test
+    void submit_shouldBatchConcurrentRequests_andHandEachCallerItsOwnOutcome() throws Exception {
+        HoldBatchWriter writer = mock(HoldBatchWriter.class);
+        CountDownLatch firstBatchEntered = new CountDownLatch(1);
+        CountDownLatch releaseFirstBatch = new CountDownLatch(1);
+
+        when(writer.write(eq(1L), anyList())).thenAnswer(inv -> {
+            List<HoldCreateRequest> requests = inv.getArgument(1);
+            if (firstBatchEntered.getCount() > 0) {
+                firstBatchEntered.countDown();
+                releaseFirstBatch.await(5, TimeUnit.SECONDS);
+            }
+            return requests.stream()
+                    .map(r -> new HoldBatchWriter.Outcome(Hold.builder().idempotencyKey(r.idempotencyKey()).build(), 0))
+                    .toList();
+        });
+
+        var queue = new HoldAdmissionQueue(writer, true, 2, 100, 5_000);
+        ExecutorService callers = Executors.newFixedThreadPool(21);
+        try {
+            Future<HoldBatchWriter.Outcome> first = callers.submit(() -> queue.submit(request("k-0")));
+            assertThat(firstBatchEntered.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // queued while the writer is busy with the first batch
+            List<Future<HoldBatchWriter.Outcome>> rest = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                String key = "k-" + i;
+                rest.add(callers.submit(() -> queue.submit(request(key))));
+            }
+            Thread.sleep(200);
+            releaseFirstBatch.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS).hold().getIdempotencyKey()).isEqualTo("k-0");
+            for (int i = 0; i < rest.size(); i++) {
+                assertThat(rest.get(i).get(5, TimeUnit.SECONDS).hold().getIdempotencyKey()).isEqualTo("k-" + (i + 1));
+            }
+
+            // the writer drops the queue once it finds it empty
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (queue.queuedSeances() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(queue.queuedSeances()).isZero();
+        } finally {
+            callers.shutdownNow();
+            queue.destroy();
+        }
+
+        verify(writer, atMost(3)).write(eq(1L), anyList());
+    }
+
+    @Test
+    void submit_shouldTimeOut_whenWriterDoesNotAnswerInTime() throws Exception {
+        HoldBatchWriter writer = mock(HoldBatchWriter.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(writer.write(eq(1L), anyList())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+
+        var queue = new HoldAdmissionQueue(writer, true, 1, 100, 50);
+        try {
+            assertThatThrownBy(() -> queue.submit(request("slow")))
+                    .isInstanceOf(HoldAdmissionTimeoutException.class);
+        } finally {
+            release.countDown();
+            queue.destroy();
+        }
+    }
+
+    private static HoldCreateRequest request(String idempotencyKey) {
+        return new HoldCreateRequest(7L, 1L, 1, idempotencyKey);
+    }
+}
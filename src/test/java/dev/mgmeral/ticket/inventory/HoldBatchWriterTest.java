@@ -0,0 +1,153 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.entity.Hold;
+import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.model.HoldCreateRequest;
+import dev.mgmeral.ticket.repository.HoldRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldBatchWriterTest {
+
+    @Mock
+    HoldRepository holdRepository;
+    @Mock
+    SeanceInventory seanceInventory;
+    @Mock
+    SeanceCapacityLedger capacityLedger;
+    @Mock
+    HoldExpiryWheel expiryWheel;
+
+    @InjectMocks
+    HoldBatchWriter writer;
+
+    @Captor
+    ArgumentCaptor<List<Hold>> holdsCaptor;
+
+    @Test
+    void write_shouldReserveBatchOnce_andInsertAllHolds() {
+        var counters = new SeanceCounters(10, 4, 0);
+        when(capacityLedger.get(eq(1L))).thenReturn(counters);
+        when(seanceInventory.reserve(eq(1L), eq(1), eq(5))).thenReturn(SeanceInventory.SEANCE_ROW);
+
+        var outcomes = writer.write(1L, List.of(request("a", 2), request("b", 3)));
+
+        assertThat(outcomes).allMatch(HoldBatchWriter.Outcome::admitted);
+        assertThat(outcomes).extracting(HoldBatchWriter.Outcome::available).containsOnly(1L);
+        assertThat(counters.held()).isEqualTo(5);
+
+        verify(holdRepository).insertAllNew(holdsCaptor.capture());
+        assertThat(holdsCaptor.getValue())
+                .extracting(Hold::getIdempotencyKey, Hold::getQuantity, Hold::getStatus)
+                .containsExactly(
+                        tuple("a", 2, HoldStatus.HELD),
+                        tuple("b", 3, HoldStatus.HELD));
+
+        verify(capacityLedger).releaseOnRollback(same(counters), eq(5));
+        verify(seanceInventory).reserve(eq(1L), eq(1), eq(5));
+        verify(expiryWheel).scheduleAfterCommit(same(holdsCaptor.getValue()));
+        verifyNoMoreInteractions(seanceInventory);
+    }
+
+    @Test
+    void write_shouldRejectWhatDoesNotFit_andKeepTheRest() {
+        when(capacityLedger.get(eq(1L))).thenReturn(new SeanceCounters(4, 0, 0));
+        when(seanceInventory.reserve(eq(1L), eq(1), eq(4))).thenReturn(SeanceInventory.SEANCE_ROW);
+
+        var outcomes = writer.write(1L, List.of(request("a", 3), request("b", 2), request("c", 1)));
+
+        assertThat(outcomes).extracting(HoldBatchWriter.Outcome::admitted).containsExactly(true, false, true);
+        assertThat(outcomes.get(1).available()).isZero();
+    }
+
+    @Test
+    void write_shouldShareOutcome_forRepeatedIdempotencyKey() {
+        when(capacityLedger.get(eq(1L))).thenReturn(new SeanceCounters(10, 0, 0));
+        when(seanceInventory.reserve(eq(1L), eq(1), eq(2))).thenReturn(SeanceInventory.SEANCE_ROW);
+
+        var outcomes = writer.write(1L, List.of(request("a", 2), request("a", 2)));
+
+        assertThat(outcomes.get(0).hold()).isSameAs(outcomes.get(1).hold());
+        verify(holdRepository).insertAllNew(holdsCaptor.capture());
+        assertThat(holdsCaptor.getValue()).hasSize(1);
+    }
+
+    @Test
+    void write_shouldRecordShard_whenSeanceIsSharded() {
+        when(capacityLedger.get(eq(1L))).thenReturn(new SeanceCounters(100, 0, 0, 8));
+        when(seanceInventory.reserve(eq(1L), eq(8), eq(3))).thenReturn(6);
+
+        var outcomes = writer.write(1L, List.of(request("a", 1), request("b", 2)));
+
+        assertThat(outcomes).extracting(o -> o.hold().getShardNo()).containsOnly(6);
+    }
+
+    @Test
+    void write_shouldFallBackToOneByOne_whenDbRejectsTheBatch() {
+        when(capacityLedger.get(eq(1L))).thenReturn(new SeanceCounters(10, 0, 0));
+        when(seanceInventory.reserve(eq(1L), eq(1), eq(5))).thenReturn(SeanceInventory.NO_CAPACITY);
+
+        var refreshed = new SeanceCounters(10, 7, 0);
+        when(capacityLedger.refresh(eq(1L))).thenReturn(refreshed);
+        when(seanceInventory.reserve(eq(1L), eq(1), eq(3))).thenReturn(SeanceInventory.SEANCE_ROW);
+
+        var outcomes = writer.write(1L, List.of(request("a", 3), request("b", 2)));
+
+        assertThat(outcomes).extracting(HoldBatchWriter.Outcome::admitted).containsExactly(true, false);
+        assertThat(outcomes.get(1).available()).isZero();
+        assertThat(refreshed.held()).isEqualTo(3);
+
+        verify(capacityLedger).releaseOnRollback(same(refreshed), eq(3));
+        verify(holdRepository).insertAllNew(holdsCaptor.capture());
+        assertThat(holdsCaptor.getValue()).extracting(Hold::getIdempotencyKey).containsExactly("a");
+    }
+
+    @Test
+    void write_shouldReplayExistingHold_andGiveBackReservation_whenKeyIsTaken() {
+        var counters = new SeanceCounters(10, 0, 0);
+        when(capacityLedger.get(eq(1L))).thenReturn(counters);
+        when(seanceInventory.reserve(eq(1L), eq(1), eq(5))).thenReturn(SeanceInventory.SEANCE_ROW);
+        when(holdRepository.insertAllNew(anyList()))
+                .thenAnswer(inv -> List.of(inv.<List<Hold>>getArgument(0).get(1)));
+        var existing = Hold.builder().id(42L).idempotencyKey("b").quantity(3).status(HoldStatus.HELD).build();
+        when(holdRepository.findWithLockByIdempotencyKeyIn(eq(List.of("b")))).thenReturn(List.of(existing));
+
+        var outcomes = writer.write(1L, List.of(request("a", 2), request("b", 3)));
+
+        assertThat(outcomes).extracting(HoldBatchWriter.Outcome::replayed).containsExactly(false, true);
+        assertThat(outcomes.get(1).hold()).isSameAs(existing);
+
+        verify(seanceInventory).release(eq(1L), eq(SeanceInventory.SEANCE_ROW), eq(3));
+        verify(capacityLedger).releaseAfterCommit(eq(1L), eq(3));
+        verify(expiryWheel).scheduleAfterCommit(holdsCaptor.capture());
+        assertThat(holdsCaptor.getValue()).extracting(Hold::getIdempotencyKey).containsExactly("a");
+    }
+
+    @Test
+    void write_shouldNotTouchDb_whenNothingIsAdmitted() {
+        when(capacityLedger.get(eq(1L))).thenReturn(new SeanceCounters(2, 2, 0));
+
+        var outcomes = writer.write(1L, List.of(request("a", 1)));
+
+        assertThat(outcomes.get(0).admitted()).isFalse();
+        verifyNoInteractions(seanceInventory, holdRepository, expiryWheel);
+    }
+
+    private static HoldCreateRequest request(String idempotencyKey, int quantity) {
+        return new HoldCreateRequest(7L, 1L, quantity, idempotencyKey);
+    }
+}
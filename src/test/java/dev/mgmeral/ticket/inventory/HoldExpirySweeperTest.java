@@ -0,0 +1,67 @@
+package dev.mgmeral.ticket.inventory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HoldExpirySweeperTest {
+
+    private final HoldExpirer holdExpirer = mock(HoldExpirer.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private HoldExpirySweeper sweeper;
+
+    @AfterEach
+    void tearDown() {
+        sweeper.destroy();
+    }
+
+    @Test
+    void sweep_shouldExpireInChunks_untilAShortChunk() {
+        Instant now = Instant.parse("2026-01-01T10:00:00Z");
+        when(holdExpirer.expireChunk(eq(now), eq(100))).thenReturn(100, 100, 37);
+        sweeper = new HoldExpirySweeper(holdExpirer, registry, 100, 1, 0, 10, 1_000);
+
+        assertThat(sweeper.sweep(now)).isEqualTo(237);
+
+        verify(holdExpirer, times(3)).expireChunk(eq(now), eq(100));
+        assertThat(registry.counter("hold_expiry_sweep_expired_total").count()).isEqualTo(237.0);
+        assertThat(registry.timer("hold_expiry_sweep_chunk_seconds").count()).isEqualTo(3);
+        assertThat(registry.get("hold_expiry_sweep_chunk_size").gauge().value()).isEqualTo(100.0);
+    }
+
+    @Test
+    void sweep_shouldPause_whileRequestsWaitForAConnection() throws Exception {
+        Instant now = Instant.parse("2026-01-01T10:00:00Z");
+        var waiting = new AtomicInteger(3);
+        var waitingAtChunk = new AtomicInteger(-1);
+        Gauge.builder("db_bulkhead_waiting", waiting, AtomicInteger::get).register(registry);
+        when(holdExpirer.expireChunk(eq(now), eq(100))).thenAnswer(inv -> {
+            waitingAtChunk.set(waiting.get());
+            return 0;
+        });
+        sweeper = new HoldExpirySweeper(holdExpirer, registry, 100, 1, 0, 10, 5_000);
+
+        Thread drainQueue = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException ignored) {
+            }
+            waiting.set(0);
+        });
+        drainQueue.start();
+
+        assertThat(sweeper.sweep(now)).isZero();
+        drainQueue.join();
+
+        assertThat(waitingAtChunk.get()).isZero();
+        assertThat(registry.counter("hold_expiry_sweep_throttled_total").count()).isPositive();
+    }
+}
@@ -0,0 +1,85 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.job.HoldExpiryJob;
+import dev.mgmeral.ticket.job.JobLeases;
+import dev.mgmeral.ticket.repository.HoldRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HoldExpiryWheelTest {
+
+    private final HoldRepository holdRepository = mock(HoldRepository.class);
+    private final HoldExpirer holdExpirer = mock(HoldExpirer.class);
+    private final HoldExpirySweeper sweeper = mock(HoldExpirySweeper.class);
+    private final JobLeases jobLeases = mock(JobLeases.class);
+    private final HoldExpiryWheel wheel =
+            new HoldExpiryWheel(holdRepository, holdExpirer, sweeper, jobLeases, true, 100, 64, 3);
+
+    @AfterEach
+    void stop() {
+        wheel.destroy();
+    }
+
+    @Test
+    void start_shouldLeaveSweepAndRebuildToLeaseHolder() {
+        when(jobLeases.isLeader(HoldExpiryJob.LEASE)).thenReturn(false);
+
+        wheel.start();
+
+        verifyNoInteractions(sweeper, holdRepository);
+    }
+
+    @Test
+    void start_shouldRebuildInPages_afterSweep_whenLeader() {
+        when(jobLeases.isLeader(HoldExpiryJob.LEASE)).thenReturn(true);
+        Instant at = Instant.now().plusSeconds(300);
+        List<HoldRepository.PendingExpiry> full = LongStream.rangeClosed(1, 500).mapToObj(id -> pending(id, at)).toList();
+        when(holdRepository.findPendingExpiriesAfter(eq(HoldStatus.HELD), eq(Instant.EPOCH), eq(0L), any(Limit.class)))
+                .thenReturn(full);
+        when(holdRepository.findPendingExpiriesAfter(eq(HoldStatus.HELD), eq(at), eq(500L), any(Limit.class)))
+                .thenReturn(List.of(pending(501, at)));
+
+        wheel.start();
+
+        var order = inOrder(sweeper, holdRepository);
+        order.verify(sweeper).sweep(any());
+        order.verify(holdRepository).findPendingExpiriesAfter(eq(HoldStatus.HELD), eq(Instant.EPOCH), eq(0L), eq(Limit.of(500)));
+        order.verify(holdRepository).findPendingExpiriesAfter(eq(HoldStatus.HELD), eq(at), eq(500L), eq(Limit.of(500)));
+        verifyNoMoreInteractions(holdRepository);
+    }
+
+    @Test
+    void start_shouldNotFailStartup_whenDbIsDown() {
+        when(jobLeases.isLeader(HoldExpiryJob.LEASE)).thenReturn(true);
+        when(sweeper.sweep(any())).thenThrow(new QueryTimeoutException("down"));
+
+        assertThatCode(wheel::start).doesNotThrowAnyException();
+        verifyNoInteractions(holdRepository);
+    }
+
+    private static HoldRepository.PendingExpiry pending(long id, Instant expiresAt) {
+        return new HoldRepository.PendingExpiry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Instant getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
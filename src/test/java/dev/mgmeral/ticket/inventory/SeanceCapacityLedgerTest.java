@@ -0,0 +1,129 @@
+package dev.mgmeral.ticket.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeanceCapacityLedgerTest {
+
+    @Mock
+    SeanceInventory seanceInventory;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void snapshot_shouldServeFromEntry_andCountHitsAndMisses() {
+        var ledger = new SeanceCapacityLedger(seanceInventory, registry, 60_000, 60_000, 60_000);
+        when(seanceInventory.load(eq(1L))).thenReturn(new SeanceCounters(10, 2, 3));
+
+        assertThat(ledger.snapshot(1L).available()).isEqualTo(5);
+        assertThat(ledger.snapshot(1L).available()).isEqualTo(5);
+
+        verify(seanceInventory, times(1)).load(eq(1L));
+        assertThat(lookups("hit")).isEqualTo(1);
+        assertThat(lookups("miss")).isEqualTo(1);
+        assertThat(registry.get("capacity_ledger_staleness_seconds").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldReload_onceEntryIsOlderThanMaxAge_whileSnapshotStillAcceptsIt() {
+        var ledger = new SeanceCapacityLedger(seanceInventory, registry, 0, 60_000, 60_000);
+        when(seanceInventory.load(eq(1L))).thenReturn(new SeanceCounters(10, 0, 0));
+
+        ledger.get(1L);
+        ledger.snapshot(1L);
+        ledger.get(1L);
+
+        verify(seanceInventory, times(2)).load(eq(1L));
+    }
+
+    @Test
+    void snapshots_shouldLoadOnlyMisses_inOneCall_andKeepRequestOrder() {
+        var ledger = new SeanceCapacityLedger(seanceInventory, registry, 60_000, 60_000, 60_000);
+        when(seanceInventory.load(eq(2L))).thenReturn(new SeanceCounters(10, 1, 0));
+        when(seanceInventory.loadAll(eq(List.of(3L, 1L, 9L)))).thenReturn(Map.of(
+                1L, new SeanceCounters(10, 0, 0),
+                3L, new SeanceCounters(10, 5, 5)));
+        ledger.snapshot(2L);
+
+        var snapshots = ledger.snapshots(List.of(3L, 2L, 1L, 9L));
+
+        assertThat(snapshots).containsOnlyKeys(3L, 2L, 1L);
+        assertThat(snapshots.keySet()).containsExactly(3L, 2L, 1L);
+        assertThat(snapshots.get(2L).sold()).isEqualTo(1);
+        assertThat(snapshots.get(3L).available()).isZero();
+
+        ledger.snapshot(3L);
+        verify(seanceInventory, times(1)).loadAll(any());
+        verify(seanceInventory, never()).load(eq(3L));
+        assertThat(lookups("miss")).isEqualTo(4);
+    }
+
+    @Test
+    void writes_shouldApplyDeltaToCachedEntry() {
+        var ledger = new SeanceCapacityLedger(seanceInventory, registry, 60_000, 60_000, 60_000);
+        when(seanceInventory.load(eq(1L))).thenReturn(new SeanceCounters(10, 0, 4));
+
+        ledger.releaseAfterCommit(1L, 1);
+        ledger.sellAfterCommit(1L, 2);
+
+        assertThat(ledger.snapshot(1L).available()).isEqualTo(6);
+
+        ledger.releaseAfterCommit(1L, 1);
+        ledger.sellAfterCommit(1L, 2);
+
+        var snapshot = ledger.snapshot(1L);
+        assertThat(snapshot.sold()).isEqualTo(2);
+        assertThat(snapshot.held()).isEqualTo(1);
+        assertThat(registry.get("capacity_ledger_delta_updates_total").tag("op", "release").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void evictIdleAndRefresh_shouldCountInvalidations() {
+        var ledger = new SeanceCapacityLedger(seanceInventory, registry, 60_000, 60_000, 0);
+        when(seanceInventory.load(eq(1L))).thenReturn(new SeanceCounters(10, 0, 0));
+
+        ledger.get(1L);
+        ledger.refresh(1L);
+        ledger.evictIdle();
+        ledger.evictIdle();
+        ledger.get(1L);
+
+        verify(seanceInventory, times(3)).load(eq(1L));
+
+        assertThat(registry.get("capacity_ledger_invalidations_total").tag("reason", "refresh").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("capacity_ledger_invalidations_total").tag("reason", "evict").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void evictIdle_shouldKeepEntriesReloadedWithinIdle() {
+        var ledger = new SeanceCapacityLedger(seanceInventory, registry, 60_000, 60_000, 60_000);
+        when(seanceInventory.load(eq(1L))).thenReturn(new SeanceCounters(10, 0, 0));
+
+        ledger.get(1L);
+        ledger.evictIdle();
+        ledger.get(1L);
+
+        verify(seanceInventory, times(1)).load(eq(1L));
+        assertThat(registry.get("capacity_ledger_invalidations_total").tag("reason", "evict").counter().count())
+                .isZero();
+    }
+
+    private double lookups(String result) {
+        return registry.get("capacity_ledger_lookups_total").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,82 @@
+package dev.mgmeral.ticket.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeanceCountersTest {
+
+    @Test
+    void tryReserve_shouldAdmitUntilCapacity_andRejectAfterwards() {
+        var counters = new SeanceCounters(10, 4, 2);
+
+        assertThat(counters.tryReserve(3)).isTrue();
+        assertThat(counters.tryReserve(2)).isFalse();
+        assertThat(counters.tryReserve(1)).isTrue();
+
+        assertThat(counters.held()).isEqualTo(6);
+        assertThat(counters.sold()).isEqualTo(4);
+        assertThat(counters.available()).isZero();
+    }
+
+    @Test
+    void releaseAndSell_shouldMoveHeldQuantity() {
+        var counters = new SeanceCounters(10, 0, 0);
+        counters.tryReserve(5);
+
+        counters.sell(2);
+        counters.release(1);
+
+        var snapshot = counters.snapshot();
+        assertThat(snapshot.sold()).isEqualTo(2);
+        assertThat(snapshot.held()).isEqualTo(2);
+        assertThat(snapshot.available()).isEqualTo(6);
+    }
+
+    @Test
+    void release_shouldNotGoBelowZero() {
+        var counters = new SeanceCounters(10, 3, 1);
+
+        counters.release(5);
+
+        assertThat(counters.held()).isZero();
+        assertThat(counters.sold()).isEqualTo(3);
+    }
+
+    @Test
+    void tryReserve_shouldNeverOversell_underConcurrency() throws Exception {
+        int capacity = 1_000;
+        var counters = new SeanceCounters(capacity, 0, 0);
+        var admitted = new AtomicInteger();
+        var start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            for (int t = 0; t < 8; t++) {
+                pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 500; i++) {
+                        if (counters.tryReserve(1)) {
+                            admitted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(admitted.get()).isEqualTo(capacity);
+        assertThat(counters.held()).isEqualTo(capacity);
+        assertThat(counters.available()).isZero();
+    }
+}
@@ -0,0 +1,182 @@
+package dev.mgmeral.ticket.inventory;
+
+import dev.mgmeral.ticket.entity.Seance;
+import dev.mgmeral.ticket.entity.SeanceShard;
+import dev.mgmeral.ticket.repository.SeanceRepository;
+import dev.mgmeral.ticket.repository.SeanceShardRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SeanceInventoryTest {
+
+    @Mock
+    SeanceRepository seanceRepository;
+    @Mock
+    SeanceShardRepository shardRepository;
+
+    @InjectMocks
+    SeanceInventory inventory;
+
+    @Captor
+    ArgumentCaptor<List<SeanceShard>> shardsCaptor;
+
+    @Test
+    void initialize_shouldSplitCapacityOverShards() {
+        Seance seance = new Seance();
+        seance.setId(7L);
+        seance.setCapacity(10);
+        seance.setInventoryShards(4);
+
+        inventory.initialize(seance);
+
+        verify(shardRepository).saveAll(shardsCaptor.capture());
+        assertThat(shardsCaptor.getValue())
+                .extracting(SeanceShard::getShardNo, SeanceShard::getCapacity)
+                .containsExactly(
+                        tuple(1, 3),
+                        tuple(2, 3),
+                        tuple(3, 2),
+                        tuple(4, 2));
+    }
+
+    @Test
+    void initialize_shouldDoNothing_whenNotSharded() {
+        Seance seance = new Seance();
+        seance.setCapacity(10);
+
+        inventory.initialize(seance);
+
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    void reserve_shouldUseSeanceRow_whenNotSharded() {
+        when(seanceRepository.reserveHeld(eq(1L), eq(2))).thenReturn(1);
+
+        assertThat(inventory.reserve(1L, 1, 2)).isEqualTo(SeanceInventory.SEANCE_ROW);
+
+        verifyNoInteractions(shardRepository);
+    }
+
+    @Test
+    void reserve_shouldTakeCandidateShard() {
+        when(shardRepository.findShardNosWithAvailable(eq(1L), eq(2))).thenReturn(List.of(3));
+        when(shardRepository.reserveHeld(eq(1L), eq(3), eq(2))).thenReturn(1);
+
+        assertThat(inventory.reserve(1L, 4, 2)).isEqualTo(3);
+
+        verify(shardRepository, never()).findWithLockBySeanceIdOrderByShardNo(any());
+        verifyNoInteractions(seanceRepository);
+    }
+
+    @Test
+    void reserve_shouldBorrowFromOtherShards_whenNoSingleShardFits() {
+        SeanceShard s1 = shard(1, 5, 4, 0);
+        SeanceShard s2 = shard(2, 5, 2, 1);
+        SeanceShard s3 = shard(3, 5, 3, 0);
+
+        when(shardRepository.findShardNosWithAvailable(eq(1L), eq(4))).thenReturn(List.of());
+        when(shardRepository.findWithLockBySeanceIdOrderByShardNo(eq(1L))).thenReturn(List.of(s1, s2, s3));
+        when(shardRepository.reserveHeld(eq(1L), eq(2), eq(4))).thenReturn(1);
+
+        assertThat(inventory.reserve(1L, 3, 4)).isEqualTo(2);
+
+        assertThat(s2.getCapacity()).isEqualTo(7);
+        assertThat(s1.getCapacity() + s2.getCapacity() + s3.getCapacity()).isEqualTo(15);
+        assertThat(s1.available()).isGreaterThanOrEqualTo(0);
+        assertThat(s3.available()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void reserve_shouldReject_whenShardsTogetherCannotFit() {
+        when(shardRepository.findShardNosWithAvailable(eq(1L), eq(3))).thenReturn(List.of());
+        when(shardRepository.findWithLockBySeanceIdOrderByShardNo(eq(1L)))
+                .thenReturn(List.of(shard(1, 5, 4, 0), shard(2, 5, 4, 0)));
+
+        assertThat(inventory.reserve(1L, 2, 3)).isEqualTo(SeanceInventory.NO_CAPACITY);
+
+        verify(shardRepository, never()).reserveHeld(any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void releaseAndSell_shouldTargetTheHoldsShard() {
+        inventory.release(1L, SeanceInventory.SEANCE_ROW, 2);
+        inventory.sell(1L, 3, 2);
+
+        verify(seanceRepository).releaseHeld(eq(1L), eq(2));
+        verify(shardRepository).sellHeld(eq(1L), eq(3), eq(2));
+        verifyNoMoreInteractions(seanceRepository, shardRepository);
+    }
+
+    @Test
+    void loadAll_shouldSumShardsOfShardedSeances_inOneGroupedQuery() {
+        var plain = row(1L, 10, 2, 1, 1);
+        var sharded = row(2L, 20, 0, 0, 4);
+        when(seanceRepository.findCountersByIdIn(eq(List.of(1L, 2L, 9L)))).thenReturn(List.of(plain, sharded));
+        var totals = mock(SeanceShardRepository.SeanceShardTotals.class);
+        when(totals.getSeanceId()).thenReturn(2L);
+        when(totals.getSold()).thenReturn(6L);
+        when(totals.getHeld()).thenReturn(3L);
+        when(shardRepository.sumBySeanceIdIn(eq(Set.of(2L)))).thenReturn(List.of(totals));
+
+        var counters = inventory.loadAll(List.of(1L, 2L, 9L));
+
+        assertThat(counters).containsOnlyKeys(1L, 2L);
+        assertThat(counters.get(1L).available()).isEqualTo(7);
+        assertThat(counters.get(2L).available()).isEqualTo(11);
+        assertThat(counters.get(2L).shards()).isEqualTo(4);
+    }
+
+    @Test
+    void load_shouldReadCountersWithProjection_notFromCachedEntity() {
+        var plain = row(1L, 10, 2, 1, 1);
+        when(seanceRepository.findCountersByIdIn(eq(List.of(1L)))).thenReturn(List.of(plain));
+
+        assertThat(inventory.load(1L).available()).isEqualTo(7);
+
+        when(seanceRepository.findCountersByIdIn(eq(List.of(9L)))).thenReturn(List.of());
+        assertThatThrownBy(() -> inventory.load(9L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessageContaining("Seance not found: 9");
+
+        verify(seanceRepository, never()).findById(any());
+    }
+
+    private static SeanceRepository.SeanceCounterRow row(Long id, int capacity, long sold, long held, int shards) {
+        var row = mock(SeanceRepository.SeanceCounterRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getCapacity()).thenReturn(capacity);
+        lenient().when(row.getSold()).thenReturn(sold);
+        lenient().when(row.getHeld()).thenReturn(held);
+        lenient().when(row.getShards()).thenReturn(shards);
+        return row;
+    }
+
+    private static SeanceShard shard(int shardNo, int capacity, int sold, int held) {
+        return SeanceShard.builder()
+                .seanceId(1L)
+                .shardNo(shardNo)
+                .capacity(capacity)
+                .soldQuantity(sold)
+                .heldQuantity(held)
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package dev.mgmeral.ticket.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hold throughput against a real MySQL for 1..16 inventory shards of a single seance.
+ * <p>
+ * Every transaction runs the same statements as {@code POST /holds} on the shard path: a conditional
+ * update on one {@code seance_shards}-like row plus a hold insert, so the row lock is held until commit.
+ * Works on its own {@code bench_*} tables and only runs when {@code TICKET_BENCH_JDBC_URL} is set, e.g.
+ * <pre>
+ * TICKET_BENCH_JDBC_URL=jdbc:mysql://localhost:3306/ticket TICKET_BENCH_USER=ticket TICKET_BENCH_PASSWORD=ticket \
+ *   mvn test -Dtest=ShardedHoldThroughputBenchmarkTest
+ * </pre>
+ */
+@EnabledIfEnvironmentVariable(named = "TICKET_BENCH_JDBC_URL", matches = ".+")
+class ShardedHoldThroughputBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final long RUN_MILLIS = 5_000;
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8, 16};
+
+    @Test
+    void holdThroughput_shouldScaleWithShardCount() throws Exception {
+        createTables();
+        try {
+            List<String> lines = new ArrayList<>();
+            for (int shards : SHARD_COUNTS) {
+                resetShards(shards);
+                double opsPerSecond = run(shards);
+                lines.add(String.format("shards=%-2d holds/s=%.0f", shards, opsPerSecond));
+                assertThat(opsPerSecond).isPositive();
+            }
+            lines.forEach(System.out::println);
+        } finally {
+            dropTables();
+        }
+    }
+
+    private double run(int shards) throws Exception {
+        LongAdder committed = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long[] window = new long[2];
+
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                pool.submit(() -> {
+                    try (Connection c = connect();
+                         PreparedStatement reserve = c.prepareStatement("""
+                                 update bench_seance_shards
+                                    set held_quantity = held_quantity + 1
+                                  where seance_id = 1
+                                    and shard_no = ?
+                                    and capacity - sold_quantity - held_quantity >= 1
+                                 """);
+                         PreparedStatement insertHold = c.prepareStatement(
+                                 "insert into bench_holds (seance_id, shard_no, quantity) values (1, ?, 1)")) {
+                        c.setAutoCommit(false);
+                        start.await();
+                        while (System.currentTimeMillis() < window[1]) {
+                            int shardNo = 1 + ThreadLocalRandom.current().nextInt(shards);
+                            reserve.setInt(1, shardNo);
+                            if (reserve.executeUpdate() == 1) {
+                                insertHold.setInt(1, shardNo);
+                                insertHold.executeUpdate();
+                                c.commit();
+                                committed.increment();
+                            } else {
+                                c.rollback();
+                            }
+                        }
+                    }
+                    return null;
+                });
+            }
+            window[0] = System.currentTimeMillis();
+            window[1] = window[0] + RUN_MILLIS;
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(RUN_MILLIS * 4, TimeUnit.MILLISECONDS)).isTrue();
+        }
+        return committed.sum() * 1000.0 / RUN_MILLIS;
+    }
+
+    private static void createTables() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("drop table if exists bench_holds");
+            s.execute("drop table if exists bench_seance_shards");
+            s.execute("""
+                    create table bench_seance_shards (
+                      seance_id BIGINT NOT NULL,
+                      shard_no INT NOT NULL,
+                      capacity INT NOT NULL,
+                      sold_quantity INT NOT NULL DEFAULT 0,
+                      held_quantity INT NOT NULL DEFAULT 0,
+                      PRIMARY KEY (seance_id, shard_no)
+                    )
+                    """);
+            s.execute("""
+                    create table bench_holds (
+                      id BIGINT NOT NULL AUTO_INCREMENT,
+                      seance_id BIGINT NOT NULL,
+                      shard_no INT NOT NULL,
+                      quantity INT NOT NULL,
+                      PRIMARY KEY (id)
+                    )
+                    """);
+        }
+    }
+
+    private static void resetShards(int shards) throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("truncate table bench_holds");
+            s.execute("delete from bench_seance_shards");
+            for (int shardNo = 1; shardNo <= shards; shardNo++) {
+                s.execute("insert into bench_seance_shards (seance_id, shard_no, capacity) values (1, "
+                        + shardNo + ", " + (Integer.MAX_VALUE / shards) + ")");
+            }
+        }
+    }
+
+    private static void dropTables() throws SQLException {
+        try (Connection c = connect(); Statement s = c.createStatement()) {
+            s.execute("drop table if exists bench_holds");
+            s.execute("drop table if exists bench_seance_shards");
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(
+                System.getenv("TICKET_BENCH_JDBC_URL"),
+                System.getenv("TICKET_BENCH_USER"),
+                System.getenv("TICKET_BENCH_PASSWORD"));
+    }
+}
@@ -0,0 +1,73 @@
+package dev.mgmeral.ticket.job;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class JobLeasesTest {
+
+    private final JobLeaseStore store = mock(JobLeaseStore.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JobLeases leases = new JobLeases(store, registry, true, 30_000, "node-a");
+
+    @Test
+    void isLeader_shouldTakeFreshLease_onFirstCall_andNotAskAgainUntilRenewal() {
+        when(store.tryAcquire(eq("hold-expiry"), eq("node-a"), eq(30_000L)))
+                .thenReturn(new JobLeaseStore.Attempt(true, "", null, null));
+
+        assertThat(leases.isLeader("hold-expiry")).isTrue();
+        assertThat(leases.isLeader("hold-expiry")).isTrue();
+
+        verify(store, times(1)).tryAcquire(eq("hold-expiry"), eq("node-a"), eq(30_000L));
+        assertThat(registry.get("job_lease_leader").tag("lease", "hold-expiry").gauge().value()).isEqualTo(1.0);
+        assertThat(registry.counter("job_lease_acquired_total", "lease", "hold-expiry").count()).isEqualTo(1.0);
+        assertThat(registry.timer("job_lease_failover_seconds", "lease", "hold-expiry").count()).isZero();
+    }
+
+    @Test
+    void renewAll_shouldRecordFailover_whenTakingOverAnExpiredLease() {
+        Instant expiredAt = Instant.parse("2030-01-01T00:00:00Z");
+        when(store.tryAcquire(eq("hold-expiry"), eq("node-a"), eq(30_000L)))
+                .thenReturn(new JobLeaseStore.Attempt(false, "node-b", Instant.now().plusSeconds(5), null))
+                .thenReturn(new JobLeaseStore.Attempt(true, "node-b", expiredAt, expiredAt.plusSeconds(3)));
+
+        assertThat(leases.isLeader("hold-expiry")).isFalse();
+        leases.renewAll();
+        assertThat(leases.isLeader("hold-expiry")).isTrue();
+
+        var failover = registry.timer("job_lease_failover_seconds", "lease", "hold-expiry");
+        assertThat(failover.count()).isEqualTo(1);
+        assertThat(failover.totalTime(TimeUnit.SECONDS)).isEqualTo(3.0);
+    }
+
+    @Test
+    void renewAll_shouldStepDown_whenAnotherNodeHoldsTheLease() {
+        when(store.tryAcquire(eq("hold-expiry"), eq("node-a"), eq(30_000L)))
+                .thenReturn(new JobLeaseStore.Attempt(true, "", null, null))
+                .thenReturn(new JobLeaseStore.Attempt(false, "node-b", Instant.now().plusSeconds(30), null));
+
+        assertThat(leases.isLeader("hold-expiry")).isTrue();
+        leases.renewAll();
+
+        assertThat(leases.isLeader("hold-expiry")).isFalse();
+        assertThat(registry.counter("job_lease_lost_total", "lease", "hold-expiry").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void destroy_shouldHandBackHeldLeases() {
+        when(store.tryAcquire(eq("hold-expiry"), eq("node-a"), eq(30_000L)))
+                .thenReturn(new JobLeaseStore.Attempt(true, "", null, null));
+        leases.isLeader("hold-expiry");
+
+        leases.destroy();
+
+        verify(store).release(eq("hold-expiry"), eq("node-a"));
+        assertThat(leases.isLeader("hold-expiry")).isFalse();
+    }
+}
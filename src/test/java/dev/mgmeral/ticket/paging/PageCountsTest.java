@@ -0,0 +1,66 @@
+package dev.mgmeral.ticket.paging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCountsTest {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void count_shouldCountOncePerShape_untilRefreshed() {
+        PageCounts counts = new PageCounts(registry, 60_000, 600_000, 10);
+        AtomicLong calls = new AtomicLong();
+
+        assertThat(counts.count("events|a", () -> calls.incrementAndGet() * 10)).isEqualTo(10);
+        assertThat(counts.count("events|a", () -> calls.incrementAndGet() * 10)).isEqualTo(10);
+        assertThat(counts.count("events|b", () -> 7)).isEqualTo(7);
+
+        counts.refresh();
+
+        assertThat(calls.get()).isEqualTo(1);
+        assertThat(registry.get("page_count_cache_entries").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("page_count_cache_lookups_total").tag("result", "hit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refresh_shouldRecountStaleShapes_andKeepTotal_whenCountFails() {
+        PageCounts counts = new PageCounts(registry, 0, 600_000, 10);
+        AtomicLong total = new AtomicLong(5);
+        AtomicLong failing = new AtomicLong(3);
+        counts.count("seances|a", total::get);
+        counts.count("seances|b", () -> {
+            if (failing.get() < 0) {
+                throw new IllegalStateException("db down");
+            }
+            return failing.get();
+        });
+        total.set(6);
+        failing.set(-1);
+
+        counts.refresh();
+
+        assertThat(counts.count("seances|a", () -> -1)).isEqualTo(6);
+        assertThat(counts.count("seances|b", () -> -1)).isEqualTo(3);
+        assertThat(registry.get("page_count_cache_refreshes_total").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void refresh_shouldDropIdleShapes_andCountWithoutCaching_whenFull() {
+        PageCounts counts = new PageCounts(registry, 60_000, 0, 1);
+        AtomicLong calls = new AtomicLong();
+        counts.count("a", calls::incrementAndGet);
+        counts.count("b", calls::incrementAndGet);
+        counts.count("b", calls::incrementAndGet);
+        assertThat(calls.get()).isEqualTo(3);
+
+        counts.refresh();
+
+        assertThat(registry.get("page_count_cache_entries").gauge().value()).isZero();
+    }
+}
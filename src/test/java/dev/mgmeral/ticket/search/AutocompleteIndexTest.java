@@ -0,0 +1,87 @@
+package dev.mgmeral.ticket.search;
+
+import dev.mgmeral.ticket.model.AutocompleteSuggestion;
+import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.NameRow;
+import dev.mgmeral.ticket.repository.PerformerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteIndexTest {
+
+    @Mock
+    EventRepository eventRepository;
+    @Mock
+    PerformerRepository performerRepository;
+
+    AutocompleteIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new AutocompleteIndex(eventRepository, performerRepository, new SimpleMeterRegistry(), true, 3);
+    }
+
+    @Test
+    void suggest_shouldMatchAnyWordPrefix_leadingMatchesAndShortNamesFirst() {
+        List<NameRow> events = List.of(
+                row(1L, "Sezen Aksu Konseri"),
+                row(2L, "Yaz Festivali: Sezen Aksu"),
+                row(3L, "Sertab Erener"));
+        List<NameRow> performers = List.of(row(1L, "Sezen Aksu"));
+        when(eventRepository.findNamesAfter(eq(0L), any())).thenReturn(events);
+        when(performerRepository.findNamesAfter(eq(0L), any())).thenReturn(performers);
+        assertThat(index.suggest("sez", 3)).isEmpty();
+
+        index.rebuild();
+
+        assertThat(index.suggest("SEZ", 10)).extracting(AutocompleteSuggestion::name)
+                .containsExactly("Sezen Aksu", "Sezen Aksu Konseri", "Yaz Festivali: Sezen Aksu");
+        assertThat(index.suggest("se", 2)).extracting(AutocompleteSuggestion::name)
+                .containsExactly("Sezen Aksu", "Sertab Erener");
+        assertThat(index.suggest("aks", 3)).extracting(AutocompleteSuggestion::type, AutocompleteSuggestion::id)
+                .hasSize(3);
+        assertThat(index.suggest("xyz", 3)).isEmpty();
+    }
+
+    @Test
+    void writes_shouldReplaceAndRemoveNames_andRefreshCachedTops() {
+        when(eventRepository.findNamesAfter(eq(0L), any())).thenReturn(List.of());
+        when(performerRepository.findNamesAfter(eq(0L), any())).thenReturn(List.of());
+        index.rebuild();
+
+        index.putAfterCommit(AutocompleteIndex.PERFORMER, 7L, "Tarkan");
+        assertThat(index.suggest("tar", 3)).extracting(AutocompleteSuggestion::name).containsExactly("Tarkan");
+
+        index.putAfterCommit(AutocompleteIndex.PERFORMER, 7L, "Teoman");
+        assertThat(index.suggest("tar", 3)).isEmpty();
+        assertThat(index.suggest("t", 3)).extracting(AutocompleteSuggestion::name).containsExactly("Teoman");
+
+        index.removeAfterCommit(AutocompleteIndex.PERFORMER, 7L);
+        assertThat(index.suggest("t", 3)).isEmpty();
+    }
+
+    @Test
+    void suggest_shouldRejectNonPositiveLimit() {
+        assertThatThrownBy(() -> index.suggest("a", 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static NameRow row(Long id, String name) {
+        NameRow row = mock(NameRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getName()).thenReturn(name);
+        return row;
+    }
+}
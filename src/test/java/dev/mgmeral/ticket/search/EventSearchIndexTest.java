@@ -0,0 +1,121 @@
+package dev.mgmeral.ticket.search;
+
+import dev.mgmeral.ticket.entity.Event;
+import dev.mgmeral.ticket.enums.EventType;
+import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.EventSearchRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventSearchIndexTest {
+
+    private static final Instant MAY = Instant.parse("2028-05-01T20:00:00Z");
+    private static final Instant JUNE = Instant.parse("2028-06-01T20:00:00Z");
+
+    @Mock
+    EventRepository eventRepository;
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    EventSearchIndex index;
+
+    @BeforeEach
+    void setup() {
+        index = new EventSearchIndex(eventRepository, registry, true);
+    }
+
+    @Test
+    void search_shouldRankNameOverBody_andFindTyposAndDiacritics() {
+        List<EventSearchRow> rows = List.of(
+                row(1L, EventType.CONCERT, MAY, "Summer Festival", "Metallica live", null),
+                row(2L, EventType.CONCERT, JUNE, "Metallica", null, "Stadium show"),
+                row(3L, EventType.CONCERT, JUNE, "İstanbul Caz Günleri", null, null));
+        when(eventRepository.findSearchRowsAfter(eq(0L), any())).thenReturn(rows);
+        assertThat(index.isReady()).isFalse();
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("metallica", null, null, null)).containsExactly(2L, 1L);
+        assertThat(index.search("metalica", null, null, null)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(index.search("gunleri", null, null, null)).containsExactly(3L);
+        assertThat(index.search("caz", null, null, null)).containsExactly(3L);
+        assertThat(index.search("tal", null, MAY, MAY)).containsExactly(1L);
+        assertThat(registry.get("event_search_index_documents").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void searchAfter_shouldSeekOverAllMatches_inIdOrder() {
+        List<EventSearchRow> rows = List.of(
+                row(9L, EventType.CONCERT, MAY, "Rock Night", null, null),
+                row(4L, EventType.CONCERT, MAY, "Summer", "rock and pop", null),
+                row(7L, EventType.THEATRE, MAY, "Rock Opera", null, null),
+                row(3L, EventType.CONCERT, MAY, "Rock Fest", null, null),
+                row(5L, EventType.CONCERT, MAY, "Jazz", null, null));
+        when(eventRepository.findSearchRowsAfter(eq(0L), any())).thenReturn(rows);
+        index.rebuild();
+
+        assertThat(index.searchAfter("rock", null, null, null, 0, 2)).containsExactly(3L, 4L);
+        assertThat(index.searchAfter("rock", null, null, null, 4, 2)).containsExactly(7L, 9L);
+        assertThat(index.searchAfter("rock", EventType.CONCERT, null, null, 4, 2)).containsExactly(9L);
+        assertThat(index.searchAfter("rock", null, null, null, 9, 2)).isEmpty();
+    }
+
+    @Test
+    void indexAndRemove_shouldApplyOutsideOfTransactionRightAway() {
+        when(eventRepository.findSearchRowsAfter(eq(0L), any())).thenReturn(List.of());
+        index.rebuild();
+
+        Event event = new Event();
+        event.setId(5L);
+        event.setType(EventType.CONCERT);
+        event.setName("Jazz Night");
+        index.indexAfterCommit(event);
+        assertThat(index.search("jazz", null, null, null)).containsExactly(5L);
+
+        event.setName("Blues Night");
+        index.indexAfterCommit(event);
+        assertThat(index.search("jazz", null, null, null)).isEmpty();
+
+        index.removeAfterCommit(5L);
+        assertThat(index.search("night", null, null, null)).isEmpty();
+    }
+
+    @Test
+    void rebuild_shouldKeepPreviousIndex_whenDbFails() {
+        List<EventSearchRow> rows = List.of(row(1L, EventType.CONCERT, MAY, "Rock Fest", null, null));
+        when(eventRepository.findSearchRowsAfter(eq(0L), any()))
+                .thenReturn(rows)
+                .thenThrow(new IllegalStateException("db down"));
+        index.rebuild();
+
+        index.rebuild();
+
+        assertThat(index.search("rock", null, null, null)).containsExactly(1L);
+        verify(eventRepository, times(2)).findSearchRowsAfter(eq(0L), any());
+    }
+
+    private static EventSearchRow row(Long id, EventType type, Instant startDate, String name, String summary,
+                                      String description) {
+        EventSearchRow row = mock(EventSearchRow.class);
+        lenient().when(row.getId()).thenReturn(id);
+        lenient().when(row.getType()).thenReturn(type);
+        lenient().when(row.getStartDate()).thenReturn(startDate);
+        lenient().when(row.getName()).thenReturn(name);
+        lenient().when(row.getSummary()).thenReturn(summary);
+        lenient().when(row.getDescription()).thenReturn(description);
+        return row;
+    }
+}
@@ -0,0 +1,186 @@
+package dev.mgmeral.ticket.service.impl;
+
+import dev.mgmeral.ticket.entity.Event;
+import dev.mgmeral.ticket.entity.Performer;
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import dev.mgmeral.ticket.mapper.EventMapper;
+import dev.mgmeral.ticket.mapper.SeanceMapper;
+import dev.mgmeral.ticket.model.CatalogChange;
+import dev.mgmeral.ticket.model.EventGetResponse;
+import dev.mgmeral.ticket.model.PerformerResponse;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository.CatalogTombstone;
+import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.PerformerRepository;
+import dev.mgmeral.ticket.repository.SeanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogServiceImplTest {
+
+    @Mock
+    EventRepository eventRepository;
+    @Mock
+    PerformerRepository performerRepository;
+    @Mock
+    SeanceRepository seanceRepository;
+    @Mock
+    CatalogTombstoneRepository tombstoneRepository;
+    @Mock
+    EventMapper eventMapper;
+    @Mock
+    SeanceMapper seanceMapper;
+
+    CatalogServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new CatalogServiceImpl(eventRepository, performerRepository, seanceRepository,
+                tombstoneRepository, eventMapper, seanceMapper, 5_000, 30);
+    }
+
+    @Test
+    void changes_shouldMergeSourcesInTimeOrder_andResumeFromCursor() {
+        Instant t1 = Instant.now().minusSeconds(60);
+        Instant t2 = Instant.now().minusSeconds(30);
+        Event e1 = event(1L, t1);
+        Event e2 = event(2L, t2);
+        Performer p5 = new Performer();
+        p5.setId(5L);
+        p5.setName("Tarkan");
+        p5.markInserted(t1);
+        var deleted = new CatalogTombstone(9L, CatalogEntityType.PERFORMER, 4L, t2);
+
+        when(eventRepository.findChangedAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(Limit.of(4))))
+                .thenReturn(List.of(e1, e2));
+        when(performerRepository.findChangedAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(Limit.of(4))))
+                .thenReturn(List.of(p5));
+        when(tombstoneRepository.findAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(4)))
+                .thenReturn(List.of(deleted));
+        var r1 = mock(EventGetResponse.class);
+        var r2 = mock(EventGetResponse.class);
+        when(eventMapper.toGetResponse(e1)).thenReturn(r1);
+        when(eventMapper.toGetResponse(e2)).thenReturn(r2);
+
+        var first = service.changes(null, 3);
+
+        assertThat(first.changes())
+                .extracting(CatalogChange::type, CatalogChange::id, CatalogChange::deleted)
+                .containsExactly(
+                        tuple(CatalogEntityType.EVENT, 1L, false),
+                        tuple(CatalogEntityType.PERFORMER, 5L, false),
+                        tuple(CatalogEntityType.EVENT, 2L, false));
+        assertThat(first.changes().get(1).value()).isEqualTo(new PerformerResponse(5L, "Tarkan", null, null));
+        assertThat(first.hasMore()).isTrue();
+        assertThat(CatalogServiceImpl.decode(first.nextCursor()).position())
+                .isEqualTo(new CatalogServiceImpl.Position(t2, 0, 2L));
+
+        // the cursor's source seeks past its id at that time, sources ordered after it start from that time
+        when(eventRepository.findChangedAfter(eq(t2), eq(2L), any(Instant.class), eq(Limit.of(4))))
+                .thenReturn(List.of());
+        when(performerRepository.findChangedAfter(eq(t2), eq(0L), any(Instant.class), eq(Limit.of(4))))
+                .thenReturn(List.of());
+        when(tombstoneRepository.findAfter(eq(t2), eq(0L), any(Instant.class), eq(4))).thenReturn(List.of(deleted));
+
+        var second = service.changes(first.nextCursor(), 3);
+
+        assertThat(second.changes()).singleElement()
+                .satisfies(c -> {
+                    assertThat(c.type()).isEqualTo(CatalogEntityType.PERFORMER);
+                    assertThat(c.id()).isEqualTo(4L);
+                    assertThat(c.deleted()).isTrue();
+                    assertThat(c.value()).isNull();
+                });
+        assertThat(second.hasMore()).isFalse();
+        verify(seanceRepository).findChangedAfter(eq(t2), eq(0L), any(Instant.class), eq(Limit.of(4)));
+    }
+
+    @Test
+    void changes_shouldMoveCursorToSettledTime_whenNothingChanged() {
+        Instant before = Instant.now();
+
+        var result = service.changes(null, 10);
+
+        assertThat(result.changes()).isEmpty();
+        assertThat(result.hasMore()).isFalse();
+        var next = CatalogServiceImpl.decode(result.nextCursor()).position();
+        assertThat(next.at()).isBetween(before.minusSeconds(6), before.minusSeconds(4));
+
+        service.changes(result.nextCursor(), 10);
+
+        // everything up to that time was read from every source
+        verify(eventRepository).findChangedAfter(eq(next.at()), eq(Long.MAX_VALUE), any(Instant.class), any());
+        verify(tombstoneRepository).findAfter(eq(next.at()), eq(Long.MAX_VALUE), any(Instant.class), eq(11));
+    }
+
+    @Test
+    void changes_shouldRejectInvalidAndExpiredCursors_withoutDb() {
+        Instant old = Instant.now().minus(Duration.ofDays(31));
+        String expired = CatalogServiceImpl.encode(new CatalogServiceImpl.Position(old, 0, 1L), old);
+
+        assertThatThrownBy(() -> service.changes("not a cursor!", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> service.changes(expired, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expired");
+        assertThatThrownBy(() -> service.changes(null, Cursors.MAX_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(eventRepository, performerRepository, seanceRepository, tombstoneRepository);
+    }
+
+    @Test
+    void changes_shouldPageThroughRowsOlderThanTheRetention_duringAFullSync() {
+        Instant t1 = Instant.now().minus(Duration.ofDays(400));
+        Instant t2 = Instant.now().minus(Duration.ofDays(300));
+        Event e1 = event(1L, t1);
+        Event e2 = event(2L, t2);
+        when(eventRepository.findChangedAfter(eq(Instant.EPOCH), eq(0L), any(Instant.class), eq(Limit.of(2))))
+                .thenReturn(List.of(e1, e2));
+        when(eventRepository.findChangedAfter(eq(t1), eq(1L), any(Instant.class), eq(Limit.of(2))))
+                .thenReturn(List.of(e2));
+        var r1 = mock(EventGetResponse.class);
+        var r2 = mock(EventGetResponse.class);
+        when(eventMapper.toGetResponse(e1)).thenReturn(r1);
+        when(eventMapper.toGetResponse(e2)).thenReturn(r2);
+        Instant before = Instant.now();
+
+        var first = service.changes(null, 1);
+
+        assertThat(first.changes()).extracting(CatalogChange::id).containsExactly(1L);
+        assertThat(first.hasMore()).isTrue();
+        // the watermark is when the sync started, not the time of the old row
+        var cursor = CatalogServiceImpl.decode(first.nextCursor());
+        assertThat(cursor.position().at()).isEqualTo(t1);
+        assertThat(cursor.watermark()).isAfterOrEqualTo(before);
+
+        var second = service.changes(first.nextCursor(), 1);
+
+        assertThat(second.changes()).extracting(CatalogChange::id).containsExactly(2L);
+        assertThat(CatalogServiceImpl.decode(second.nextCursor()).watermark()).isEqualTo(cursor.watermark());
+    }
+
+    private static Event event(Long id, Instant updatedAt) {
+        Event event = new Event();
+        event.setId(id);
+        event.markInserted(updatedAt);
+        return event;
+    }
+}
@@ -1,14 +1,24 @@
 package dev.mgmeral.ticket.service.impl;
 
 import dev.mgmeral.ticket.entity.Event;
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import dev.mgmeral.ticket.enums.CountMode;
 import dev.mgmeral.ticket.enums.EventType;
 import dev.mgmeral.ticket.mapper.EventMapper;
 import dev.mgmeral.ticket.model.*;
+import dev.mgmeral.ticket.paging.PageCounts;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
 import dev.mgmeral.ticket.repository.EventRepository;
+import dev.mgmeral.ticket.repository.EventSummaryRow;
+import dev.mgmeral.ticket.search.AutocompleteIndex;
+import dev.mgmeral.ticket.search.EventSearchIndex;
+import dev.mgmeral.ticket.service.SeanceService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -17,11 +27,13 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +49,16 @@ class EventServiceImplTest {
     EventMapper eventMapper;
     @Mock
     dev.mgmeral.ticket.repository.PerformerRepository performerRepository;
+    @Mock
+    EventSearchIndex searchIndex;
+    @Mock
+    AutocompleteIndex autocompleteIndex;
+    @Mock
+    PageCounts pageCounts;
+    @Mock
+    SeanceService seanceService;
+    @Mock
+    CatalogTombstoneRepository tombstoneRepository;
 
     @InjectMocks
     EventServiceImpl service;
@@ -94,6 +116,81 @@ class EventServiceImplTest {
         verifyNoMoreInteractions(eventRepository);
     }
 
+    @Test
+    void getByIds_shouldAnswerInRequestOrder_withNotFoundMarkers() {
+        var e1 = new Event();
+        e1.setId(1L);
+        var e2 = new Event();
+        e2.setId(2L);
+        var r1 = mock(EventGetResponse.class);
+        var r2 = mock(EventGetResponse.class);
+        when(eventRepository.findAllById(eq(List.of(2L, 3L, 1L)))).thenReturn(List.of(e1, e2));
+        when(eventMapper.toGetResponse(e1)).thenReturn(r1);
+        when(eventMapper.toGetResponse(e2)).thenReturn(r2);
+
+        var result = service.getByIds(List.of(2L, 3L, 1L));
+
+        assertThat(result).containsExactly(
+                MultiGetItem.of(2L, r2), MultiGetItem.of(3L, null), MultiGetItem.of(1L, r1));
+        verify(eventRepository).findAllById(eq(List.of(2L, 3L, 1L)));
+        verifyNoMoreInteractions(eventRepository);
+    }
+
+    @Test
+    void detail_shouldCombineEventPerformersAndSeances() {
+        long id = 10L;
+        var event = new Event();
+        var resp = mock(EventGetResponse.class);
+        var performer = new PerformerResponse(3L, "Tarkan", "SINGER", null);
+        var seance = new SeanceGetResponse(5L, id, Instant.parse("2028-01-01T20:00:00Z"), 10, 1, null);
+
+        when(eventRepository.findById(id)).thenReturn(Optional.of(event));
+        when(eventMapper.toGetResponse(event)).thenReturn(resp);
+        when(performerRepository.findResponsesByEventId(id)).thenReturn(List.of(performer));
+        when(seanceService.listByEvent(id)).thenReturn(List.of(seance));
+
+        var result = service.detail(id);
+
+        assertThat(result.event()).isSameAs(resp);
+        assertThat(result.performers()).containsExactly(performer);
+        assertThat(result.seances()).containsExactly(seance);
+        verify(performerRepository).findResponsesByEventId(id);
+        verifyNoMoreInteractions(performerRepository);
+    }
+
+    @Test
+    void detail_shouldThrowEntityNotFound_whenEventMissing() {
+        long id = 404L;
+        when(eventRepository.findById(id)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.detail(id))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Event not found: " + id);
+
+        verifyNoInteractions(eventMapper);
+    }
+
+    @Test
+    @Timeout(5)
+    void detail_shouldFailFast_withoutWaitingForSlowerReads() {
+        long id = 404L;
+        var stuck = new CountDownLatch(1);
+        // lenient: the read may be cancelled before it starts
+        lenient().when(performerRepository.findResponsesByEventId(id)).thenAnswer(inv -> {
+            stuck.await();
+            return List.of();
+        });
+        when(eventRepository.findById(id)).thenReturn(Optional.empty());
+
+        try {
+            assertThatThrownBy(() -> service.detail(id))
+                    .isInstanceOf(EntityNotFoundException.class)
+                    .hasMessage("Event not found: " + id);
+        } finally {
+            stuck.countDown();
+        }
+    }
+
     @Test
     void update_shouldUpdateEntity_saveAndReturnUpdateResponse_whenFound() {
         long id = 7L;
@@ -141,6 +238,9 @@ class EventServiceImplTest {
 
         verify(eventRepository).existsById(id);
         verify(eventRepository).deleteById(id);
+        verify(searchIndex).removeAfterCommit(id);
+        verify(autocompleteIndex).removeAfterCommit(AutocompleteIndex.EVENT, id);
+        verify(tombstoneRepository).insert(eq(CatalogEntityType.EVENT), eq(id), any(Instant.class));
         verifyNoMoreInteractions(eventRepository);
         verifyNoInteractions(eventMapper);
     }
@@ -157,17 +257,18 @@ class EventServiceImplTest {
         verify(eventRepository).existsById(id);
         verify(eventRepository, never()).deleteById(id);
         verifyNoMoreInteractions(eventRepository);
-        verifyNoInteractions(eventMapper);
+        verifyNoInteractions(eventMapper, searchIndex, tombstoneRepository);
     }
 
     @Test
     void search_shouldPassNullSpec_whenAllFiltersEmpty_andMapResults() {
         Pageable pageable = PageRequest.of(0, 10);
 
-        var e1 = new Event();
+        var e1 = new EventSummaryRow(1L, EventType.CONCERT, "Rock Fest", null, null);
         var page = new PageImpl<>(List.of(e1), pageable, 1);
 
-        when(eventRepository.findAll(specCaptor.capture(), eq(pageable))).thenReturn(page);
+        when(eventRepository.findPage(eq(Event.class), specCaptor.capture(), eq(pageable), eq(EventSummaryRow.class),
+                any(String[].class))).thenReturn(page);
 
         var resp = mock(EventSearchResponse.class);
         when(eventMapper.toSearchResponse(e1)).thenReturn(resp);
@@ -179,7 +280,8 @@ class EventServiceImplTest {
 
         assertThat(specCaptor.getValue()).isNotNull();
 
-        verify(eventRepository).findAll(specCaptor.getValue(), pageable);
+        verify(eventRepository).findPage(eq(Event.class), eq(specCaptor.getValue()), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class));
         verify(eventMapper).toSearchResponse(e1);
         verifyNoMoreInteractions(eventRepository, eventMapper);
     }
@@ -187,9 +289,10 @@ class EventServiceImplTest {
     @Test
     void search_shouldTrimUppercaseType_andBuildNonNullSpec_whenTypeProvided() {
         Pageable pageable = PageRequest.of(0, 10);
-        var page = Page.<Event>empty(pageable);
+        var page = Page.<EventSummaryRow>empty(pageable);
 
-        when(eventRepository.findAll(specCaptor.capture(), eq(pageable))).thenReturn(page);
+        when(eventRepository.findPage(eq(Event.class), specCaptor.capture(), eq(pageable), eq(EventSummaryRow.class),
+                any(String[].class))).thenReturn(page);
 
         Page<EventSearchResponse> result =
                 service.search("  " + EventType.values()[0].name().toLowerCase() + "  ", null, null, null, pageable);
@@ -198,7 +301,8 @@ class EventServiceImplTest {
 
         assertThat(specCaptor.getValue()).isNotNull();
 
-        verify(eventRepository).findAll(specCaptor.getValue(), pageable);
+        verify(eventRepository).findPage(eq(Event.class), eq(specCaptor.getValue()), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class));
         verifyNoInteractions(eventMapper);
         verifyNoMoreInteractions(eventRepository);
     }
@@ -206,14 +310,16 @@ class EventServiceImplTest {
     @Test
     void search_shouldTrimName_andBuildNonNullSpec_whenNameProvided() {
         Pageable pageable = PageRequest.of(0, 10);
-        var page = Page.<Event>empty(pageable);
+        var page = Page.<EventSummaryRow>empty(pageable);
 
-        when(eventRepository.findAll(specCaptor.capture(), eq(pageable))).thenReturn(page);
+        when(eventRepository.findPage(eq(Event.class), specCaptor.capture(), eq(pageable), eq(EventSummaryRow.class),
+                any(String[].class))).thenReturn(page);
 
         service.search(null, "   Rock Fest   ", null, null, pageable);
 
         assertThat(specCaptor.getValue()).isNotNull();
-        verify(eventRepository).findAll(specCaptor.getValue(), pageable);
+        verify(eventRepository).findPage(eq(Event.class), eq(specCaptor.getValue()), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class));
         verifyNoInteractions(eventMapper);
         verifyNoMoreInteractions(eventRepository);
     }
@@ -221,14 +327,16 @@ class EventServiceImplTest {
     @Test
     void search_shouldBuildNonNullSpec_whenStartFromProvided() {
         Pageable pageable = PageRequest.of(0, 10);
-        var page = Page.<Event>empty(pageable);
+        var page = Page.<EventSummaryRow>empty(pageable);
 
-        when(eventRepository.findAll(specCaptor.capture(), eq(pageable))).thenReturn(page);
+        when(eventRepository.findPage(eq(Event.class), specCaptor.capture(), eq(pageable), eq(EventSummaryRow.class),
+                any(String[].class))).thenReturn(page);
 
         service.search(null, null, Instant.parse("2028-01-01T00:00:00Z"), null, pageable);
 
         assertThat(specCaptor.getValue()).isNotNull();
-        verify(eventRepository).findAll(specCaptor.getValue(), pageable);
+        verify(eventRepository).findPage(eq(Event.class), eq(specCaptor.getValue()), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class));
         verifyNoInteractions(eventMapper);
         verifyNoMoreInteractions(eventRepository);
     }
@@ -236,14 +344,16 @@ class EventServiceImplTest {
     @Test
     void search_shouldBuildNonNullSpec_whenStartToProvided() {
         Pageable pageable = PageRequest.of(0, 10);
-        var page = Page.<Event>empty(pageable);
+        var page = Page.<EventSummaryRow>empty(pageable);
 
-        when(eventRepository.findAll(specCaptor.capture(), eq(pageable))).thenReturn(page);
+        when(eventRepository.findPage(eq(Event.class), specCaptor.capture(), eq(pageable), eq(EventSummaryRow.class),
+                any(String[].class))).thenReturn(page);
 
         service.search(null, null, null, Instant.parse("2028-12-31T23:59:59Z"), pageable);
 
         assertThat(specCaptor.getValue()).isNotNull();
-        verify(eventRepository).findAll(specCaptor.getValue(), pageable);
+        verify(eventRepository).findPage(eq(Event.class), eq(specCaptor.getValue()), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class));
         verifyNoInteractions(eventMapper);
         verifyNoMoreInteractions(eventRepository);
     }
@@ -257,4 +367,80 @@ class EventServiceImplTest {
 
         verifyNoInteractions(eventRepository, eventMapper);
     }
+
+    @Test
+    void search_shouldPageIdsFromIndex_inRelevanceOrder_whenIndexReady() {
+        Pageable pageable = PageRequest.of(1, 2);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(eq("rock"), eq(EventType.values()[0]), isNull(), isNull()))
+                .thenReturn(List.of(9L, 4L, 7L, 1L, 3L));
+
+        var e7 = new EventSummaryRow(7L, EventType.CONCERT, "Rock Night", null, null);
+        var e1 = new EventSummaryRow(1L, EventType.CONCERT, "Rock Fest", null, null);
+        when(eventRepository.findSummariesByIdIn(eq(List.of(7L, 1L)))).thenReturn(List.of(e1, e7));
+        var r7 = mock(EventSearchResponse.class);
+        var r1 = mock(EventSearchResponse.class);
+        when(eventMapper.toSearchResponse(e7)).thenReturn(r7);
+        when(eventMapper.toSearchResponse(e1)).thenReturn(r1);
+
+        Page<EventSearchResponse> result = service.search(EventType.values()[0].name(), " rock ", null, null, pageable);
+
+        assertThat(result.getContent()).containsExactly(r7, r1);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        verify(eventRepository).findSummariesByIdIn(eq(List.of(7L, 1L)));
+        verifyNoMoreInteractions(eventRepository);
+    }
+
+    @Test
+    void search_shouldReturnEmptyPage_withoutDb_whenIndexHasNoMatch() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.search(eq("zzz"), isNull(), isNull(), isNull())).thenReturn(List.of());
+
+        assertThat(service.search(null, "zzz", null, null, pageable).getTotalElements()).isZero();
+
+        verifyNoInteractions(eventRepository, eventMapper);
+    }
+
+    @Test
+    void search_shouldUseCachedTotal_whenCountModeCached() {
+        Pageable pageable = PageRequest.of(0, 1);
+        var e = new EventSummaryRow(3L, EventType.CONCERT, "Rock Fest", null, null);
+        when(eventRepository.findSlice(eq(Event.class), ArgumentMatchers.<Specification<Event>>any(), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class)))
+                .thenReturn(new SliceImpl<>(List.of(e), pageable, true));
+        when(pageCounts.count(eq("events|CONCERT||null|null"), any())).thenReturn(25L);
+        var r = mock(EventSearchResponse.class);
+        when(eventMapper.toSearchResponse(e)).thenReturn(r);
+
+        var result = service.search("concert", null, null, null, CountMode.CACHED, pageable);
+
+        assertThat(result).isInstanceOf(Page.class);
+        assertThat(((Page<EventSearchResponse>) result).getTotalElements()).isEqualTo(25);
+        assertThat(result.getContent()).containsExactly(r);
+        verify(eventRepository).findSlice(eq(Event.class), ArgumentMatchers.<Specification<Event>>any(), eq(pageable),
+                eq(EventSummaryRow.class), any(String[].class));
+        verifyNoMoreInteractions(eventRepository);
+    }
+
+    @Test
+    void scroll_shouldSeekIndexMatchesInIdOrder_whenIndexReady() {
+        when(searchIndex.isReady()).thenReturn(true);
+        when(searchIndex.searchAfter(eq("rock"), isNull(), isNull(), isNull(), eq(3L), eq(2)))
+                .thenReturn(List.of(4L, 7L));
+
+        var e4 = new EventSummaryRow(4L, EventType.CONCERT, "Rock Fest", null, null);
+        when(eventRepository.findSummariesByIdIn(eq(List.of(4L)))).thenReturn(List.of(e4));
+        var r4 = mock(EventSearchResponse.class);
+        when(eventMapper.toSearchResponse(e4)).thenReturn(r4);
+
+        CursorSlice<EventSearchResponse> result = service.scroll(null, "rock", null, null,
+                Cursors.encode(null, 3L), 1);
+
+        assertThat(result.content()).containsExactly(r4);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.nextCursor()).isEqualTo(Cursors.encode(null, 4L));
+        verify(eventRepository).findSummariesByIdIn(eq(List.of(4L)));
+        verifyNoMoreInteractions(eventRepository);
+    }
 }
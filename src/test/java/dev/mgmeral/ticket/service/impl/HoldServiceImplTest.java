@@ -1,14 +1,19 @@
 package dev.mgmeral.ticket.service.impl;
 
 import dev.mgmeral.ticket.entity.Hold;
-import dev.mgmeral.ticket.entity.Seance;
 import dev.mgmeral.ticket.enums.HoldStatus;
+import dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter;
+import dev.mgmeral.ticket.idempotency.IdempotencyResponseStore;
+import dev.mgmeral.ticket.inventory.HoldAdmissionQueue;
+import dev.mgmeral.ticket.inventory.HoldBatchWriter;
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceInventory;
 import dev.mgmeral.ticket.model.HoldCreateRequest;
 import dev.mgmeral.ticket.model.HoldResponse;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.repository.HoldRepository;
-import dev.mgmeral.ticket.repository.PurchaseRepository;
-import dev.mgmeral.ticket.repository.SeanceRepository;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -20,11 +25,14 @@ import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
-import static dev.mgmeral.ticket.enums.PurchaseStatus.SOLD;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,17 +42,29 @@ class HoldServiceImplTest {
     @Mock
     HoldRepository holdRepository;
     @Mock
-    SeanceRepository seanceRepository;
+    SeanceInventory seanceInventory;
     @Mock
-    PurchaseRepository purchaseRepository;
+    SeanceCapacityLedger capacityLedger;
+    @Mock
+    HoldBatchWriter holdBatchWriter;
+    @Mock
+    HoldAdmissionQueue admissionQueue;
+    @Mock
+    IdempotencyKeyFilter idempotencyKeys;
+    @Mock
+    IdempotencyResponseStore responseStore;
 
     @InjectMocks
     HoldServiceImpl service;
 
     @Captor
     ArgumentCaptor<Hold> holdCaptor;
-    @Captor
-    ArgumentCaptor<Instant> instantCaptor;
+
+    @BeforeEach
+    void setup() {
+        // unless a test says otherwise every key may exist, so the DB lookup runs
+        lenient().when(idempotencyKeys.mightExist(any(), any())).thenReturn(true);
+    }
 
     @Test
     void create_shouldReturnExistingHold_whenIdempotencyKeyAlreadyUsed() {
@@ -75,55 +95,115 @@ class HoldServiceImplTest {
 
         verify(holdRepository).findByIdempotencyKey(eq("idem-1"));
         verifyNoMoreInteractions(holdRepository);
-        verifyNoInteractions(seanceRepository, purchaseRepository);
+        verifyNoInteractions(seanceInventory, capacityLedger, holdBatchWriter, admissionQueue);
     }
 
     @Test
-    void create_shouldCreateHold_whenCapacityIsEnough_andReturnResponse() {
+    void create_shouldReplayStoredResponse_withoutLoadingHold() {
         var req = mock(HoldCreateRequest.class);
-        when(req.idempotencyKey()).thenReturn("idem-2");
-        when(req.seanceId()).thenReturn(100L);
-        when(req.userId()).thenReturn(55L);
-        when(req.quantity()).thenReturn(3);
+        when(req.idempotencyKey()).thenReturn("idem-stored");
 
-        when(holdRepository.findByIdempotencyKey(eq("idem-2"))).thenReturn(Optional.empty());
+        var stored = new HoldResponse(21L, 7L, 99L, 1, HoldStatus.HELD,
+                Instant.parse("2028-01-01T00:05:00Z"), BigDecimal.valueOf(100));
+        when(responseStore.find(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-stored"), eq(HoldResponse.class)))
+                .thenReturn(Optional.of(stored));
+
+        HoldResponse res = service.create(req);
+
+        assertThat(res).isSameAs(stored);
+        verifyNoInteractions(holdRepository, holdBatchWriter, admissionQueue);
+    }
+
+    @Test
+    void create_shouldNotReplayStoredHeldResponse_pastItsExpiry() {
+        var req = mock(HoldCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-stale");
+
+        var stale = new HoldResponse(22L, 7L, 99L, 1, HoldStatus.HELD,
+                Instant.parse("2020-01-01T00:05:00Z"), BigDecimal.valueOf(100));
+        when(responseStore.find(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-stale"), eq(HoldResponse.class)))
+                .thenReturn(Optional.of(stale));
+
+        Hold existing = Hold.builder()
+                .id(22L)
+                .userId(7L)
+                .seanceId(99L)
+                .quantity(1)
+                .status(HoldStatus.HELD)
+                .idempotencyKey("idem-stale")
+                .expiresAt(stale.expiresAt())
+                .build();
+        when(holdRepository.findByIdempotencyKey(eq("idem-stale"))).thenReturn(Optional.of(existing));
 
-        Seance seance = mock(Seance.class);
-        when(seance.getId()).thenReturn(100L);
-        when(seance.getCapacity()).thenReturn(10);
+        HoldResponse res = service.create(req);
+
+        assertThat(res.status()).isEqualTo(HoldStatus.EXPIRED);
+        verifyNoInteractions(holdBatchWriter, admissionQueue);
+    }
 
-        when(seanceRepository.findWithLockById(eq(100L))).thenReturn(Optional.of(seance));
+    @Test
+    void create_shouldWriteThroughBatchWriter_andReturnResponse() {
+        var req = mock(HoldCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-2");
+        when(req.seanceId()).thenReturn(100L);
 
-        when(holdRepository.sumActiveQuantity(eq(100L), eq(HoldStatus.HELD), instantCaptor.capture()))
-                .thenReturn(2L);
-        when(purchaseRepository.sumQuantityBySeanceAndStatus(eq(100L), eq(SOLD)))
-                .thenReturn(4L);
+        when(holdRepository.findByIdempotencyKey(eq("idem-2"))).thenReturn(Optional.empty());
 
-        when(holdRepository.save(holdCaptor.capture())).thenAnswer(inv -> inv.getArgument(0));
+        Hold created = Hold.builder()
+                .id(12L)
+                .userId(55L)
+                .seanceId(100L)
+                .quantity(3)
+                .status(HoldStatus.HELD)
+                .idempotencyKey("idem-2")
+                .expiresAt(Instant.parse("2028-01-01T00:05:00Z"))
+                .build();
+        when(holdBatchWriter.write(eq(100L), eq(List.of(req))))
+                .thenReturn(List.of(new HoldBatchWriter.Outcome(created, 1)));
 
         HoldResponse res = service.create(req);
 
+        assertThat(res.id()).isEqualTo(12L);
         assertThat(res.userId()).isEqualTo(55L);
         assertThat(res.seanceId()).isEqualTo(100L);
         assertThat(res.quantity()).isEqualTo(3);
         assertThat(res.status()).isEqualTo(HoldStatus.HELD);
         assertThat(res.totalPrice()).isEqualByComparingTo(BigDecimal.valueOf(300));
-        assertThat(res.expiresAt()).isNotNull();
-
-        Hold created = holdCaptor.getValue();
-        assertThat(created.getUserId()).isEqualTo(55L);
-        assertThat(created.getSeanceId()).isEqualTo(100L);
-        assertThat(created.getQuantity()).isEqualTo(3);
-        assertThat(created.getStatus()).isEqualTo(HoldStatus.HELD);
-        assertThat(created.getIdempotencyKey()).isEqualTo("idem-2");
-        assertThat(created.getExpiresAt()).isNotNull();
+        assertThat(res.expiresAt()).isEqualTo(created.getExpiresAt());
 
+        verify(responseStore).save(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-2"), eq(res), eq(created.getExpiresAt()));
         verify(holdRepository).findByIdempotencyKey(eq("idem-2"));
-        verify(seanceRepository).findWithLockById(eq(100L));
-        verify(holdRepository).sumActiveQuantity(eq(100L), eq(HoldStatus.HELD), eq(instantCaptor.getValue()));
-        verify(purchaseRepository).sumQuantityBySeanceAndStatus(eq(100L), eq(SOLD));
-        verify(holdRepository).save(eq(created));
-        verifyNoMoreInteractions(holdRepository, seanceRepository, purchaseRepository);
+        verify(admissionQueue).isEnabled();
+        verify(holdBatchWriter).write(eq(100L), eq(List.of(req)));
+        verifyNoMoreInteractions(holdRepository, holdBatchWriter, admissionQueue);
+        verifyNoInteractions(seanceInventory, capacityLedger);
+    }
+
+    @Test
+    void create_shouldGoThroughAdmissionQueue_whenGroupCommitEnabled() {
+        var req = mock(HoldCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-q");
+
+        when(holdRepository.findByIdempotencyKey(eq("idem-q"))).thenReturn(Optional.empty());
+        when(admissionQueue.isEnabled()).thenReturn(true);
+
+        Hold created = Hold.builder()
+                .id(13L)
+                .seanceId(100L)
+                .quantity(1)
+                .status(HoldStatus.HELD)
+                .expiresAt(Instant.parse("2028-01-01T00:05:00Z"))
+                .build();
+        when(admissionQueue.submit(same(req))).thenReturn(new HoldBatchWriter.Outcome(created, 5));
+
+        HoldResponse res = service.create(req);
+
+        assertThat(res.id()).isEqualTo(13L);
+
+        verify(admissionQueue).isEnabled();
+        verify(admissionQueue).submit(same(req));
+        verifyNoMoreInteractions(admissionQueue);
+        verifyNoInteractions(holdBatchWriter, seanceInventory, capacityLedger);
     }
 
     @Test
@@ -133,16 +213,15 @@ class HoldServiceImplTest {
         when(req.seanceId()).thenReturn(999L);
 
         when(holdRepository.findByIdempotencyKey(eq("idem-x"))).thenReturn(Optional.empty());
-        when(seanceRepository.findWithLockById(eq(999L))).thenReturn(Optional.empty());
+        when(holdBatchWriter.write(eq(999L), anyList()))
+                .thenThrow(new EntityNotFoundException("Seance not found: 999"));
 
         assertThatThrownBy(() -> service.create(req))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Seance not found: 999");
 
         verify(holdRepository).findByIdempotencyKey(eq("idem-x"));
-        verify(seanceRepository).findWithLockById(eq(999L));
-        verifyNoMoreInteractions(holdRepository, seanceRepository);
-        verifyNoInteractions(purchaseRepository);
+        verifyNoMoreInteractions(holdRepository);
     }
 
     @Test
@@ -153,16 +232,8 @@ class HoldServiceImplTest {
         when(req.quantity()).thenReturn(6);
 
         when(holdRepository.findByIdempotencyKey(eq("idem-cap"))).thenReturn(Optional.empty());
-
-        Seance seance = mock(Seance.class);
-        when(seance.getId()).thenReturn(10L);
-        when(seance.getCapacity()).thenReturn(10);
-        when(seanceRepository.findWithLockById(eq(10L))).thenReturn(Optional.of(seance));
-
-        when(holdRepository.sumActiveQuantity(eq(10L), eq(HoldStatus.HELD), any(Instant.class)))
-                .thenReturn(3L);
-        when(purchaseRepository.sumQuantityBySeanceAndStatus(eq(10L), eq(SOLD)))
-                .thenReturn(5L);
+        when(holdBatchWriter.write(eq(10L), anyList()))
+                .thenReturn(List.of(new HoldBatchWriter.Outcome(null, 2)));
 
         assertThatThrownBy(() -> service.create(req))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -170,34 +241,17 @@ class HoldServiceImplTest {
                 .hasMessageContaining("available=2");
 
         verify(holdRepository).findByIdempotencyKey(eq("idem-cap"));
-        verify(seanceRepository).findWithLockById(eq(10L));
-        verify(holdRepository).sumActiveQuantity(eq(10L), eq(HoldStatus.HELD), any(Instant.class));
-        verify(purchaseRepository).sumQuantityBySeanceAndStatus(eq(10L), eq(SOLD));
-        verify(holdRepository, never()).save(any());
-        verifyNoMoreInteractions(holdRepository, seanceRepository, purchaseRepository);
+        verifyNoMoreInteractions(holdRepository);
     }
 
-
     @Test
     void create_shouldRecoverFromDuplicateKey_andReturnExistingHold() {
         var req = mock(HoldCreateRequest.class);
         when(req.idempotencyKey()).thenReturn("idem-dup");
         when(req.seanceId()).thenReturn(77L);
-        when(req.userId()).thenReturn(9L);
-        when(req.quantity()).thenReturn(1);
-
-        Seance seance = mock(Seance.class);
-        when(seance.getId()).thenReturn(77L);
-        when(seance.getCapacity()).thenReturn(100);
-        when(seanceRepository.findWithLockById(eq(77L))).thenReturn(Optional.of(seance));
-
-        when(holdRepository.sumActiveQuantity(eq(77L), eq(HoldStatus.HELD), any(Instant.class)))
-                .thenReturn(0L);
-        when(purchaseRepository.sumQuantityBySeanceAndStatus(eq(77L), eq(SOLD)))
-                .thenReturn(0L);
 
         var dup = new DataIntegrityViolationException("dup");
-        when(holdRepository.save(any(Hold.class))).thenThrow(dup);
+        when(holdBatchWriter.write(eq(77L), anyList())).thenThrow(dup);
 
         Hold existing = Hold.builder()
                 .id(500L)
@@ -218,14 +272,8 @@ class HoldServiceImplTest {
         assertThat(res.totalPrice()).isEqualByComparingTo(BigDecimal.valueOf(100));
 
         verify(holdRepository, times(2)).findByIdempotencyKey(eq("idem-dup"));
-        verify(seanceRepository).findWithLockById(eq(77L));
-        verify(holdRepository).sumActiveQuantity(eq(77L), eq(HoldStatus.HELD), any(Instant.class));
-        verify(purchaseRepository).sumQuantityBySeanceAndStatus(eq(77L), eq(SOLD));
-
-        verify(holdRepository).save(holdCaptor.capture());
-        assertThat(holdCaptor.getValue().getIdempotencyKey()).isEqualTo("idem-dup");
-
-        verifyNoMoreInteractions(holdRepository, seanceRepository, purchaseRepository);
+        verify(holdBatchWriter).write(eq(77L), anyList());
+        verifyNoMoreInteractions(holdRepository, holdBatchWriter);
     }
 
 
@@ -234,32 +282,95 @@ class HoldServiceImplTest {
         var req = mock(HoldCreateRequest.class);
         when(req.idempotencyKey()).thenReturn("idem-dup2");
         when(req.seanceId()).thenReturn(88L);
-        when(req.userId()).thenReturn(9L);
-        when(req.quantity()).thenReturn(1);
-
-        Seance seance = mock(Seance.class);
-        when(seance.getId()).thenReturn(88L);
-        when(seance.getCapacity()).thenReturn(100);
-        when(seanceRepository.findWithLockById(eq(88L))).thenReturn(Optional.of(seance));
-
-        when(holdRepository.sumActiveQuantity(eq(88L), eq(HoldStatus.HELD), instantCaptor.capture()))
-                .thenReturn(0L);
-        when(purchaseRepository.sumQuantityBySeanceAndStatus(eq(88L), eq(SOLD)))
-                .thenReturn(0L);
 
         var dup = new DataIntegrityViolationException("dup");
-        when(holdRepository.save(holdCaptor.capture())).thenThrow(dup);
+        when(holdBatchWriter.write(eq(88L), anyList())).thenThrow(dup);
 
         when(holdRepository.findByIdempotencyKey(eq("idem-dup2"))).thenReturn(Optional.empty(), Optional.empty());
         assertThatThrownBy(() -> service.create(req))
                 .isSameAs(dup);
 
-        verify(seanceRepository).findWithLockById(eq(88L));
-        verify(holdRepository).sumActiveQuantity(eq(88L), eq(HoldStatus.HELD), eq(instantCaptor.getValue()));
-        verify(purchaseRepository).sumQuantityBySeanceAndStatus(eq(88L), eq(SOLD));
-        verify(holdRepository).save(eq(holdCaptor.getValue()));
         verify(holdRepository, times(2)).findByIdempotencyKey(eq("idem-dup2"));
-        verifyNoMoreInteractions(holdRepository, seanceRepository, purchaseRepository);
+        verifyNoMoreInteractions(holdRepository);
+    }
+
+    @Test
+    void create_shouldReturnReplayedHold_whenWriterFindsKeyTaken() {
+        var req = mock(HoldCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-race");
+        when(req.seanceId()).thenReturn(100L);
+        when(idempotencyKeys.mightExist(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-race"))).thenReturn(false);
+
+        Hold winner = Hold.builder()
+                .id(700L)
+                .userId(9L)
+                .seanceId(100L)
+                .quantity(2)
+                .status(HoldStatus.HELD)
+                .idempotencyKey("idem-race")
+                .expiresAt(Instant.parse("2028-01-01T00:05:00Z"))
+                .build();
+        when(holdBatchWriter.write(eq(100L), eq(List.of(req))))
+                .thenReturn(List.of(new HoldBatchWriter.Outcome(winner, 8, true)));
+
+        HoldResponse res = service.create(req);
+
+        assertThat(res.id()).isEqualTo(700L);
+        verify(idempotencyKeys).add(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-race"));
+        verifyNoInteractions(holdRepository);
+    }
+
+    @Test
+    void create_shouldSkipIdempotencyLookup_whenFilterRulesKeyOut() {
+        var req = mock(HoldCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-new");
+        when(req.seanceId()).thenReturn(100L);
+        when(idempotencyKeys.mightExist(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-new"))).thenReturn(false);
+
+        Hold created = Hold.builder()
+                .id(13L)
+                .userId(55L)
+                .seanceId(100L)
+                .quantity(1)
+                .status(HoldStatus.HELD)
+                .idempotencyKey("idem-new")
+                .expiresAt(Instant.parse("2028-01-01T00:05:00Z"))
+                .build();
+        when(holdBatchWriter.write(eq(100L), eq(List.of(req))))
+                .thenReturn(List.of(new HoldBatchWriter.Outcome(created, 4)));
+
+        HoldResponse res = service.create(req);
+
+        assertThat(res.id()).isEqualTo(13L);
+        verify(idempotencyKeys).add(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-new"));
+        verifyNoInteractions(holdRepository);
+    }
+
+    @Test
+    void create_shouldReturnExistingHold_whenRejectedAfterSkippedLookup() {
+        var req = mock(HoldCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-other-node");
+        when(req.seanceId()).thenReturn(10L);
+        when(idempotencyKeys.mightExist(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-other-node"))).thenReturn(false);
+        when(holdBatchWriter.write(eq(10L), anyList()))
+                .thenReturn(List.of(new HoldBatchWriter.Outcome(null, 0)));
+
+        Hold existing = Hold.builder()
+                .id(600L)
+                .userId(9L)
+                .seanceId(10L)
+                .quantity(2)
+                .status(HoldStatus.HELD)
+                .idempotencyKey("idem-other-node")
+                .expiresAt(Instant.parse("2028-01-01T00:05:00Z"))
+                .build();
+        when(holdRepository.findByIdempotencyKey(eq("idem-other-node"))).thenReturn(Optional.of(existing));
+
+        HoldResponse res = service.create(req);
+
+        assertThat(res.id()).isEqualTo(600L);
+        verify(holdRepository).findByIdempotencyKey(eq("idem-other-node"));
+        verifyNoMoreInteractions(holdRepository);
     }
 
     @Test
@@ -282,7 +393,70 @@ class HoldServiceImplTest {
 
         verify(holdRepository).findById(eq(1L));
         verifyNoMoreInteractions(holdRepository);
-        verifyNoInteractions(seanceRepository, purchaseRepository);
+        verifyNoInteractions(seanceInventory, capacityLedger);
+    }
+
+    @Test
+    void getById_shouldReportExpired_withoutPersisting_whenTtlElapsed() {
+        Hold h = Hold.builder()
+                .id(1L)
+                .userId(2L)
+                .seanceId(3L)
+                .quantity(1)
+                .status(HoldStatus.HELD)
+                .expiresAt(Instant.now().minusSeconds(5))
+                .build();
+
+        when(holdRepository.findById(eq(1L))).thenReturn(Optional.of(h));
+
+        HoldResponse res = service.getById(1L);
+
+        assertThat(res.status()).isEqualTo(HoldStatus.EXPIRED);
+        assertThat(h.getStatus()).isEqualTo(HoldStatus.HELD);
+
+        verify(holdRepository).findById(eq(1L));
+        verifyNoMoreInteractions(holdRepository);
+        verifyNoInteractions(seanceInventory, capacityLedger);
+    }
+
+    @Test
+    void getByIds_shouldLoadOnce_andAnswerInRequestOrder_withNotFoundMarkers() {
+        Hold expired = Hold.builder()
+                .id(1L)
+                .userId(2L)
+                .seanceId(3L)
+                .quantity(1)
+                .status(HoldStatus.HELD)
+                .expiresAt(Instant.now().minusSeconds(5))
+                .build();
+        Hold sold = Hold.builder()
+                .id(7L)
+                .userId(2L)
+                .seanceId(3L)
+                .quantity(2)
+                .status(HoldStatus.CONSUMED)
+                .build();
+        when(holdRepository.findAllById(eq(List.of(7L, 404L, 1L)))).thenReturn(List.of(expired, sold));
+
+        var res = service.getByIds(List.of(7L, 404L, 1L, 7L));
+
+        assertThat(res).extracting(MultiGetItem::id).containsExactly(7L, 404L, 1L);
+        assertThat(res).extracting(MultiGetItem::found).containsExactly(true, false, true);
+        assertThat(res.get(1).value()).isNull();
+        assertThat(res.get(2).value().status()).isEqualTo(HoldStatus.EXPIRED);
+        verify(holdRepository).findAllById(eq(List.of(7L, 404L, 1L)));
+        verifyNoMoreInteractions(holdRepository);
+    }
+
+    @Test
+    void getByIds_shouldRejectEmptyOrTooManyIds_withoutDb() {
+        assertThatThrownBy(() -> service.getByIds(List.of()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.getByIds(LongStream.rangeClosed(1, MultiGet.MAX_IDS + 1).boxed().toList()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Between 1 and " + MultiGet.MAX_IDS + " ids are required");
+
+        verifyNoInteractions(holdRepository);
     }
 
     @Test
@@ -295,7 +469,7 @@ class HoldServiceImplTest {
 
         verify(holdRepository).findById(eq(404L));
         verifyNoMoreInteractions(holdRepository);
-        verifyNoInteractions(seanceRepository, purchaseRepository);
+        verifyNoInteractions(seanceInventory, capacityLedger);
     }
 
     @Test
@@ -308,7 +482,7 @@ class HoldServiceImplTest {
 
         verify(holdRepository).findWithLockById(eq(9L));
         verifyNoMoreInteractions(holdRepository);
-        verifyNoInteractions(seanceRepository, purchaseRepository);
+        verifyNoInteractions(seanceInventory, capacityLedger);
     }
 
     @Test
@@ -325,14 +499,17 @@ class HoldServiceImplTest {
         verify(holdRepository).findWithLockById(eq(1L));
         verify(holdRepository, never()).save(any(Hold.class));
         verifyNoMoreInteractions(holdRepository);
-        verifyNoInteractions(seanceRepository, purchaseRepository);
+        verifyNoInteractions(seanceInventory, capacityLedger);
     }
 
     @Test
     void release_shouldSetReleased_andSave_whenStatusIsHELD() {
         Hold h = Hold.builder()
                 .id(1L)
+                .seanceId(3L)
+                .quantity(2)
                 .status(HoldStatus.HELD)
+                .idempotencyKey("idem-r")
                 .build();
 
         when(holdRepository.findWithLockById(eq(1L))).thenReturn(Optional.of(h));
@@ -347,8 +524,29 @@ class HoldServiceImplTest {
         assertThat(saved.getStatus()).isEqualTo(HoldStatus.RELEASED);
         assertThat(saved.getReleasedAt()).isNotNull();
 
-        verifyNoMoreInteractions(holdRepository);
-        verifyNoInteractions(seanceRepository, purchaseRepository);
+        verify(seanceInventory).release(eq(3L), eq(0), eq(2));
+        verify(capacityLedger).releaseAfterCommit(eq(3L), eq(2));
+        verify(responseStore).evict(eq(IdempotencyKeyFilter.Scope.HOLD), eq("idem-r"));
+        verifyNoMoreInteractions(holdRepository, seanceInventory, capacityLedger);
     }
 
+    @Test
+    void release_shouldGiveBackToReservedShard() {
+        Hold h = Hold.builder()
+                .id(2L)
+                .seanceId(3L)
+                .quantity(4)
+                .shardNo(6)
+                .status(HoldStatus.HELD)
+                .build();
+
+        when(holdRepository.findWithLockById(eq(2L))).thenReturn(Optional.of(h));
+        when(holdRepository.save(any(Hold.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.release(2L);
+
+        verify(seanceInventory).release(eq(3L), eq(6), eq(4));
+        verify(capacityLedger).releaseAfterCommit(eq(3L), eq(4));
+        verifyNoMoreInteractions(seanceInventory, capacityLedger);
+    }
 }
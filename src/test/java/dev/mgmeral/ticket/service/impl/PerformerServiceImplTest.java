@@ -1,10 +1,16 @@
 package dev.mgmeral.ticket.service.impl;
 
 import dev.mgmeral.ticket.entity.Performer;
+import dev.mgmeral.ticket.enums.CatalogEntityType;
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.model.MultiGetItem;
 import dev.mgmeral.ticket.model.PerformerCreateRequest;
 import dev.mgmeral.ticket.model.PerformerResponse;
 import dev.mgmeral.ticket.model.PerformerUpdateRequest;
+import dev.mgmeral.ticket.paging.PageCounts;
+import dev.mgmeral.ticket.repository.CatalogTombstoneRepository;
 import dev.mgmeral.ticket.repository.PerformerRepository;
+import dev.mgmeral.ticket.search.AutocompleteIndex;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +20,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,12 +34,18 @@ class PerformerServiceImplTest {
 
     @Mock
     PerformerRepository performerRepository;
+    @Mock
+    AutocompleteIndex autocompleteIndex;
+    @Mock
+    PageCounts pageCounts;
+    @Mock
+    CatalogTombstoneRepository tombstoneRepository;
 
     PerformerServiceImpl service;
 
     @BeforeEach
     void setUp() {
-        service = new PerformerServiceImpl(performerRepository);
+        service = new PerformerServiceImpl(performerRepository, autocompleteIndex, pageCounts, tombstoneRepository);
     }
 
     @Test
@@ -77,6 +90,7 @@ class PerformerServiceImplTest {
 
         verify(performerRepository).existsByNameIgnoreCase(eq("Tarkan"));
         verify(performerRepository).save(any(Performer.class));
+        verify(autocompleteIndex).putAfterCommit(eq(AutocompleteIndex.PERFORMER), eq(10L), eq("Tarkan"));
         verifyNoMoreInteractions(performerRepository);
     }
 
@@ -114,22 +128,13 @@ class PerformerServiceImplTest {
     }
 
     @Test
-    void list_shouldCallFindAll_whenNameIsNullOrBlank() {
+    void list_shouldSelectResponses_whenNameIsNullOrBlank() {
         Pageable pageable = PageRequest.of(0, 10, Sort.by("id").descending());
 
-        var p1 = new Performer();
-        p1.setId(1L);
-        p1.setName("A");
-        p1.setRole("R");
-        p1.setDescription("D1");
+        var p1 = new PerformerResponse(1L, "A", "R", "D1");
+        var p2 = new PerformerResponse(2L, "B", "R", "D2");
 
-        var p2 = new Performer();
-        p2.setId(2L);
-        p2.setName("B");
-        p2.setRole("R");
-        p2.setDescription("D2");
-
-        when(performerRepository.findAll(eq(pageable)))
+        when(performerRepository.findResponsesBy(eq(pageable)))
                 .thenReturn(new PageImpl<>(List.of(p1, p2), pageable, 2));
 
         Page<PerformerResponse> res1 = service.list(null, pageable);
@@ -140,7 +145,7 @@ class PerformerServiceImplTest {
 
         assertThat(res2.getTotalElements()).isEqualTo(2);
 
-        verify(performerRepository, times(2)).findAll(eq(pageable));
+        verify(performerRepository, times(2)).findResponsesBy(eq(pageable));
         verifyNoMoreInteractions(performerRepository);
     }
 
@@ -149,11 +154,7 @@ class PerformerServiceImplTest {
         Pageable pageable = PageRequest.of(0, 5);
         String rawName = "  tar  ";
 
-        var p = new Performer();
-        p.setId(7L);
-        p.setName("Tarkan");
-        p.setRole("SINGER");
-        p.setDescription("Pop");
+        var p = new PerformerResponse(7L, "Tarkan", "SINGER", "Pop");
 
         when(performerRepository.findByNameContainingIgnoreCase(eq("tar"), eq(pageable)))
                 .thenReturn(new PageImpl<>(List.of(p), pageable, 1));
@@ -167,6 +168,38 @@ class PerformerServiceImplTest {
         verifyNoMoreInteractions(performerRepository);
     }
 
+    @Test
+    void list_shouldNotCount_whenCountModeNone() {
+        Pageable pageable = PageRequest.of(0, 1);
+        var p = new PerformerResponse(7L, "Tarkan", null, null);
+        when(performerRepository.findSliceByNameContainingIgnoreCase(eq("tar"), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(p), pageable, true));
+
+        Slice<PerformerResponse> slice = service.list(" tar ", CountMode.NONE, pageable);
+
+        assertThat(slice).isNotInstanceOf(Page.class);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(slice.getContent()).extracting(PerformerResponse::id).containsExactly(7L);
+        verify(performerRepository).findSliceByNameContainingIgnoreCase(eq("tar"), eq(pageable));
+        verifyNoMoreInteractions(performerRepository);
+        verifyNoInteractions(pageCounts);
+    }
+
+    @Test
+    void list_shouldTakeTotalFromPageCounts_whenCountModeCached() {
+        Pageable pageable = PageRequest.of(0, 1);
+        var p = new PerformerResponse(7L, "Tarkan", null, null);
+        when(performerRepository.findSliceBy(eq(pageable))).thenReturn(new SliceImpl<>(List.of(p), pageable, true));
+        when(pageCounts.count(eq("performers|"), any())).thenReturn(42L);
+
+        Slice<PerformerResponse> slice = service.list(null, CountMode.CACHED, pageable);
+
+        assertThat(slice).isInstanceOf(Page.class);
+        assertThat(((Page<PerformerResponse>) slice).getTotalElements()).isEqualTo(42);
+        verify(performerRepository).findSliceBy(eq(pageable));
+        verifyNoMoreInteractions(performerRepository);
+    }
+
     @Test
     void update_shouldThrow_whenNotFound() {
         when(performerRepository.findById(eq(123L))).thenReturn(Optional.empty());
@@ -214,6 +247,7 @@ class PerformerServiceImplTest {
 
         verify(performerRepository).existsById(eq(55L));
         verifyNoMoreInteractions(performerRepository);
+        verifyNoInteractions(tombstoneRepository);
     }
 
     @Test
@@ -223,6 +257,56 @@ class PerformerServiceImplTest {
 
         verify(performerRepository).existsById(eq(55L));
         verify(performerRepository).deleteById(eq(55L));
+        verify(tombstoneRepository).insert(eq(CatalogEntityType.PERFORMER), eq(55L), any(Instant.class));
+        verify(autocompleteIndex).removeAfterCommit(eq(AutocompleteIndex.PERFORMER), eq(55L));
+        verifyNoMoreInteractions(performerRepository);
+    }
+
+    @Test
+    void getByIds_shouldSelectResponsesInOneQuery_inRequestOrder() {
+        var p3 = new PerformerResponse(3L, "Tarkan", null, null);
+        var p8 = new PerformerResponse(8L, "Teoman", null, null);
+        when(performerRepository.findResponsesByIdIn(eq(List.of(8L, 5L, 3L)))).thenReturn(List.of(p3, p8));
+
+        var result = service.getByIds(List.of(8L, 5L, 3L));
+
+        assertThat(result).containsExactly(
+                MultiGetItem.of(8L, p8), MultiGetItem.of(5L, null), MultiGetItem.of(3L, p3));
+        verify(performerRepository).findResponsesByIdIn(eq(List.of(8L, 5L, 3L)));
         verifyNoMoreInteractions(performerRepository);
     }
+
+    @Test
+    void scroll_shouldFetchOneExtraRow_andContinueAfterLastId() {
+        var p1 = new PerformerResponse(3L, "Tarkan", null, null);
+        var p2 = new PerformerResponse(8L, "Teoman", null, null);
+        var p3 = new PerformerResponse(11L, "Tuğba", null, null);
+        when(performerRepository.findByIdGreaterThanOrderById(eq(0L), eq(Limit.of(3))))
+                .thenReturn(List.of(p1, p2, p3));
+
+        var first = service.scroll(null, null, 2);
+
+        assertThat(first.content()).extracting(PerformerResponse::id).containsExactly(3L, 8L);
+        assertThat(first.hasNext()).isTrue();
+
+        when(performerRepository.findByNameContainingIgnoreCaseAndIdGreaterThanOrderById(
+                eq("t"), eq(8L), eq(Limit.of(3)))).thenReturn(List.of(p3));
+
+        var second = service.scroll(" t ", first.nextCursor(), 2);
+
+        assertThat(second.content()).extracting(PerformerResponse::id).containsExactly(11L);
+        assertThat(second.hasNext()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+    }
+
+    @Test
+    void scroll_shouldRejectBadCursorAndSize_withoutDb() {
+        assertThatThrownBy(() -> service.scroll(null, "not a cursor!", 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+        assertThatThrownBy(() -> service.scroll(null, null, Cursors.MAX_SIZE + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(performerRepository);
+    }
 }
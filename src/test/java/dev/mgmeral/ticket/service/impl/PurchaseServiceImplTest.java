@@ -6,6 +6,10 @@ import dev.mgmeral.ticket.entity.Purchase;
 import dev.mgmeral.ticket.enums.HoldStatus;
 import dev.mgmeral.ticket.enums.PaymentStatus;
 import dev.mgmeral.ticket.enums.PurchaseStatus;
+import dev.mgmeral.ticket.idempotency.IdempotencyKeyFilter;
+import dev.mgmeral.ticket.idempotency.IdempotencyResponseStore;
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceInventory;
 import dev.mgmeral.ticket.model.PurchaseCreateRequest;
 import dev.mgmeral.ticket.model.PurchaseResponse;
 import dev.mgmeral.ticket.repository.HoldRepository;
@@ -20,7 +24,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.dao.DataIntegrityViolationException;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -39,6 +42,14 @@ class PurchaseServiceImplTest {
     HoldRepository holdRepository;
     @Mock
     PaymentRepository paymentRepository;
+    @Mock
+    SeanceInventory seanceInventory;
+    @Mock
+    SeanceCapacityLedger capacityLedger;
+    @Mock
+    IdempotencyKeyFilter idempotencyKeys;
+    @Mock
+    IdempotencyResponseStore responseStore;
 
     PurchaseServiceImpl service;
 
@@ -84,7 +95,70 @@ class PurchaseServiceImplTest {
     @BeforeEach
     void setup() {
         MeterRegistry registry = new io.micrometer.core.instrument.simple.SimpleMeterRegistry();
-        service = new PurchaseServiceImpl(purchaseRepository, holdRepository, paymentRepository, registry);
+        service = new PurchaseServiceImpl(purchaseRepository, holdRepository, paymentRepository,
+                seanceInventory, capacityLedger, idempotencyKeys, responseStore, registry);
+        // unless a test says otherwise every key may exist, so the DB lookup runs
+        lenient().when(idempotencyKeys.mightExist(any(), any())).thenReturn(true);
+    }
+
+    @Test
+    void create_shouldSkipIdempotencyLookup_whenFilterRulesKeyOut() {
+        var req = mock(PurchaseCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-new");
+        when(req.paymentRef()).thenReturn("p-ref");
+        when(idempotencyKeys.mightExist(IdempotencyKeyFilter.Scope.PURCHASE, "idem-new")).thenReturn(false);
+        when(paymentRepository.findByPaymentRef("p-ref")).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.create(req))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Payment not found: p-ref");
+
+        verifyNoInteractions(purchaseRepository, holdRepository);
+    }
+
+    @Test
+    void create_shouldReturnExisting_whenHoldConsumedAfterSkippedLookup() {
+        var req = mock(PurchaseCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-other-node");
+        when(req.paymentRef()).thenReturn("p-ref");
+        when(req.holdId()).thenReturn(10L);
+        when(idempotencyKeys.mightExist(IdempotencyKeyFilter.Scope.PURCHASE, "idem-other-node")).thenReturn(false);
+
+        when(paymentRepository.findByPaymentRef("p-ref"))
+                .thenReturn(Optional.of(payment("p-ref", PaymentStatus.AUTHORIZED, "100.00")));
+        var h = hold(10L, 20L, 30L, 1, HoldStatus.CONSUMED, Instant.now().plusSeconds(60));
+        when(holdRepository.findWithLockById(10L)).thenReturn(Optional.of(h));
+        when(purchaseRepository.findWithLockByIdempotencyKey("idem-other-node")).thenReturn(Optional.of(purchase(
+                5L, "idem-other-node", "p-ref",
+                10L, 20L, 30L, 1,
+                "100.00", PurchaseStatus.SOLD,
+                Instant.parse("2028-01-01T00:00:00Z")
+        )));
+
+        var res = service.create(req);
+
+        assertThat(res.response().purchaseId()).isEqualTo(5L);
+        verify(purchaseRepository).findWithLockByIdempotencyKey("idem-other-node");
+        verify(idempotencyKeys).add(IdempotencyKeyFilter.Scope.PURCHASE, "idem-other-node");
+        verifyNoMoreInteractions(purchaseRepository);
+        verify(holdRepository, never()).save(any());
+    }
+
+    @Test
+    void create_shouldReplayStoredResponse_withoutLoadingPurchase() {
+        var req = mock(PurchaseCreateRequest.class);
+        when(req.idempotencyKey()).thenReturn("idem-stored");
+
+        var stored = new PurchaseResponse(3L, 10L, 30L, 20L, 1, new BigDecimal("100.00"), "p-ref",
+                PurchaseStatus.SOLD, Instant.parse("2028-01-01T00:00:00Z"));
+        when(responseStore.find(IdempotencyKeyFilter.Scope.PURCHASE, "idem-stored", PurchaseResponse.class))
+                .thenReturn(Optional.of(stored));
+
+        var res = service.create(req);
+
+        assertThat(res.created()).isFalse();
+        assertThat(res.response()).isSameAs(stored);
+        verifyNoInteractions(purchaseRepository, paymentRepository, holdRepository);
     }
 
     @Test
@@ -192,6 +266,7 @@ class PurchaseServiceImplTest {
                 .hasMessageContaining("status=" + HoldStatus.RELEASED);
 
         verify(purchaseRepository).findByIdempotencyKey("idem-x");
+        verify(purchaseRepository).findWithLockByIdempotencyKey("idem-x");
         verify(paymentRepository).findByPaymentRef("p-ref");
         verify(holdRepository).findWithLockById(10L);
         verifyNoMoreInteractions(purchaseRepository, paymentRepository, holdRepository);
@@ -266,12 +341,13 @@ class PurchaseServiceImplTest {
                 .thenReturn(Optional.of(payment("p-ref", PaymentStatus.AUTHORIZED, "200.00")));
 
         var h = hold(10L, 20L, 30L, 2, HoldStatus.HELD, Instant.now().plusSeconds(60));
+        h.setIdempotencyKey("hold-idem");
         when(holdRepository.findWithLockById(10L)).thenReturn(Optional.of(h));
 
-        when(purchaseRepository.save(any(Purchase.class))).thenAnswer(inv -> {
-            Purchase p = inv.getArgument(0);
+        when(purchaseRepository.insertNew(any(Purchase.class))).thenAnswer(inv -> {
+            Purchase p = inv.<Purchase>getArgument(0);
             p.setId(999L);
-            return p;
+            return true;
         });
 
         when(holdRepository.save(any(Hold.class))).thenAnswer(inv -> inv.getArgument(0));
@@ -283,7 +359,7 @@ class PurchaseServiceImplTest {
         assertThat(response.amount()).isEqualByComparingTo("200.00");
         assertThat(response.paymentRef()).isEqualTo("p-ref");
 
-        verify(purchaseRepository).save(purchaseCaptor.capture());
+        verify(purchaseRepository).insertNew(purchaseCaptor.capture());
         var savedPurchase = purchaseCaptor.getValue();
         assertThat(savedPurchase.getHoldId()).isEqualTo(10L);
         assertThat(savedPurchase.getSeanceId()).isEqualTo(20L);
@@ -299,6 +375,11 @@ class PurchaseServiceImplTest {
         assertThat(updatedHold.getStatus()).isEqualTo(HoldStatus.CONSUMED);
         assertThat(updatedHold.getReleasedAt()).isNotNull();
 
+        verify(seanceInventory).sell(20L, 0, 2);
+        verify(capacityLedger).sellAfterCommit(20L, 2);
+        verify(responseStore).save(IdempotencyKeyFilter.Scope.PURCHASE, "idem-ok", response);
+        verify(responseStore).evict(IdempotencyKeyFilter.Scope.HOLD, "hold-idem");
+
         verify(purchaseRepository).findByIdempotencyKey("idem-ok");
         verify(paymentRepository).findByPaymentRef("p-ref");
         verify(holdRepository).findWithLockById(10L);
@@ -312,8 +393,8 @@ class PurchaseServiceImplTest {
         when(req.paymentRef()).thenReturn("p-ref");
         when(req.holdId()).thenReturn(10L);
 
-        when(purchaseRepository.findByIdempotencyKey("idem-dup"))
-                .thenReturn(Optional.empty())
+        when(purchaseRepository.findByIdempotencyKey("idem-dup")).thenReturn(Optional.empty());
+        when(purchaseRepository.findWithLockByIdempotencyKey("idem-dup"))
                 .thenReturn(Optional.of(purchase(
                         1L, "idem-dup", "p-ref",
                         10L, 20L, 30L, 1,
@@ -327,19 +408,20 @@ class PurchaseServiceImplTest {
         var h = hold(10L, 20L, 30L, 1, HoldStatus.HELD, Instant.now().plusSeconds(60));
         when(holdRepository.findWithLockById(10L)).thenReturn(Optional.of(h));
 
-        var dup = new DataIntegrityViolationException("dup");
-        when(purchaseRepository.save(any(Purchase.class))).thenThrow(dup);
+        when(purchaseRepository.insertNew(any(Purchase.class))).thenReturn(false);
 
         var res = service.create(req);
         PurchaseResponse response = res.response();
         assertThat(response.purchaseId()).isEqualTo(1L);
         assertThat(response.status()).isEqualTo(PurchaseStatus.SOLD);
 
-        verify(purchaseRepository).save(purchaseCaptor.capture());
+        verify(purchaseRepository).insertNew(purchaseCaptor.capture());
         assertThat(purchaseCaptor.getValue().getIdempotencyKey()).isEqualTo("idem-dup");
 
-        verify(purchaseRepository, times(2)).findByIdempotencyKey("idem-dup");
-        verify(purchaseRepository, never()).findByPaymentRef(anyString());
+        verify(purchaseRepository).findByIdempotencyKey("idem-dup");
+        verify(purchaseRepository).findWithLockByIdempotencyKey("idem-dup");
+        verify(purchaseRepository, never()).findWithLockByPaymentRef(anyString());
+        verify(idempotencyKeys).add(IdempotencyKeyFilter.Scope.PURCHASE, "idem-dup");
         verify(holdRepository, never()).save(any());
 
         verify(paymentRepository).findByPaymentRef("p-ref");
@@ -355,9 +437,8 @@ class PurchaseServiceImplTest {
         when(req.paymentRef()).thenReturn("p-ref");
         when(req.holdId()).thenReturn(10L);
 
-        when(purchaseRepository.findByIdempotencyKey("idem-dup2"))
-                .thenReturn(Optional.empty())
-                .thenReturn(Optional.empty());
+        when(purchaseRepository.findByIdempotencyKey("idem-dup2")).thenReturn(Optional.empty());
+        when(purchaseRepository.findWithLockByIdempotencyKey("idem-dup2")).thenReturn(Optional.empty());
 
         when(paymentRepository.findByPaymentRef("p-ref"))
                 .thenReturn(Optional.of(payment("p-ref", PaymentStatus.AUTHORIZED, "100.00")));
@@ -365,10 +446,9 @@ class PurchaseServiceImplTest {
         var h = hold(10L, 20L, 30L, 1, HoldStatus.HELD, Instant.now().plusSeconds(60));
         when(holdRepository.findWithLockById(10L)).thenReturn(Optional.of(h));
 
-        when(purchaseRepository.save(any(Purchase.class)))
-                .thenThrow(new DataIntegrityViolationException("dup"));
+        when(purchaseRepository.insertNew(any(Purchase.class))).thenReturn(false);
 
-        when(purchaseRepository.findByPaymentRef("p-ref"))
+        when(purchaseRepository.findWithLockByPaymentRef("p-ref"))
                 .thenReturn(Optional.of(purchase(
                         2L, "idem-???", "p-ref",
                         10L, 20L, 30L, 1,
@@ -381,9 +461,10 @@ class PurchaseServiceImplTest {
 
         assertThat(ex.getExistingPurchaseId()).isEqualTo(2L);
 
-        verify(purchaseRepository).save(any(Purchase.class));
-        verify(purchaseRepository, times(2)).findByIdempotencyKey("idem-dup2");
-        verify(purchaseRepository).findByPaymentRef("p-ref");
+        verify(purchaseRepository).insertNew(any(Purchase.class));
+        verify(purchaseRepository).findByIdempotencyKey("idem-dup2");
+        verify(purchaseRepository).findWithLockByIdempotencyKey("idem-dup2");
+        verify(purchaseRepository).findWithLockByPaymentRef("p-ref");
 
         verify(paymentRepository).findByPaymentRef("p-ref");
         verify(holdRepository).findWithLockById(10L);
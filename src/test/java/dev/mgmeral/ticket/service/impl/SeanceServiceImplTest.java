@@ -1,17 +1,20 @@
 package dev.mgmeral.ticket.service.impl;
 
+import dev.mgmeral.ticket.availability.AvailabilityStream;
 import dev.mgmeral.ticket.entity.Seance;
-import dev.mgmeral.ticket.enums.HoldStatus;
-import dev.mgmeral.ticket.enums.PurchaseStatus;
+import dev.mgmeral.ticket.enums.CountMode;
+import dev.mgmeral.ticket.inventory.SeanceCapacityLedger;
+import dev.mgmeral.ticket.inventory.SeanceCounters;
+import dev.mgmeral.ticket.inventory.SeanceInventory;
 import dev.mgmeral.ticket.mapper.SeanceMapper;
 import dev.mgmeral.ticket.model.SeanceAvailabilityResponse;
 import dev.mgmeral.ticket.model.SeanceCreateRequest;
 import dev.mgmeral.ticket.model.SeanceCreateResponse;
 import dev.mgmeral.ticket.model.SeanceGetResponse;
+import dev.mgmeral.ticket.paging.PageCounts;
 import dev.mgmeral.ticket.repository.EventRepository;
-import dev.mgmeral.ticket.repository.HoldRepository;
-import dev.mgmeral.ticket.repository.PurchaseRepository;
 import dev.mgmeral.ticket.repository.SeanceRepository;
+import dev.mgmeral.ticket.repository.SeanceSummaryRow;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -21,14 +24,22 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -40,11 +51,15 @@ class SeanceServiceImplTest {
     @Mock
     EventRepository eventRepository;
     @Mock
-    HoldRepository holdRepository;
+    SeanceInventory seanceInventory;
     @Mock
-    PurchaseRepository purchaseRepository;
+    SeanceCapacityLedger capacityLedger;
     @Mock
     SeanceMapper seanceMapper;
+    @Mock
+    PageCounts pageCounts;
+    @Mock
+    AvailabilityStream availabilityStream;
 
     @InjectMocks
     SeanceServiceImpl service;
@@ -53,8 +68,6 @@ class SeanceServiceImplTest {
     ArgumentCaptor<Seance> seanceCaptor;
     @Captor
     ArgumentCaptor<Specification<Seance>> specCaptor;
-    @Captor
-    ArgumentCaptor<Instant> instantCaptor;
 
     @Test
     void create_shouldThrowEntityNotFound_whenEventMissing() {
@@ -69,7 +82,7 @@ class SeanceServiceImplTest {
 
         verify(eventRepository).existsById(eq(eventId));
         verifyNoMoreInteractions(eventRepository);
-        verifyNoInteractions(seanceRepository, holdRepository, purchaseRepository, seanceMapper);
+        verifyNoInteractions(seanceRepository, seanceInventory, capacityLedger, seanceMapper);
     }
 
     @Test
@@ -94,9 +107,24 @@ class SeanceServiceImplTest {
         verify(eventRepository).existsById(eq(eventId));
         verify(seanceMapper).toEntity(eq(eventId), eq(req));
         verify(seanceRepository).save(eq(mapped));
+        verify(seanceInventory).initialize(eq(saved));
         verify(seanceMapper).toCreateResponse(eq(saved));
-        verifyNoMoreInteractions(eventRepository, seanceRepository, seanceMapper);
-        verifyNoInteractions(holdRepository, purchaseRepository);
+        verifyNoMoreInteractions(eventRepository, seanceRepository, seanceInventory, seanceMapper);
+        verifyNoInteractions(capacityLedger);
+    }
+
+    @Test
+    void create_shouldThrowIllegalArgument_whenShardsExceedCapacity() {
+        long eventId = 10L;
+        var req = new SeanceCreateRequest(Instant.parse("2026-01-01T10:00:00Z"), 4, 8);
+
+        when(eventRepository.existsById(eq(eventId))).thenReturn(true);
+
+        assertThatThrownBy(() -> service.create(eventId, req))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("inventoryShards must not exceed capacity");
+
+        verifyNoInteractions(seanceRepository, seanceInventory, capacityLedger, seanceMapper);
     }
 
     @Test
@@ -115,7 +143,7 @@ class SeanceServiceImplTest {
         verify(seanceRepository).findById(eq(id));
         verify(seanceMapper).toGetResponse(eq(s));
         verifyNoMoreInteractions(seanceRepository, seanceMapper);
-        verifyNoInteractions(eventRepository, holdRepository, purchaseRepository);
+        verifyNoInteractions(eventRepository, capacityLedger);
     }
 
     @Test
@@ -130,84 +158,97 @@ class SeanceServiceImplTest {
 
         verify(seanceRepository).findById(eq(id));
         verifyNoMoreInteractions(seanceRepository);
-        verifyNoInteractions(eventRepository, holdRepository, purchaseRepository, seanceMapper);
+        verifyNoInteractions(eventRepository, capacityLedger, seanceMapper);
     }
 
     @Test
-    void search_shouldCallFindAllPageable_whenAllFiltersNull_andMapResults() {
+    void search_shouldSelectSummaryRows_whenAllFiltersNull_andMapResults() {
         Pageable pageable = PageRequest.of(0, 10);
 
-        Seance s = new Seance();
+        var s = new SeanceSummaryRow(5L, 1L, Instant.parse("2028-01-01T20:00:00Z"), 10, 1);
         var page = new PageImpl<>(List.of(s), pageable, 1);
 
-        when(seanceRepository.findAll(eq(pageable))).thenReturn(page);
+        when(seanceRepository.findPage(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>any(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class))).thenReturn(page);
 
         var mapped = mock(SeanceGetResponse.class);
         when(seanceMapper.toGetResponse(same(s))).thenReturn(mapped);
 
-        var result = service.search(null, null, null, pageable);
+        var result = service.search(null, null, null, false, false, pageable);
 
         assertThat(result.getContent()).containsExactly(mapped);
 
-        verify(seanceRepository).findAll(eq(pageable));
-        verify(seanceRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+        verify(seanceRepository).findPage(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>any(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class));
 
         verify(seanceMapper).toGetResponse(same(s));
 
         verifyNoMoreInteractions(seanceRepository, seanceMapper);
-        verifyNoInteractions(eventRepository, holdRepository, purchaseRepository);
+        verifyNoInteractions(eventRepository, capacityLedger);
     }
 
     @Test
     void search_shouldBuildNonNullSpec_whenAnyFilterProvided() {
         Pageable pageable = PageRequest.of(0, 10);
-        var empty = Page.<Seance>empty(pageable);
+        var empty = Page.<SeanceSummaryRow>empty(pageable);
 
-        when(seanceRepository.findAll(Mockito.isA(Specification.class), eq(pageable))).thenReturn(empty);
+        when(seanceRepository.findPage(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>notNull(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class))).thenReturn(empty);
 
         Instant from = Instant.parse("2028-01-01T00:00:00Z");
         Instant to = Instant.parse("2028-12-31T23:59:59Z");
 
-        var result = service.search(10L, from, to, pageable);
+        var result = service.search(10L, from, to, false, false, pageable);
 
         assertThat(result.getTotalElements()).isZero();
 
-        verify(seanceRepository).findAll(specCaptor.capture(), eq(pageable));
+        verify(seanceRepository).findPage(eq(Seance.class), specCaptor.capture(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class));
         assertThat(specCaptor.getValue()).isNotNull();
 
         verifyNoMoreInteractions(seanceRepository);
-        verifyNoInteractions(eventRepository, holdRepository, purchaseRepository, seanceMapper);
+        verifyNoInteractions(eventRepository, capacityLedger, seanceMapper);
+    }
+
+    @Test
+    void search_shouldUseSpec_whenOnlyAvailable_andAttachLedgerCounters_whenRequested() {
+        Pageable pageable = PageRequest.of(0, 10);
+        var s = new SeanceSummaryRow(5L, 1L, Instant.parse("2028-01-01T20:00:00Z"), 10, 1);
+        when(seanceRepository.findPage(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>notNull(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class)))
+                .thenReturn(new PageImpl<>(List.of(s), pageable, 1));
+        when(seanceMapper.toGetResponse(same(s)))
+                .thenReturn(new SeanceGetResponse(5L, 1L, Instant.parse("2028-01-01T20:00:00Z"), 10, 1, null));
+        when(capacityLedger.snapshots(eq(List.of(5L))))
+                .thenReturn(Map.of(5L, new SeanceCounters(10, 3, 2).snapshot()));
+
+        var result = service.search(null, null, null, true, true, pageable);
+
+        assertThat(result.getContent()).singleElement()
+                .satisfies(r -> assertThat(r.availability().availableCount()).isEqualTo(5));
+        verify(capacityLedger).snapshots(eq(List.of(5L)));
+        verifyNoMoreInteractions(capacityLedger);
     }
 
     @Test
     void availability_shouldThrowEntityNotFound_whenSeanceMissing() {
         long id = 10L;
-        when(seanceRepository.findById(eq(id))).thenReturn(Optional.empty());
+        when(capacityLedger.snapshot(eq(id))).thenThrow(new EntityNotFoundException("Seance not found: " + id));
 
         assertThatThrownBy(() -> service.availability(id))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Seance not found: " + id);
 
-        verify(seanceRepository).findById(eq(id));
-        verifyNoMoreInteractions(seanceRepository);
-        verifyNoInteractions(eventRepository, holdRepository, purchaseRepository, seanceMapper);
+        verify(capacityLedger).snapshot(eq(id));
+        verifyNoMoreInteractions(capacityLedger);
+        verifyNoInteractions(seanceRepository, eventRepository, seanceMapper);
     }
 
     @Test
     void availability_shouldReturnCalculatedAvailability() {
         long id = 10L;
 
-        Seance s = mock(Seance.class);
-        when(s.getId()).thenReturn(id);
-        when(s.getCapacity()).thenReturn(100);
-
-        when(seanceRepository.findById(eq(id))).thenReturn(Optional.of(s));
-
-        when(holdRepository.sumActiveQuantity(eq(id), eq(HoldStatus.HELD), instantCaptor.capture()))
-                .thenReturn(12L);
-
-        when(purchaseRepository.sumQuantityBySeanceAndStatus(eq(id), eq(PurchaseStatus.SOLD)))
-                .thenReturn(30L);
+        when(capacityLedger.snapshot(eq(id))).thenReturn(new SeanceCounters(100, 30, 12).snapshot());
 
         SeanceAvailabilityResponse res = service.availability(id);
 
@@ -217,38 +258,160 @@ class SeanceServiceImplTest {
         assertThat(res.heldCount()).isEqualTo(12);
         assertThat(res.availableCount()).isEqualTo(58);
 
-        verify(seanceRepository).findById(eq(id));
-        verify(holdRepository).sumActiveQuantity(eq(id), eq(HoldStatus.HELD), eq(instantCaptor.getValue()));
-        verify(purchaseRepository).sumQuantityBySeanceAndStatus(eq(id), eq(PurchaseStatus.SOLD));
+        verify(capacityLedger).snapshot(eq(id));
 
-        verifyNoMoreInteractions(seanceRepository, holdRepository, purchaseRepository);
-        verifyNoInteractions(eventRepository, seanceMapper);
+        verifyNoMoreInteractions(capacityLedger);
+        verifyNoInteractions(seanceRepository, eventRepository, seanceMapper);
     }
 
     @Test
     void availability_shouldClampAvailableToZero_whenNegative() {
         long id = 10L;
 
-        Seance s = mock(Seance.class);
-        when(s.getId()).thenReturn(id);
-        when(s.getCapacity()).thenReturn(10);
+        when(capacityLedger.snapshot(eq(id))).thenReturn(new SeanceCounters(10, 9, 5).snapshot());
 
-        when(seanceRepository.findById(eq(id))).thenReturn(Optional.of(s));
+        SeanceAvailabilityResponse res = service.availability(id);
+
+        assertThat(res.availableCount()).isZero();
 
-        when(holdRepository.sumActiveQuantity(eq(id), eq(HoldStatus.HELD), instantCaptor.capture()))
-                .thenReturn(5L);
+        verify(capacityLedger).snapshot(eq(id));
+        verifyNoMoreInteractions(capacityLedger);
+        verifyNoInteractions(seanceRepository, eventRepository, seanceMapper);
+    }
 
-        when(purchaseRepository.sumQuantityBySeanceAndStatus(eq(id), eq(PurchaseStatus.SOLD)))
-                .thenReturn(9L);
+    @Test
+    void bulkAvailability_shouldReadLedgerOnce_forDistinctIds() {
+        Map<Long, SeanceCounters.Snapshot> snapshots = new LinkedHashMap<>();
+        snapshots.put(2L, new SeanceCounters(10, 4, 1).snapshot());
+        snapshots.put(1L, new SeanceCounters(10, 9, 5).snapshot());
+        when(capacityLedger.snapshots(eq(List.of(2L, 1L, 3L)))).thenReturn(snapshots);
 
-        SeanceAvailabilityResponse res = service.availability(id);
+        List<SeanceAvailabilityResponse> res = service.availability(List.of(2L, 1L, 2L, 3L));
 
-        assertThat(res.availableCount()).isZero();
+        assertThat(res)
+                .extracting(SeanceAvailabilityResponse::seanceId, SeanceAvailabilityResponse::availableCount)
+                .containsExactly(tuple(2L, 5L), tuple(1L, 0L));
 
-        verify(seanceRepository).findById(eq(id));
-        verify(holdRepository).sumActiveQuantity(eq(id), eq(HoldStatus.HELD), eq(instantCaptor.getValue()));
-        verify(purchaseRepository).sumQuantityBySeanceAndStatus(eq(id), eq(PurchaseStatus.SOLD));
-        verifyNoMoreInteractions(seanceRepository, holdRepository, purchaseRepository);
-        verifyNoInteractions(eventRepository, seanceMapper);
+        verify(capacityLedger).snapshots(eq(List.of(2L, 1L, 3L)));
+        verifyNoMoreInteractions(capacityLedger);
+        verifyNoInteractions(seanceRepository, eventRepository, seanceMapper);
+    }
+
+    @Test
+    void bulkAvailability_shouldRejectTooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, SeanceServiceImpl.MAX_AVAILABILITY_IDS + 1)
+                .boxed()
+                .toList();
+
+        assertThatThrownBy(() -> service.availability(ids))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(capacityLedger);
+    }
+
+    @Test
+    void availabilityByEvent_shouldUseSeancesOfEvent() {
+        when(seanceRepository.findIdsByEventId(eq(7L))).thenReturn(List.of(1L, 2L));
+        when(capacityLedger.snapshots(eq(List.of(1L, 2L)))).thenReturn(Map.of(
+                1L, new SeanceCounters(10, 0, 0).snapshot()));
+
+        assertThat(service.availabilityByEvent(7L))
+                .extracting(SeanceAvailabilityResponse::seanceId)
+                .containsExactly(1L);
+
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void listByEvent_shouldAttachLedgerCounters_inOneBatch() {
+        Instant start = Instant.parse("2028-01-01T20:00:00Z");
+        var s1 = new SeanceSummaryRow(1L, 7L, start, 10, 1);
+        var s2 = new SeanceSummaryRow(2L, 7L, start.plusSeconds(3600), 20, 1);
+        when(seanceRepository.findSummariesByEventId(eq(7L))).thenReturn(List.of(s1, s2));
+        when(seanceMapper.toGetResponse(same(s1))).thenReturn(new SeanceGetResponse(1L, 7L, start, 10, 1, null));
+        when(seanceMapper.toGetResponse(same(s2)))
+                .thenReturn(new SeanceGetResponse(2L, 7L, start.plusSeconds(3600), 20, 1, null));
+        when(capacityLedger.snapshots(eq(List.of(1L, 2L)))).thenReturn(Map.of(
+                1L, new SeanceCounters(10, 4, 1).snapshot(),
+                2L, new SeanceCounters(20, 0, 0).snapshot()));
+
+        assertThat(service.listByEvent(7L))
+                .extracting(SeanceGetResponse::id, r -> r.availability().availableCount())
+                .containsExactly(tuple(1L, 5L), tuple(2L, 20L));
+
+        verify(capacityLedger).snapshots(eq(List.of(1L, 2L)));
+        verifyNoMoreInteractions(capacityLedger);
+        verifyNoInteractions(eventRepository);
+    }
+
+    @Test
+    void availabilityByEvent_shouldThrowEntityNotFound_whenEventMissing() {
+        when(seanceRepository.findIdsByEventId(eq(7L))).thenReturn(List.of());
+        when(eventRepository.existsById(eq(7L))).thenReturn(false);
+
+        assertThatThrownBy(() -> service.availabilityByEvent(7L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Event not found: 7");
+
+        verifyNoInteractions(capacityLedger);
+    }
+
+    @Test
+    void search_shouldReadSliceWithoutCount_whenCountModeNone() {
+        Pageable pageable = PageRequest.of(2, 10);
+        var s = new SeanceSummaryRow(5L, 10L, Instant.parse("2028-01-01T20:00:00Z"), 10, 1);
+        when(seanceRepository.findSlice(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>any(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class)))
+                .thenReturn(new SliceImpl<>(List.of(s), pageable, false));
+        var mapped = mock(SeanceGetResponse.class);
+        when(seanceMapper.toGetResponse(same(s))).thenReturn(mapped);
+
+        var result = service.search(10L, null, null, true, false, CountMode.NONE, pageable);
+
+        assertThat(result).isNotInstanceOf(Page.class);
+        assertThat(result.getContent()).containsExactly(mapped);
+        assertThat(result.hasNext()).isFalse();
+        verify(seanceRepository).findSlice(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>any(), eq(pageable),
+                eq(SeanceSummaryRow.class), any(String[].class));
+        verifyNoMoreInteractions(seanceRepository);
+        verifyNoInteractions(pageCounts, capacityLedger);
+    }
+
+    @Test
+    void scroll_shouldReturnCursorOfLastRow_andNoCount() {
+        Instant start = Instant.parse("2030-01-01T20:00:00Z");
+        var s1 = new SeanceSummaryRow(5L, 7L, start, 10, 1);
+        var s2 = new SeanceSummaryRow(2L, 7L, start.plusSeconds(3600), 10, 1);
+        when(seanceRepository.findFirst(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>any(), eq(Sort.by("startDate", "id")),
+                eq(2), eq(SeanceSummaryRow.class), any(String[].class))).thenReturn(List.of(s1, s2));
+        var r1 = mock(SeanceGetResponse.class);
+        when(seanceMapper.toGetResponse(s1)).thenReturn(r1);
+
+        var result = service.scroll(7L, null, null, true, Cursors.encode(start.minusSeconds(60), 9L), 1);
+
+        assertThat(result.content()).containsExactly(r1);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(result.nextCursor()).isEqualTo(Cursors.encode(start, 5L));
+        verify(seanceRepository).findFirst(eq(Seance.class), ArgumentMatchers.<Specification<Seance>>any(), any(Sort.class), eq(2),
+                eq(SeanceSummaryRow.class), any(String[].class));
+        verifyNoMoreInteractions(seanceRepository);
+    }
+
+    @Test
+    void scroll_shouldRejectCursorWithoutStartDate() {
+        assertThatThrownBy(() -> service.scroll(null, null, null, false, Cursors.encode(null, 9L), 20))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Invalid cursor");
+
+        verifyNoInteractions(seanceRepository);
+    }
+
+    @Test
+    void streamAvailability_shouldSubscribeThroughAvailabilityStream() {
+        var emitter = mock(SseEmitter.class);
+        when(availabilityStream.subscribe(eq(List.of(1L, 2L)))).thenReturn(emitter);
+
+        assertThat(service.streamAvailability(List.of(1L, 2L))).isSameAs(emitter);
+        verifyNoInteractions(seanceRepository, capacityLedger);
     }
 }
@@ -0,0 +1,50 @@
+package dev.mgmeral.ticket.waitingroom;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TicketRingTest {
+
+    @Test
+    void use_shouldLetATicketThroughForOneIdempotencyKeyOnly() {
+        var ring = new TicketRing(4);
+        ring.offer(10);
+        ring.offer(11);
+
+        assertThat(ring.use(11, "idem-a")).isTrue();
+        assertThat(ring.use(11, "idem-a")).isTrue();
+        assertThat(ring.use(11, "idem-b")).isFalse();
+        assertThat(ring.use(10, "idem-b")).isTrue();
+    }
+
+    @Test
+    void use_shouldAllowTicketsThisNodeDidNotIssue() {
+        var ring = new TicketRing(4);
+        ring.offer(10);
+
+        assertThat(ring.use(42, "idem-a")).isTrue();
+    }
+
+    @Test
+    void offer_shouldRefuseWhenFull_untilOldTicketsAreEvicted() {
+        var ring = new TicketRing(2);
+
+        assertThat(ring.offer(1)).isTrue();
+        assertThat(ring.offer(2)).isTrue();
+        assertThat(ring.offer(3)).isFalse();
+
+        ring.evictUpTo(1);
+
+        assertThat(ring.size()).isEqualTo(1);
+        assertThat(ring.offer(3)).isTrue();
+        assertThat(ring.use(3, "idem-a")).isTrue();
+        assertThat(ring.use(3, "idem-b")).isFalse();
+    }
+
+    @Test
+    void constructor_shouldRequirePowerOfTwo() {
+        assertThatThrownBy(() -> new TicketRing(3)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
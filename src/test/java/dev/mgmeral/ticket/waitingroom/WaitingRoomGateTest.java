@@ -0,0 +1,131 @@
+package dev.mgmeral.ticket.waitingroom;
+
+import dev.mgmeral.ticket.exception.WaitingRoomQueuedException;
+import dev.mgmeral.ticket.model.WaitingRoomTicketResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WaitingRoomGateTest {
+
+    private final WaitingRoomSequences sequences = mock(WaitingRoomSequences.class);
+    private final WaitingRoomTokens tokens = new WaitingRoomTokens(true, "test-secret");
+
+    @Test
+    void enter_shouldPassUnderRate_andQueueBeyondIt() {
+        var gate = gate(true, 2);
+
+        assertThatCode(() -> gate.enter(1L, null, "a")).doesNotThrowAnyException();
+        assertThatCode(() -> gate.enter(1L, null, "b")).doesNotThrowAnyException();
+
+        when(sequences.allocate(eq(1L), eq(20))).thenReturn(1L);
+        WaitingRoomTicketResponse ticket = queued(gate, null, "c");
+
+        assertThat(ticket.position()).isEqualTo(1);
+        assertThat(ticket.admitted()).isFalse();
+        verify(sequences).allocate(eq(1L), eq(20));
+        verifyNoMoreInteractions(sequences);
+    }
+
+    @Test
+    void enter_shouldQueueEveryoneBehindAnExistingQueue_inFifoOrder() {
+        var gate = gate(true, 1);
+        gate.enter(1L, null, "a");
+        when(sequences.allocate(eq(1L), eq(20))).thenReturn(1L);
+
+        WaitingRoomTicketResponse first = queued(gate, null, "b");
+        WaitingRoomTicketResponse second = queued(gate, null, "c");
+
+        assertThat(first.position()).isEqualTo(1);
+        assertThat(second.position()).isEqualTo(2);
+    }
+
+    @Test
+    void enter_shouldAdmitTicket_onceWatermarkPassesIt() {
+        var gate = gate(true, 1);
+        gate.enter(1L, null, "a");
+        when(sequences.allocate(eq(1L), eq(20))).thenReturn(1L);
+        String token = queued(gate, null, "b").token();
+
+        assertThat(queued(gate, token, "b").position()).isEqualTo(1);
+
+        when(sequences.advance(eq(1L), anyLong(), any(Duration.class), anyLong()))
+                .thenReturn(new WaitingRoomSequences.Watermark(1, 20));
+        gate.tick();
+
+        when(sequences.use(eq(1L), eq(1L), eq("b"))).thenReturn(true);
+        assertThatCode(() -> gate.enter(1L, token, "b")).doesNotThrowAnyException();
+        assertThat(gate.status(1L, token).admitted()).isTrue();
+        assertThatThrownBy(() -> gate.enter(1L, token, "other"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Waiting room token already used");
+    }
+
+    @Test
+    void enter_shouldRejectTicketUsedOnAnotherNode() {
+        var gate = gate(true, 1);
+        gate.enter(1L, null, "a");
+        when(sequences.advance(eq(1L), anyLong(), any(Duration.class), anyLong()))
+                .thenReturn(new WaitingRoomSequences.Watermark(5, 20));
+        gate.tick();
+        String issuedElsewhere = tokens.issue(1L, 3);
+
+        when(sequences.use(eq(1L), eq(3L), eq("b"))).thenReturn(false);
+
+        assertThatThrownBy(() -> gate.enter(1L, issuedElsewhere, "b"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Waiting room token already used");
+        verify(sequences).use(eq(1L), eq(3L), eq("b"));
+    }
+
+    @Test
+    void enter_shouldRejectForgedOrForeignTokens() {
+        var gate = gate(true, 1);
+        String otherSeance = tokens.issue(2L, 1);
+
+        assertThatThrownBy(() -> gate.enter(1L, otherSeance, "a"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid waiting room token");
+        assertThatThrownBy(() -> gate.enter(1L, "1.forged", "a"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void enter_shouldDoNothing_whenDisabled() {
+        var gate = gate(false, 1);
+
+        for (int i = 0; i < 10; i++) {
+            gate.enter(1L, null, "k" + i);
+        }
+        gate.tick();
+
+        verifyNoInteractions(sequences);
+    }
+
+    @Test
+    void tokens_shouldRequireSecret_whenEnabled() {
+        assertThatThrownBy(() -> new WaitingRoomTokens(true, " "))
+                .isInstanceOf(IllegalStateException.class);
+
+        var unset = new WaitingRoomTokens(false, "");
+        assertThat(unset.verify(1L, tokens.issue(1L, 1))).isEqualTo(-1);
+    }
+
+    private WaitingRoomGate gate(boolean enabled, int ratePerSecond) {
+        return new WaitingRoomGate(sequences, tokens, enabled, ratePerSecond, 200, 60_000, 16, 20, 30_000);
+    }
+
+    private static WaitingRoomTicketResponse queued(WaitingRoomGate gate, String token, String idempotencyKey) {
+        return catchThrowableOfType(WaitingRoomQueuedException.class,
+                () -> gate.enter(1L, token, idempotencyKey)).getTicket();
+    }
+}
@@ -0,0 +1,51 @@
+package dev.mgmeral.ticket.waitingroom;
+
+import dev.mgmeral.ticket.entity.WaitingRoom;
+import dev.mgmeral.ticket.repository.WaitingRoomRepository;
+import dev.mgmeral.ticket.repository.WaitingRoomTicketUseRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class WaitingRoomSequencesTest {
+
+    private final WaitingRoomRepository waitingRoomRepository = mock(WaitingRoomRepository.class);
+    private final WaitingRoomTicketUseRepository ticketUseRepository = mock(WaitingRoomTicketUseRepository.class);
+    private final WaitingRoomSequences sequences = new WaitingRoomSequences(waitingRoomRepository, ticketUseRepository);
+
+    @Test
+    void use_shouldAllowFirstUse_andRetriesWithSameKeyOnly() {
+        when(ticketUseRepository.insert(eq(1L), eq(7L), eq("idem-a"), any())).thenReturn(1);
+        assertThat(sequences.use(1L, 7L, "idem-a")).isTrue();
+
+        when(ticketUseRepository.insert(eq(1L), eq(7L), any(), any())).thenReturn(0);
+        when(ticketUseRepository.findIdempotencyKey(eq(1L), eq(7L))).thenReturn(Optional.of("idem-a"));
+
+        assertThat(sequences.use(1L, 7L, "idem-a")).isTrue();
+        assertThat(sequences.use(1L, 7L, "idem-b")).isFalse();
+    }
+
+    @Test
+    void advance_shouldForgetUsesBehindAdmissionWindow_onlyWhenThisNodeMovedTheWatermark() {
+        WaitingRoom room = new WaitingRoom();
+        room.setAdmittedSeq(150);
+        room.setNextSeq(400);
+        when(waitingRoomRepository.findById(eq(1L))).thenReturn(Optional.of(room));
+
+        when(waitingRoomRepository.advance(eq(1L), eq(20L), any(), any())).thenReturn(0);
+        sequences.advance(1L, 20, Duration.ofMillis(200), 100);
+        verifyNoInteractions(ticketUseRepository);
+
+        when(waitingRoomRepository.advance(eq(1L), eq(20L), any(), any())).thenReturn(1);
+        WaitingRoomSequences.Watermark watermark = sequences.advance(1L, 20, Duration.ofMillis(200), 100);
+
+        assertThat(watermark).isEqualTo(new WaitingRoomSequences.Watermark(150, 400));
+        verify(ticketUseRepository).deleteUpTo(eq(1L), eq(50L));
+    }
+}